@@ -23,6 +23,10 @@ import static com.example.frly.constants.LogConstants.JWT_INVALID;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // EventSource cannot set headers, so the notification stream also takes a stream token as a query parameter
+    private static final String NOTIFICATION_STREAM_PATH = "/api/notifications/stream";
+    private static final String STREAM_TOKEN_PARAM = "token";
+
     private final JwtService jwtService;
 
     @Override
@@ -32,6 +36,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (!authenticateStreamToken(request, response)) {
+                return;
+            }
             filterChain.doFilter(request, response);
             return;
         }
@@ -60,4 +67,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Only on the stream endpoint and only for stream tokens; false when the request was rejected
+    private boolean authenticateStreamToken(HttpServletRequest request, HttpServletResponse response) {
+        String token = request.getParameter(STREAM_TOKEN_PARAM);
+        if (token == null || !NOTIFICATION_STREAM_PATH.equals(request.getServletPath())) {
+            return true;
+        }
+
+        Long userId;
+        try {
+            userId = jwtService.parseNotificationStreamToken(token);
+        } catch (Exception ex) {
+            log.warn(JWT_INVALID + ": " + ex.getMessage());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    new JwtUserPrincipal(userId, null),
+                    null,
+                    List.of(new SimpleGrantedAuthority("ROLE_USER"))
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        return true;
+    }
 }
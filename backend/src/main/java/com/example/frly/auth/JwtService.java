@@ -28,8 +28,19 @@ public class JwtService {
     @Value("${frly.security.jwt.expiration-ms}")
     private long expirationMs;
 
+    // Subscription URLs stop working after this; the user creates a new one
+    @Value("${frly.calendar.feed.token-ttl-days:365}")
+    private long calendarFeedTtlDays = 365;
+
+    // Only has to outlive the gap between minting it and opening the stream
+    @Value("${frly.notifications.stream.token-ttl-ms:60000}")
+    private long notificationStreamTokenTtlMs = 60000;
+
     private SecretKey key;
 
+    private static final String CALENDAR_FEED_PURPOSE = "calendar-feed";
+    private static final String NOTIFICATION_STREAM_PURPOSE = "notification-stream";
+
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
@@ -70,6 +81,52 @@ public class JwtService {
         return claims.get("email", String.class);
     }
 
+    // Long-lived token embedded in a calendar subscription URL; access is re-checked on every poll.
+    // It carries no email claim, so JwtAuthenticationFilter never accepts it as an API login.
+    // keyVersion ties it to the owner's current feed key, so rotating the key revokes older URLs.
+    public String generateCalendarFeedToken(Long userId, String groupId, Long sectionId, int keyVersion) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(String.valueOf(userId))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + calendarFeedTtlDays * 24 * 60 * 60 * 1000))
+                .claim("purpose", CALENDAR_FEED_PURPOSE)
+                .claim("kv", keyVersion)
+                .claim("gid", groupId)
+                .claim("sid", sectionId)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public Claims parseCalendarFeedToken(String token) {
+        Claims claims = parseClaims(token);
+        if (!CALENDAR_FEED_PURPOSE.equals(claims.get("purpose", String.class))) {
+            throw new IllegalArgumentException("Not a calendar feed token");
+        }
+        return claims;
+    }
+
+    // Short-lived token for the notification stream URL, since EventSource cannot send an Authorization header.
+    // Like the feed token it carries no email claim, so it is never accepted as an API login.
+    public String generateNotificationStreamToken(Long userId) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(String.valueOf(userId))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + notificationStreamTokenTtlMs))
+                .claim("purpose", NOTIFICATION_STREAM_PURPOSE)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public Long parseNotificationStreamToken(String token) {
+        Claims claims = parseClaims(token);
+        if (!NOTIFICATION_STREAM_PURPOSE.equals(claims.get("purpose", String.class))) {
+            throw new IllegalArgumentException("Not a notification stream token");
+        }
+        return Long.parseLong(claims.getSubject());
+    }
+
     private Claims parseClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(key)
@@ -0,0 +1,208 @@
+package com.example.frly.common.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cross-node eviction of node-local caches through Postgres LISTEN/NOTIFY.
+ * Evictions are sent with pg_notify on the caller's transaction, so Postgres delivers them only once
+ * that transaction commits and drops them on rollback. Every node listens on its own connection,
+ * opened outside the pool, and evicts locally. If that connection drops, all caches are cleared
+ * on reconnect because events sent in between are lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    private static final String CHANNEL = "frly_cache_invalidation";
+
+    // NOTIFY payloads must stay below 8000 bytes; keys are ASCII ids
+    private static final int MAX_PAYLOAD_CHARS = 7000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<CacheInvalidationListener> listenerProvider;
+
+    @Value("${frly.cache.invalidation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${frly.cache.invalidation.poll-timeout-ms:10000}")
+    private int pollTimeoutMs = 10_000;
+
+    @Value("${frly.cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs = 5_000;
+
+    // Lets a node skip its own messages; it has already evicted locally
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Map<String, List<CacheInvalidationListener>> listenersByTopic = Map.of();
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    // Evicts on this node after commit and on every other node through NOTIFY
+    public void invalidate(String topic, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> values = keys.stream().map(String::valueOf).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(topic, values);
+                }
+            });
+        } else {
+            dispatch(topic, values);
+        }
+        invalidateRemote(topic, values);
+    }
+
+    // Other nodes only, for caches that already updated themselves on this node
+    public void invalidateRemote(String topic, Collection<?> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        String header = topic + "\n" + nodeId + "\n";
+        StringBuilder payload = new StringBuilder(header);
+        for (Object key : keys) {
+            String value = String.valueOf(key);
+            if (payload.length() > header.length() && payload.length() + value.length() + 1 > MAX_PAYLOAD_CHARS) {
+                notify(payload.toString());
+                payload.setLength(header.length());
+            }
+            if (payload.length() > header.length()) {
+                payload.append(',');
+            }
+            payload.append(value);
+        }
+        notify(payload.toString());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Map<String, List<CacheInvalidationListener>> byTopic = new HashMap<>();
+        listenerProvider.orderedStream().forEach(listener ->
+                byTopic.computeIfAbsent(listener.cacheTopic(), topic -> new ArrayList<>()).add(listener));
+        listenersByTopic = byTopic;
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        Connection connection = listenConnection;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                log.debug("Closing cache invalidation connection failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> { }, CHANNEL, payload);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                evictEverything();
+                log.info("Listening for cache invalidations on channel {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {} ms: {}", reconnectDelayMs, ex.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\n", 3);
+        if (parts.length < 3 || parts[1].equals(nodeId)) {
+            return;
+        }
+        dispatch(parts[0], List.of(parts[2].split(",")));
+    }
+
+    private void dispatch(String topic, List<String> keys) {
+        for (CacheInvalidationListener listener : listenersByTopic.getOrDefault(topic, List.of())) {
+            try {
+                keys.forEach(listener::evict);
+            } catch (RuntimeException ex) {
+                log.error("Cache eviction failed for topic {}", topic, ex);
+            }
+        }
+    }
+
+    // Anything sent while we were not listening is lost
+    private void evictEverything() {
+        listenersByTopic.values().forEach(listeners -> listeners.forEach(listener -> {
+            try {
+                listener.evictAll();
+            } catch (RuntimeException ex) {
+                log.error("Cache eviction failed for topic {}", listener.cacheTopic(), ex);
+            }
+        }));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.frly.common.cache;
+
+/**
+ * A node-local cache that drops entries when CacheInvalidationBus delivers an eviction for its topic.
+ */
+public interface CacheInvalidationListener {
+
+    String cacheTopic();
+
+    void evict(String key);
+
+    // Called when events may have been missed, e.g. after the listener connection was re-established
+    void evictAll();
+}
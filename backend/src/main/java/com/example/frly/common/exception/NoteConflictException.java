@@ -0,0 +1,17 @@
+package com.example.frly.common.exception;
+
+import jakarta.persistence.OptimisticLockException;
+
+// Buffered note edits that could not be saved because the row moved on; carries them back to the writer
+public class NoteConflictException extends OptimisticLockException {
+    private final String unsavedContent;
+
+    public NoteConflictException(String message, String unsavedContent) {
+        super(message);
+        this.unsavedContent = unsavedContent;
+    }
+
+    public String getUnsavedContent() {
+        return unsavedContent;
+    }
+}
@@ -2,16 +2,23 @@ package com.example.frly.config;
 
 import com.example.frly.auth.JwtAuthenticationFilter;
 import com.example.frly.group.GroupContextFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -27,6 +34,36 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder(); // default strength 10
     }
 
+    // Actuator endpoints (health, metrics): health is open for load balancers, everything else needs HTTP Basic
+    // with the operator account; without a configured password nobody gets in. The user is local to this chain,
+    // so it never works against the API
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http,
+                                                           @Value("${frly.management.username:ops}") String username,
+                                                           @Value("${frly.management.password:}") String password) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> {
+                    auth.requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll();
+                    if (password.isBlank()) {
+                        auth.anyRequest().denyAll();
+                    } else {
+                        auth.anyRequest().hasRole("ACTUATOR");
+                    }
+                })
+                .httpBasic(Customizer.withDefaults());
+        if (!password.isBlank()) {
+            http.userDetailsService(new InMemoryUserDetailsManager(User.withUsername(username)
+                    .password(passwordEncoder().encode(password))
+                    .roles("ACTUATOR")
+                    .build()));
+        }
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -35,8 +72,11 @@ public class SecurityConfig {
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                     .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                    // Async re-dispatch of an already authorized stream (SSE completion/timeout)
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                     .requestMatchers("/api/health", "/api/auth/*", "/api/users",
-                        "/api/invites/accept", "/api/invites/decline").permitAll()
+                        "/api/invites/accept", "/api/invites/decline",
+                        "/api/calendar-feeds/*").permitAll()
                     .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
@@ -0,0 +1,91 @@
+package com.example.frly.group;
+
+import com.example.frly.common.cache.CacheInvalidationListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers approved (user, group) memberships so validateGroupAccess does not query on every request.
+ * Only positive results are kept, so only revocations need to evict; they do so on every node through
+ * CacheInvalidationBus. Entries also expire after a fixed age as a backstop.
+ */
+@Component
+public class GroupMembershipCache implements CacheInvalidationListener {
+
+    public static final String TOPIC = "group-memberships";
+
+    @Value("${frly.groups.membership-cache.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @Value("${frly.groups.membership-cache.ttl-ms:300000}")
+    private long ttlMs = 300_000;
+
+    // Bumped by every eviction; a lookup that started before one may not store its result
+    private long generation;
+
+    // Access-ordered so the least recently used memberships are dropped first; value is the expiry time
+    private final Map<String, Long> approved = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public static String key(Long userId, Long groupId) {
+        return userId + ":" + groupId;
+    }
+
+    public boolean isApproved(Long userId, Long groupId) {
+        String key = key(userId, groupId);
+        synchronized (approved) {
+            Long expiresAt = approved.get(key);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt < System.currentTimeMillis()) {
+                approved.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    // Read before the membership query and passed back to markApproved
+    public long generation() {
+        synchronized (approved) {
+            return generation;
+        }
+    }
+
+    public void markApproved(Long userId, Long groupId, long seenGeneration) {
+        synchronized (approved) {
+            if (generation == seenGeneration) {
+                approved.put(key(userId, groupId), System.currentTimeMillis() + ttlMs);
+            }
+        }
+    }
+
+    @Override
+    public String cacheTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void evict(String key) {
+        synchronized (approved) {
+            generation++;
+            approved.remove(key);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        synchronized (approved) {
+            generation++;
+            approved.clear();
+        }
+    }
+}
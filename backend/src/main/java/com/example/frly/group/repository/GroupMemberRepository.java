@@ -1,6 +1,8 @@
 package com.example.frly.group.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.frly.group.model.GroupMember;
 import com.example.frly.group.enums.GroupMemberStatus;
 
@@ -18,5 +20,13 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
 
     long countByGroupIdAndStatus(Long groupId, GroupMemberStatus status);
 
+    // (lowercased email, user id) pairs without loading member entities
+    @Query("SELECT LOWER(u.email), u.id FROM GroupMember m JOIN m.user u WHERE m.group.id = :groupId AND m.status = :status")
+    List<Object[]> findEmailsAndUserIdsByGroupIdAndStatus(@Param("groupId") Long groupId, @Param("status") GroupMemberStatus status);
+
     List<GroupMember> findByGroupIdAndRole_Name(Long groupId, String roleName);
+
+    // User ids holding a role, for notification fan-out without loading member entities
+    @Query("SELECT m.user.id FROM GroupMember m WHERE m.group.id = :groupId AND m.role.name = :roleName")
+    List<Long> findUserIdsByGroupIdAndRoleName(@Param("groupId") Long groupId, @Param("roleName") String roleName);
 }
@@ -1,11 +1,19 @@
 package com.example.frly.group.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.frly.group.model.Group;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface GroupRepository extends JpaRepository<Group, Long> {
     Optional<Group> findByInviteCode(String inviteCode);
     boolean existsByInviteCode(String inviteCode);
+
+    // (id, display name) pairs for rendering notifications
+    @Query("SELECT g.id, g.displayName FROM Group g WHERE g.id IN :ids")
+    List<Object[]> findDisplayNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -19,7 +19,10 @@ import com.example.frly.group.repository.GroupMemberRepository;
 import com.example.frly.group.model.Group;
 import com.example.frly.group.model.GroupMember;
 import com.example.frly.group.GroupContext;
+import com.example.frly.group.GroupMembershipCache;
+import com.example.frly.common.cache.CacheInvalidationBus;
 import com.example.frly.notification.NotificationService;
+import com.example.frly.notification.NotificationTypes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -43,6 +46,8 @@ public class GroupService {
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final GroupMembershipCache groupMembershipCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
     private static final String CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ123456789";
     private static final int CODE_LENGTH = 8;
     private static final SecureRandom random = new SecureRandom();
@@ -116,15 +121,13 @@ public class GroupService {
                 log.info("User {} re-requested to join Group {} (reusing removed membership)", userId, group.getId());
 
                 // Notify admins about the new join request
-                groupMemberRepository.findByGroupIdAndRole_Name(group.getId(), "ADMIN")
-                    .forEach(adminMember -> notificationService.notifyUser(
-                        adminMember.getUser().getId(),
-                        "GROUP_JOIN_REQUEST",
-                        String.format("%s %s requested to rejoin group '%s'",
-                            user.getFirstName(),
-                            user.getLastName(),
-                            group.getDisplayName())
-                    ));
+                notificationService.notifyUsers(
+                    groupMemberRepository.findUserIdsByGroupIdAndRoleName(group.getId(), "ADMIN"),
+                    NotificationTypes.GROUP_REJOIN_REQUEST,
+                    user.getId(),
+                    group.getId(),
+                    "group:" + group.getId()
+                );
 
                 return group.getId();
             } else {
@@ -145,15 +148,13 @@ public class GroupService {
         log.info("User {} requested to join Group {}", userId, group.getId());
 
         // Notify all admins of this group about the join request
-        groupMemberRepository.findByGroupIdAndRole_Name(group.getId(), "ADMIN")
-            .forEach(adminMember -> notificationService.notifyUser(
-                adminMember.getUser().getId(),
-                "GROUP_JOIN_REQUEST",
-                String.format("%s %s requested to join group '%s'",
-                    user.getFirstName(),
-                    user.getLastName(),
-                    group.getDisplayName())
-            ));
+        notificationService.notifyUsers(
+            groupMemberRepository.findUserIdsByGroupIdAndRoleName(group.getId(), "ADMIN"),
+            NotificationTypes.GROUP_JOIN_REQUEST,
+            user.getId(),
+            group.getId(),
+            "group:" + group.getId()
+        );
 
         return group.getId();
     }
@@ -195,9 +196,9 @@ public class GroupService {
         // Notify the user that their request was approved
         notificationService.notifyUser(
             memberToApprove.getUser().getId(),
-            "GROUP_JOIN_APPROVED",
-            String.format("Your request to join group '%s' has been approved.",
-                memberToApprove.getGroup().getDisplayName())
+            NotificationTypes.GROUP_JOIN_APPROVED,
+            currentUserId,
+            memberToApprove.getGroup().getId()
         );
     }
     
@@ -341,6 +342,10 @@ public class GroupService {
 
         try {
             Long groupId = Long.parseLong(groupIdStr);
+            if (groupMembershipCache.isApproved(userId, groupId)) {
+                return;
+            }
+            long cacheGeneration = groupMembershipCache.generation();
 
             GroupMember member = groupMemberRepository.findByUserIdAndGroupId(userId, groupId)
                     .orElseThrow(() -> {
@@ -352,6 +357,7 @@ public class GroupService {
                 log.warn("SECURITY ALERT: Non-approved membership {} for user {} on group {}", member.getStatus(), userId, groupId);
                 throw new BadRequestException("Access Denied: Your membership is not approved for this group");
             }
+            groupMembershipCache.markApproved(userId, groupId, cacheGeneration);
         } catch (NumberFormatException e) {
             throw new BadRequestException("Invalid Group ID format");
         }
@@ -407,31 +413,27 @@ public class GroupService {
 
             member.setStatus(GroupMemberStatus.REMOVED);
             groupMemberRepository.save(member);
+            invalidateMembership(currentUserId, groupId);
 
             Group group = member.getGroup();
 
             // Notify the member that they left
             notificationService.notifyUser(
                 currentUserId,
-                "GROUP_LEFT",
-                String.format("You left group '%s'.", group.getDisplayName())
+                NotificationTypes.GROUP_LEFT,
+                currentUserId,
+                group.getId()
             );
 
             // Notify all admins (except the leaving member) that someone left
-            groupMemberRepository.findByGroupIdAndRole_Name(groupId, "ADMIN")
-                .forEach(adminMember -> {
-                Long adminUserId = adminMember.getUser().getId();
-                if (!adminUserId.equals(currentUserId)) {
-                    notificationService.notifyUser(
-                        adminUserId,
-                        "GROUP_MEMBER_LEFT",
-                        String.format("%s %s left group '%s'",
-                            member.getUser().getFirstName(),
-                            member.getUser().getLastName(),
-                            group.getDisplayName())
-                    );
-                }
-                });
+            notificationService.notifyUsers(
+                groupMemberRepository.findUserIdsByGroupIdAndRoleName(groupId, "ADMIN").stream()
+                    .filter(adminUserId -> !adminUserId.equals(currentUserId))
+                    .toList(),
+                NotificationTypes.GROUP_MEMBER_LEFT,
+                currentUserId,
+                group.getId()
+            );
             return;
         }
 
@@ -443,17 +445,30 @@ public class GroupService {
 
         member.setStatus(GroupMemberStatus.REMOVED);
         groupMemberRepository.save(member);
+        invalidateMembership(userIdToRemove, groupId);
 
         Group group = member.getGroup();
 
         // Notify the removed user
         notificationService.notifyUser(
             userIdToRemove,
-            "GROUP_MEMBER_REMOVED",
-            String.format("You have been removed from group '%s' by an admin.", group.getDisplayName())
+            NotificationTypes.GROUP_MEMBER_REMOVED,
+            currentUserId,
+            group.getId()
         );
     }
 
+    // Cached approvals are dropped on this node after commit and on the others through NOTIFY
+    private void invalidateMembership(Long userId, Long groupId) {
+        cacheInvalidationBus.invalidate(GroupMembershipCache.TOPIC, java.util.List.of(GroupMembershipCache.key(userId, groupId)));
+    }
+
+    // For admin-only operations of other modules; the group id comes from the request context
+    public void validateAdminAccess(Long userId, String groupIdStr) {
+        validateGroupAccess(userId, groupIdStr);
+        validateAdminAccess(userId, Long.parseLong(groupIdStr));
+    }
+
     @Transactional(readOnly = true)
     private void validateAdminAccess(Long userId, Long groupId) {
         var memberOpt = groupMemberRepository.findByUserIdAndGroupId(userId, groupId);
@@ -0,0 +1,12 @@
+package com.example.frly.notification;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Exactly one of: ids (those notifications), upToId (everything up to and including that id), or neither (all)
+@Data
+public class MarkNotificationsReadRequestDto {
+    private List<Long> ids;
+    private Long upToId;
+}
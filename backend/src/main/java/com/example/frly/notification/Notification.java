@@ -24,9 +24,24 @@ public class Notification {
     @Column(name = "type", nullable = false, length = 50)
     private String type;
 
-    @Column(name = "message", nullable = false, columnDefinition = "TEXT")
+    // Only set on rows from before structured notifications that could not be converted; others render from the ids below
+    @Column(name = "message", columnDefinition = "TEXT")
     private String message;
 
+    @Column(name = "actor_user_id")
+    private Long actorUserId;
+
+    @Column(name = "target_group_id")
+    private Long targetGroupId;
+
+    // Set for notifications that compaction may fold together, e.g. "group:42"
+    @Column(name = "collapse_key", length = 100)
+    private String collapseKey;
+
+    // How many notifications this row stands for after compaction
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences = 1;
+
     @Column(name = "is_read", nullable = false)
     private boolean read = false;
 
@@ -1,8 +1,12 @@
 package com.example.frly.notification;
 
+import com.example.frly.auth.AuthUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 
@@ -12,12 +16,51 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationStreams notificationStreams;
 
     @GetMapping
     public ResponseEntity<List<NotificationDto>> getMyNotifications() {
         return ResponseEntity.ok(notificationService.getCurrentUserNotifications());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<NotificationPageDto> getMyNotificationPage(@RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(notificationService.getCurrentUserNotificationPage(cursor, limit));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<NotificationUnreadCountDto> getUnreadCount() {
+        return ResponseEntity.ok(notificationService.getCurrentUserUnreadCount());
+    }
+
+    // Bulk mark-read: all, a set of ids, or everything up to an id
+    @PostMapping("/read")
+    public ResponseEntity<NotificationUnreadCountDto> markManyAsRead(@RequestBody(required = false) MarkNotificationsReadRequestDto request) {
+        return ResponseEntity.ok(notificationService.markManyAsRead(request));
+    }
+
+    // Server-Sent Events; EventSource sends Last-Event-ID on reconnect so missed notifications are replayed.
+    // Browsers open it with ?token= from /stream-token. Once that token has expired an automatic reconnect is
+    // rejected, so the client fetches a new URL and passes the last id it saw as lastEventId
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                             @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        return notificationStreams.subscribe(AuthUtil.getCurrentUserId(), lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+
+    @PostMapping("/stream-token")
+    public ResponseEntity<NotificationStreamTokenDto> createStreamToken() {
+        String token = notificationService.createStreamToken();
+        NotificationStreamTokenDto dto = new NotificationStreamTokenDto();
+        dto.setToken(token);
+        dto.setUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/notifications/stream")
+                .queryParam("token", token)
+                .toUriString());
+        return ResponseEntity.ok(dto);
+    }
+
     @PostMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long id) {
         notificationService.markAsRead(id);
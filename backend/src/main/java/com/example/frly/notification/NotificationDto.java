@@ -9,6 +9,9 @@ public class NotificationDto {
     private Long id;
     private String type;
     private String message;
+    private Long actorUserId;
+    private Long groupId;
+    private int occurrences; // > 1 once repeats have been collapsed into this one
     private boolean read;
     private LocalDateTime createdAt;
 }
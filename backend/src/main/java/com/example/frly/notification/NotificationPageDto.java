@@ -0,0 +1,15 @@
+package com.example.frly.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPageDto {
+    private List<NotificationDto> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,209 @@
+package com.example.frly.notification;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.example.frly.common.cache.CacheInvalidationBus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the notifications raised during a transaction and writes them after it commits.
+ * Nothing is written for a rolled-back request; all rows of a transaction go out as JDBC batches in a
+ * fresh transaction, and fan-outs above a threshold are handed to a small background pool so large
+ * broadcasts do not hold up the response. Written rows are then pushed to the recipients' open streams.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationPublisher {
+
+    // Ids are drawn up front so the rows can be pushed to open streams without reading them back
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('config.notifications', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO config.notifications (id, user_id, type, actor_user_id, target_group_id, collapse_key, occurrences, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 1, FALSE, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final NotificationStreams notificationStreams;
+    private final NotificationUnreadCounter notificationUnreadCounter;
+    private final NotificationRenderer notificationRenderer;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    // Recipients per transaction above which the insert runs on the fan-out pool instead of the request thread
+    @Value("${frly.notifications.async-threshold:100}")
+    private int asyncThreshold = 100;
+
+    @Value("${frly.notifications.fanout-threads:2}")
+    private int fanoutThreads = 2;
+
+    private TransactionTemplate writeTransaction;
+    private ExecutorService fanoutExecutor;
+
+    private record Pending(Long userId, String type, Long actorUserId, Long targetGroupId, String collapseKey) {
+    }
+
+    @PostConstruct
+    void init() {
+        writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threadCount = new AtomicInteger();
+        fanoutExecutor = Executors.newFixedThreadPool(Math.max(1, fanoutThreads), runnable -> {
+            Thread thread = new Thread(runnable, "notification-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void publish(Long userId, String type, Long actorUserId, Long targetGroupId) {
+        publish(List.of(userId), type, actorUserId, targetGroupId, null);
+    }
+
+    // Same notification to every recipient; duplicates are dropped
+    public void publish(Collection<Long> userIds, String type, Long actorUserId, Long targetGroupId, String collapseKey) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Pending> batch = new ArrayList<>(userIds.size());
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            batch.add(new Pending(userId, type, actorUserId, targetGroupId, collapseKey));
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(batch);
+            return;
+        }
+        pendingForCurrentTransaction().addAll(batch);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        fanoutExecutor.shutdown();
+        if (!fanoutExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification fan-out did not finish before shutdown");
+        }
+    }
+
+    // One buffer per transaction, registered together with the synchronization that drains it
+    @SuppressWarnings("unchecked")
+    private List<Pending> pendingForCurrentTransaction() {
+        List<Pending> pending = (List<Pending>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<Pending> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(NotificationPublisher.this);
+            }
+        });
+        return created;
+    }
+
+    private void dispatch(List<Pending> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Pending> rows = List.copyOf(pending);
+        if (rows.size() <= asyncThreshold) {
+            write(rows);
+            return;
+        }
+        try {
+            fanoutExecutor.execute(() -> write(rows));
+        } catch (RejectedExecutionException ex) {
+            // Shutting down; better late on this thread than lost
+            write(rows);
+        }
+    }
+
+    // A failure here cannot undo the committed business change, so it is logged rather than rethrown
+    private void write(List<Pending> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids;
+        try {
+            ids = writeTransaction.execute(status -> {
+                List<Long> allocated = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, rows.size());
+                Timestamp createdAt = Timestamp.valueOf(now);
+                for (int from = 0; from < rows.size(); from += INSERT_BATCH_SIZE) {
+                    int to = Math.min(rows.size(), from + INSERT_BATCH_SIZE);
+                    List<Object[]> args = new ArrayList<>(to - from);
+                    for (int i = from; i < to; i++) {
+                        Pending row = rows.get(i);
+                        args.add(new Object[]{allocated.get(i), row.userId(), row.type(),
+                                row.actorUserId(), row.targetGroupId(), row.collapseKey(), createdAt});
+                    }
+                    jdbcTemplate.batchUpdate(INSERT_SQL, args);
+                }
+                // Delivered with the commit; other nodes drop their cached unread counts for these users
+                cacheInvalidationBus.invalidateRemote(NotificationUnreadCounter.TOPIC,
+                        rows.stream().map(Pending::userId).distinct().toList());
+                return allocated;
+            });
+            log.info("Created {} notification(s)", rows.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to write {} notification(s)", rows.size(), ex);
+            return;
+        }
+
+        // Committed by now, so the next read counts the new rows
+        rows.stream().map(Pending::userId).distinct().forEach(notificationUnreadCounter::evict);
+
+        // Only recipients with an open stream get a rendered copy
+        List<Long> liveUsers = new ArrayList<>();
+        List<NotificationDto> live = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Pending row = rows.get(i);
+            if (!notificationStreams.isConnected(row.userId())) {
+                continue;
+            }
+            NotificationDto dto = new NotificationDto();
+            dto.setId(ids.get(i));
+            dto.setType(row.type());
+            dto.setActorUserId(row.actorUserId());
+            dto.setGroupId(row.targetGroupId());
+            dto.setOccurrences(1);
+            dto.setCreatedAt(now);
+            liveUsers.add(row.userId());
+            live.add(dto);
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        notificationRenderer.renderAll(live);
+        for (int i = 0; i < live.size(); i++) {
+            notificationStreams.push(liveUsers.get(i), live.get(i));
+        }
+    }
+}
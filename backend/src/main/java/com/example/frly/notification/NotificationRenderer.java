@@ -0,0 +1,76 @@
+package com.example.frly.notification;
+
+import com.example.frly.group.repository.GroupRepository;
+import com.example.frly.user.UserSummaryCache;
+import com.example.frly.user.dto.UserSummaryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns stored notifications (type code + actor / group ids) into display text at read time.
+ * Names for a whole list are resolved at once: users through UserSummaryCache, groups with one query.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationRenderer {
+
+    private static final String UNKNOWN_USER = "Someone";
+    private static final String UNKNOWN_GROUP = "a group";
+
+    private final UserSummaryCache userSummaryCache;
+    private final GroupRepository groupRepository;
+
+    // Fills in message on every DTO that does not already carry legacy text
+    public void renderAll(Collection<NotificationDto> notifications) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        for (NotificationDto notification : notifications) {
+            if (notification.getMessage() != null) {
+                continue;
+            }
+            if (notification.getActorUserId() != null) {
+                userIds.add(notification.getActorUserId());
+            }
+            if (notification.getGroupId() != null) {
+                groupIds.add(notification.getGroupId());
+            }
+        }
+
+        Map<Long, UserSummaryDto> users = userIds.isEmpty() ? Map.of() : userSummaryCache.getAll(userIds);
+        Map<Long, String> groups = new HashMap<>();
+        if (!groupIds.isEmpty()) {
+            for (Object[] row : groupRepository.findDisplayNamesByIdIn(groupIds)) {
+                groups.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        for (NotificationDto notification : notifications) {
+            if (notification.getMessage() != null) {
+                continue;
+            }
+            UserSummaryDto actor = notification.getActorUserId() != null ? users.get(notification.getActorUserId()) : null;
+            String group = notification.getGroupId() != null ? groups.get(notification.getGroupId()) : null;
+            notification.setMessage(render(notification.getType(),
+                    actor != null ? actor.getDisplayName() : UNKNOWN_USER,
+                    group != null ? group : UNKNOWN_GROUP));
+        }
+    }
+
+    private static String render(String type, String actor, String group) {
+        return switch (type) {
+            case NotificationTypes.GROUP_JOIN_REQUEST -> String.format("%s requested to join group '%s'", actor, group);
+            case NotificationTypes.GROUP_REJOIN_REQUEST -> String.format("%s requested to rejoin group '%s'", actor, group);
+            case NotificationTypes.GROUP_JOIN_APPROVED -> String.format("Your request to join group '%s' has been approved.", group);
+            case NotificationTypes.GROUP_LEFT -> String.format("You left group '%s'.", group);
+            case NotificationTypes.GROUP_MEMBER_LEFT -> String.format("%s left group '%s'", actor, group);
+            case NotificationTypes.GROUP_MEMBER_REMOVED -> String.format("You have been removed from group '%s' by an admin.", group);
+            default -> type;
+        };
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.frly.notification;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +18,25 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     long countByUserIdAndReadIsFalse(Long userId);
 
     Optional<Notification> findByIdAndUserId(Long id, Long userId);
+
+    // Replay for a reconnecting notification stream
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+    // Keyset page, newest first; served by idx_notifications_user_created
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+            "AND (n.createdAt < :beforeDate OR (n.createdAt = :beforeDate AND n.id < :beforeId)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPage(@Param("userId") Long userId,
+                                @Param("beforeDate") LocalDateTime beforeDate,
+                                @Param("beforeId") Long beforeId,
+                                Pageable pageable);
+
+    // Bulk mark-read; only unread rows are touched, so the count is what the unread counter drops by
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false AND n.id <= :upToId")
+    int markReadUpTo(@Param("userId") Long userId, @Param("upToId") Long upToId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false AND n.id IN :ids")
+    int markReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,128 @@
+package com.example.frly.notification;
+
+import com.example.frly.common.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Nightly notification housekeeping. Read notifications older than the retention period are deleted,
+ * and unread repeats sharing a collapse key are folded into their newest row. Both steps work in small
+ * batches, each in its own short transaction, so no run holds locks on many rows at once.
+ * Rows removed per run are recorded as the frly.notifications.purged summary, tagged by reason.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationRetentionJob {
+
+    // Oldest first, through idx_notifications_read_created
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM config.notifications WHERE id IN (" +
+            "SELECT id FROM config.notifications WHERE is_read = TRUE AND created_at < ? ORDER BY created_at LIMIT ?)";
+
+    // Per batch of (user, type, key) groups: delete the older unread rows, add their occurrences to the newest,
+    // and report how many rows each user lost so their cached unread counts can be evicted
+    private static final String COLLAPSE_SQL =
+            "WITH grp AS (" +
+            "  SELECT user_id, type, collapse_key, MAX(id) AS keep_id FROM config.notifications " +
+            "  WHERE collapse_key IS NOT NULL AND is_read = FALSE " +
+            "  GROUP BY user_id, type, collapse_key HAVING COUNT(*) > 1 LIMIT ?), " +
+            "doomed AS (" +
+            "  DELETE FROM config.notifications n USING grp g " +
+            "  WHERE n.user_id = g.user_id AND n.type = g.type AND n.collapse_key = g.collapse_key " +
+            "  AND n.is_read = FALSE AND n.id < g.keep_id " +
+            "  RETURNING g.keep_id, n.user_id, n.occurrences), " +
+            "kept AS (" +
+            "  UPDATE config.notifications k SET occurrences = k.occurrences + d.folded " +
+            "  FROM (SELECT keep_id, SUM(occurrences) AS folded FROM doomed GROUP BY keep_id) d WHERE k.id = d.keep_id) " +
+            "SELECT user_id, COUNT(*) FROM doomed GROUP BY user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationUnreadCounter notificationUnreadCounter;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    // Read notifications older than this many days are deleted; 0 or less keeps them forever
+    @Value("${frly.notifications.retention.read-days:30}")
+    private int readRetentionDays = 30;
+
+    @Value("${frly.notifications.retention.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // Upper bound on batches per step and run, so a large backlog is worked off over several nights
+    @Value("${frly.notifications.retention.max-batches:500}")
+    private int maxBatches = 500;
+
+    private DistributionSummary expiredPerRun;
+    private DistributionSummary collapsedPerRun;
+
+    @PostConstruct
+    void registerMetrics() {
+        expiredPerRun = DistributionSummary.builder("frly.notifications.purged")
+                .description("Notification rows removed per retention run")
+                .tag("reason", "expired")
+                .register(meterRegistry);
+        collapsedPerRun = DistributionSummary.builder("frly.notifications.purged")
+                .description("Notification rows removed per retention run")
+                .tag("reason", "collapsed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${frly.notifications.retention.cron:0 15 4 * * *}")
+    public void run() {
+        long expired = purgeExpired();
+        long collapsed = collapseRepeats();
+        expiredPerRun.record(expired);
+        collapsedPerRun.record(collapsed);
+        log.info("Notification retention removed {} expired and {} collapsed row(s)", expired, collapsed);
+    }
+
+    long purgeExpired() {
+        if (readRetentionDays <= 0) {
+            return 0;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(readRetentionDays));
+        long total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_EXPIRED_SQL, cutoff, batchSize));
+            total += deleted != null ? deleted : 0;
+            if (deleted == null || deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    long collapseRepeats() {
+        long total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<long[]> removedPerUser = transactionTemplate.execute(status -> {
+                List<long[]> rows = jdbcTemplate.query(COLLAPSE_SQL, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)}, batchSize);
+                cacheInvalidationBus.invalidateRemote(NotificationUnreadCounter.TOPIC, rows.stream().map(row -> row[0]).toList());
+                return rows;
+            });
+            if (removedPerUser == null || removedPerUser.isEmpty()) {
+                break;
+            }
+            for (long[] row : removedPerUser) {
+                // Deleted rows were unread; evicted after the batch committed
+                notificationUnreadCounter.evict(row[0]);
+                total += row[1];
+            }
+        }
+        return total;
+    }
+}
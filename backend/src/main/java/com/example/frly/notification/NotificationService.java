@@ -1,42 +1,101 @@
 package com.example.frly.notification;
 
 import com.example.frly.auth.AuthUtil;
-import com.example.frly.user.User;
-import com.example.frly.user.UserRepository;
+import com.example.frly.auth.JwtService;
+import com.example.frly.common.cache.CacheInvalidationBus;
+import com.example.frly.common.exception.BadRequestException;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_MARK_IDS = 500;
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 1, 1, 0, 0);
+
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final NotificationPublisher notificationPublisher;
+    private final NotificationUnreadCounter notificationUnreadCounter;
+    private final NotificationRenderer notificationRenderer;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final JwtService jwtService;
 
-    @Transactional
-    public void notifyUser(Long userId, String type, String message) {
-        User user = userRepository.getReferenceById(userId);
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setType(type);
-        notification.setMessage(message);
-        notificationRepository.save(notification);
-        log.info("Notification created for user {} of type {}", userId, type);
+    // Stored as type + ids (see NotificationTypes) and rendered on read; written once the caller's transaction commits
+    public void notifyUser(Long userId, String type, Long actorUserId, Long groupId) {
+        notificationPublisher.publish(userId, type, actorUserId, groupId);
+    }
+
+    // Same notification to many users, written as one batch
+    public void notifyUsers(Collection<Long> userIds, String type, Long actorUserId, Long groupId) {
+        notificationPublisher.publish(userIds, type, actorUserId, groupId, null);
+    }
+
+    // Unread repeats with the same type and collapse key are later folded into one by NotificationRetentionJob
+    public void notifyUsers(Collection<Long> userIds, String type, Long actorUserId, Long groupId, String collapseKey) {
+        notificationPublisher.publish(userIds, type, actorUserId, groupId, collapseKey);
+    }
+
+    // Lets the caller open the stream with EventSource, which cannot send the usual Authorization header
+    public String createStreamToken() {
+        return jwtService.generateNotificationStreamToken(AuthUtil.getCurrentUserId());
     }
 
     @Transactional(readOnly = true)
     public List<NotificationDto> getCurrentUserNotifications() {
         Long userId = AuthUtil.getCurrentUserId();
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId)
+        List<NotificationDto> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId)
                 .stream()
-                .map(this::toDto)
+                .map(NotificationService::toDto)
                 .collect(Collectors.toList());
+        notificationRenderer.renderAll(notifications);
+        return notifications;
+    }
+
+    @Transactional(readOnly = true)
+    public NotificationPageDto getCurrentUserNotificationPage(String cursor, Integer limit) {
+        Long userId = AuthUtil.getCurrentUserId();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime beforeDate = MAX_CREATED_AT;
+        Long beforeId = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                beforeDate = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid notification cursor");
+            }
+        }
+
+        // One extra row tells us whether another page exists
+        List<Notification> rows = notificationRepository.findPage(userId, beforeDate, beforeId, PageRequest.of(0, pageSize + 1));
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Notification last = rows.get(rows.size() - 1);
+            String raw = last.getCreatedAt() + "|" + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        List<NotificationDto> items = rows.stream().map(NotificationService::toDto).toList();
+        notificationRenderer.renderAll(items);
+        return new NotificationPageDto(items, nextCursor);
+    }
+
+    public NotificationUnreadCountDto getCurrentUserUnreadCount() {
+        return new NotificationUnreadCountDto(notificationUnreadCounter.get(AuthUtil.getCurrentUserId()));
     }
 
     @Transactional
@@ -44,15 +103,51 @@ public class NotificationService {
         Long userId = AuthUtil.getCurrentUserId();
         Notification notification = notificationRepository.findByIdAndUserId(notificationId, userId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
+        if (notification.isRead()) {
+            return;
+        }
         notification.setRead(true);
         notificationRepository.save(notification);
+        notificationUnreadCounter.evictAfterCommit(userId);
+        cacheInvalidationBus.invalidateRemote(NotificationUnreadCounter.TOPIC, List.of(userId));
+    }
+
+    // One UPDATE for the whole set; returns the unread count as it will be after commit
+    @Transactional
+    public NotificationUnreadCountDto markManyAsRead(MarkNotificationsReadRequestDto request) {
+        Long userId = AuthUtil.getCurrentUserId();
+        List<Long> ids = request != null ? request.getIds() : null;
+        Long upToId = request != null ? request.getUpToId() : null;
+        if (ids != null && upToId != null) {
+            throw new BadRequestException("Specify either ids or upToId, not both");
+        }
+        if (ids != null && ids.size() > MAX_MARK_IDS) {
+            throw new BadRequestException("At most " + MAX_MARK_IDS + " ids can be marked at once");
+        }
+
+        // Read first so a count loaded now does not already reflect this UPDATE
+        long unreadBefore = notificationUnreadCounter.get(userId);
+        int updated;
+        if (ids != null) {
+            updated = ids.isEmpty() ? 0 : notificationRepository.markReadByIds(userId, ids);
+        } else {
+            updated = notificationRepository.markReadUpTo(userId, upToId != null ? upToId : Long.MAX_VALUE);
+        }
+        if (updated > 0) {
+            notificationUnreadCounter.evictAfterCommit(userId);
+            cacheInvalidationBus.invalidateRemote(NotificationUnreadCounter.TOPIC, List.of(userId));
+        }
+        return new NotificationUnreadCountDto(Math.max(0, unreadBefore - updated));
     }
 
-    private NotificationDto toDto(Notification notification) {
+    static NotificationDto toDto(Notification notification) {
         NotificationDto dto = new NotificationDto();
         dto.setId(notification.getId());
         dto.setType(notification.getType());
         dto.setMessage(notification.getMessage());
+        dto.setActorUserId(notification.getActorUserId());
+        dto.setGroupId(notification.getTargetGroupId());
+        dto.setOccurrences(notification.getOccurrences());
         dto.setRead(notification.isRead());
         dto.setCreatedAt(notification.getCreatedAt());
         return dto;
@@ -0,0 +1,10 @@
+package com.example.frly.notification;
+
+import lombok.Data;
+
+@Data
+public class NotificationStreamTokenDto {
+    // Stream URL for EventSource; only valid for frly.notifications.stream.token-ttl-ms, so fetch it right before connecting
+    private String url;
+    private String token;
+}
@@ -0,0 +1,192 @@
+package com.example.frly.notification;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Open Server-Sent Events connections per user. Emitters run on servlet async I/O, so an idle
+ * connection holds no request thread; it does keep the emitter, its map entry and Tomcat's buffers for
+ * the open request (about 100 KB, see NotificationStreamsMemoryTest). Notifications are pushed
+ * by NotificationPublisher once their rows are committed; a heartbeat comment keeps proxies from
+ * closing idle streams and flushes out dead ones. The heartbeat shares the scheduler pool with the other
+ * jobs (spring.task.scheduling.pool.size), so a long rollup rebuild does not starve it or vice versa.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationStreams {
+
+    private static final String EVENT_NAME = "notification";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationRenderer notificationRenderer;
+
+    private final Map<Long, List<Stream>> streamsByUser = new ConcurrentHashMap<>();
+
+    // Streams are closed after this long; EventSource clients reconnect and resume from Last-Event-ID
+    @Value("${frly.notifications.stream.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    // Oldest stream of a user is closed when a new one would exceed this
+    @Value("${frly.notifications.stream.max-per-user:5}")
+    private int maxPerUser = 5;
+
+    @Value("${frly.notifications.stream.replay-limit:50}")
+    private int replayLimit = 50;
+
+    // One open connection. All writes to it hold its monitor, so events never interleave. While the replay runs,
+    // live pushes are held back in pending and sent afterwards unless the replay already carried them.
+    private static final class Stream {
+        final SseEmitter emitter;
+        List<NotificationDto> pending;
+
+        Stream(SseEmitter emitter, boolean replaying) {
+            this.emitter = emitter;
+            this.pending = replaying ? new ArrayList<>() : null;
+        }
+    }
+
+    // Registers the stream first and only then replays anything newer than lastEventId, so a notification
+    // committed in between is either in the replay or pushed live; one in both is sent once
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Stream stream = new Stream(emitter, lastEventId != null);
+        List<Stream> streams = streamsByUser.compute(userId, (id, current) -> {
+            List<Stream> list = current != null ? current : new CopyOnWriteArrayList<>();
+            list.add(stream);
+            return list;
+        });
+        emitter.onCompletion(() -> remove(userId, stream));
+        emitter.onTimeout(() -> remove(userId, stream));
+        emitter.onError(ex -> remove(userId, stream));
+        while (streams.size() > maxPerUser) {
+            Stream oldest = streams.remove(0);
+            oldest.emitter.complete();
+        }
+
+        // Loaded outside the stream's monitor, so pushes meanwhile only queue up rather than wait on the query
+        List<NotificationDto> missed = lastEventId == null ? List.of() : loadMissed(userId, stream, lastEventId);
+        synchronized (stream) {
+            if (lastEventId != null && !replay(userId, stream, missed)) {
+                return emitter;
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("connected"));
+            } catch (IOException | IllegalStateException ex) {
+                emitter.completeWithError(ex);
+                remove(userId, stream);
+            }
+        }
+        return emitter;
+    }
+
+    private List<NotificationDto> loadMissed(Long userId, Stream stream, Long lastEventId) {
+        try {
+            List<NotificationDto> missed = notificationRepository
+                    .findByUserIdAndIdGreaterThanOrderByIdAsc(userId, lastEventId, PageRequest.of(0, replayLimit))
+                    .stream().map(NotificationService::toDto).toList();
+            notificationRenderer.renderAll(missed);
+            return missed;
+        } catch (RuntimeException ex) {
+            stream.emitter.completeWithError(ex);
+            remove(userId, stream);
+            throw ex;
+        }
+    }
+
+    // Sends the missed notifications, then whatever was pushed meanwhile; false if the client went away
+    private boolean replay(Long userId, Stream stream, List<NotificationDto> missed) {
+        Set<Long> sent = new HashSet<>();
+        for (NotificationDto notification : missed) {
+            if (!send(userId, stream, notification)) {
+                return false;
+            }
+            sent.add(notification.getId());
+        }
+        List<NotificationDto> pushedMeanwhile = stream.pending;
+        stream.pending = null;
+        for (NotificationDto notification : pushedMeanwhile) {
+            if (!sent.contains(notification.getId()) && !send(userId, stream, notification)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void push(Long userId, NotificationDto notification) {
+        List<Stream> streams = streamsByUser.get(userId);
+        if (streams == null) {
+            return;
+        }
+        for (Stream stream : streams) {
+            synchronized (stream) {
+                if (stream.pending != null) {
+                    stream.pending.add(notification);
+                } else {
+                    send(userId, stream, notification);
+                }
+            }
+        }
+    }
+
+    public boolean isConnected(Long userId) {
+        return streamsByUser.containsKey(userId);
+    }
+
+    public int connectionCount() {
+        return streamsByUser.values().stream().mapToInt(List::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${frly.notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        streamsByUser.forEach((userId, streams) -> {
+            for (Stream stream : streams) {
+                synchronized (stream) {
+                    try {
+                        stream.emitter.send(SseEmitter.event().comment("hb"));
+                    } catch (IOException | IllegalStateException ex) {
+                        stream.emitter.completeWithError(ex);
+                        remove(userId, stream);
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean send(Long userId, Stream stream, NotificationDto notification) {
+        try {
+            stream.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(notification.getId()))
+                    .name(EVENT_NAME)
+                    .data(notification));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away; the container reports it through onError as well
+            log.debug("Dropping notification stream of user {}: {}", userId, ex.getMessage());
+            stream.emitter.completeWithError(ex);
+            remove(userId, stream);
+            return false;
+        }
+    }
+
+    private void remove(Long userId, Stream stream) {
+        streamsByUser.computeIfPresent(userId, (id, streams) -> {
+            streams.remove(stream);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.frly.notification;
+
+/**
+ * Notification type codes. Stored in notifications.type and rendered by NotificationRenderer.
+ */
+public final class NotificationTypes {
+
+    public static final String GROUP_JOIN_REQUEST = "GROUP_JOIN_REQUEST";
+    public static final String GROUP_REJOIN_REQUEST = "GROUP_REJOIN_REQUEST";
+    public static final String GROUP_JOIN_APPROVED = "GROUP_JOIN_APPROVED";
+    public static final String GROUP_LEFT = "GROUP_LEFT";
+    public static final String GROUP_MEMBER_LEFT = "GROUP_MEMBER_LEFT";
+    public static final String GROUP_MEMBER_REMOVED = "GROUP_MEMBER_REMOVED";
+
+    private NotificationTypes() {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.frly.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationUnreadCountDto {
+    private long unread;
+}
@@ -0,0 +1,99 @@
+package com.example.frly.notification;
+
+import com.example.frly.common.cache.CacheInvalidationListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cached unread notification count per user, loaded with a COUNT query. Every change to a user's unread
+ * notifications evicts the count after its commit and the next read loads it again. Deltas are not applied:
+ * a load that already saw the commit would count the change twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationUnreadCounter implements CacheInvalidationListener {
+
+    // Other nodes drop their cached count when this one changes a user's notifications
+    public static final String TOPIC = "notification-unread";
+
+    private final NotificationRepository notificationRepository;
+
+    @Value("${frly.notifications.unread-cache.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    // A load in flight is marked by an unloaded slot; an eviction removes it, so the load cannot store a stale count
+    private record Slot(long count, boolean loaded) {
+    }
+
+    // Access-ordered so the least recently used counts are dropped first
+    private final Map<Long, Slot> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Slot> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public long get(Long userId) {
+        Slot pending;
+        synchronized (cache) {
+            Slot slot = cache.get(userId);
+            if (slot != null && slot.loaded()) {
+                return slot.count();
+            }
+            pending = slot != null ? slot : new Slot(0, false);
+            cache.put(userId, pending);
+        }
+
+        long count = notificationRepository.countByUserIdAndReadIsFalse(userId);
+        synchronized (cache) {
+            if (cache.get(userId) == pending) {
+                cache.put(userId, new Slot(count, true));
+            }
+        }
+        return count;
+    }
+
+    public void evict(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    @Override
+    public String cacheTopic() {
+        return TOPIC;
+    }
+
+    // Also invalidates a load in flight, since its slot is replaced or gone
+    @Override
+    public void evict(String userId) {
+        evict(Long.valueOf(userId));
+    }
+
+    @Override
+    public void evictAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    // For changes made inside a transaction. Evicting earlier would let a load read the old rows and store them.
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+}
@@ -32,6 +32,8 @@ public interface SectionMapper {
     GalleryItemDto toGalleryItemDto(GalleryItem item);
 
     @Mapping(target = "sectionId", source = "section.id")
+    @Mapping(target = "seriesStartTime", source = "startTime")
+    @Mapping(target = "recurrenceExceptions", ignore = true)
     CalendarEventDto toCalendarEventDto(CalendarEvent event);
 
     default LocalDateTime map(Instant value) {
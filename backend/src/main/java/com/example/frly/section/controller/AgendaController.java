@@ -0,0 +1,28 @@
+package com.example.frly.section.controller;
+
+import com.example.frly.section.dto.AgendaPageDto;
+import com.example.frly.section.service.AgendaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/groups/sections")
+@RequiredArgsConstructor
+public class AgendaController {
+
+    private final AgendaService agendaService;
+
+    // Events, reminders and due list items across every section of the current group
+    @GetMapping("/agenda")
+    public ResponseEntity<AgendaPageDto> getAgenda(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(agendaService.getAgenda(from, to, cursor, limit));
+    }
+}
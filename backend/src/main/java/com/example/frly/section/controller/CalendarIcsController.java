@@ -0,0 +1,76 @@
+package com.example.frly.section.controller;
+
+import com.example.frly.section.dto.CalendarFeedDto;
+import com.example.frly.section.service.CalendarIcsService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+public class CalendarIcsController {
+
+    private static final String ICS_CONTENT_TYPE = "text/calendar;charset=UTF-8";
+
+    private final CalendarIcsService calendarIcsService;
+
+    @GetMapping("/api/groups/sections/{sectionId}/calendar.ics")
+    public void exportCalendar(@PathVariable Long sectionId,
+                               ServletWebRequest webRequest,
+                               HttpServletResponse response) throws IOException {
+        streamFeed(calendarIcsService.currentTarget(sectionId), webRequest, response);
+    }
+
+    @PostMapping("/api/groups/sections/{sectionId}/calendar-feed")
+    public ResponseEntity<CalendarFeedDto> createCalendarFeed(@PathVariable Long sectionId,
+                                                              @RequestParam(defaultValue = "false") boolean rotate) {
+        String token = calendarIcsService.createFeedToken(sectionId, rotate);
+        CalendarFeedDto dto = new CalendarFeedDto();
+        dto.setToken(token);
+        dto.setUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/calendar-feeds/{token}")
+                .buildAndExpand(token)
+                .toUriString());
+        return ResponseEntity.ok(dto);
+    }
+
+    // Revokes every subscription URL the caller created for this section
+    @DeleteMapping("/api/groups/sections/{sectionId}/calendar-feed")
+    public ResponseEntity<Void> revokeCalendarFeed(@PathVariable Long sectionId) {
+        calendarIcsService.revokeFeedTokens(sectionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/api/groups/sections/{sectionId}/calendar-events/import")
+    public ResponseEntity<Integer> importCalendar(@PathVariable Long sectionId,
+                                                  @RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(calendarIcsService.importIcs(sectionId, file.getInputStream()));
+    }
+
+    // Public subscription endpoint polled by calendar apps; the token stands in for the JWT and X-Group-ID
+    @GetMapping("/api/calendar-feeds/{token}")
+    public void subscribeCalendar(@PathVariable String token,
+                                  ServletWebRequest webRequest,
+                                  HttpServletResponse response) throws IOException {
+        streamFeed(calendarIcsService.resolveFeedToken(token), webRequest, response);
+    }
+
+    private void streamFeed(CalendarIcsService.FeedTarget target,
+                            ServletWebRequest webRequest,
+                            HttpServletResponse response) throws IOException {
+        CalendarIcsService.FeedVersion version = calendarIcsService.getFeedVersion(target);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return;
+        }
+        response.setContentType(ICS_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        calendarIcsService.writeFeed(target, response.getWriter());
+    }
+}
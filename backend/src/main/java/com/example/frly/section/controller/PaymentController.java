@@ -1,13 +1,27 @@
 package com.example.frly.section.controller;
 
 import com.example.frly.section.dto.CreatePaymentExpenseRequestDto;
+import com.example.frly.section.dto.CreatePaymentSettlementRequestDto;
+import com.example.frly.section.dto.CreateRecurringExpenseRequestDto;
+import com.example.frly.section.dto.GroupPaymentBalancesDto;
 import com.example.frly.section.dto.PaymentBalanceDto;
+import com.example.frly.section.dto.PaymentBalanceMismatchDto;
 import com.example.frly.section.dto.PaymentExpenseDto;
+import com.example.frly.section.dto.PaymentExpensePageDto;
+import com.example.frly.section.dto.PaymentRecurringExpenseDto;
+import com.example.frly.section.dto.PaymentSettlementDto;
+import com.example.frly.section.dto.PaymentSpendSummaryDto;
+import com.example.frly.section.dto.SettleUpDto;
+import com.example.frly.section.service.PaymentRecurringExpenseService;
 import com.example.frly.section.service.PaymentService;
+import com.example.frly.section.service.PaymentSettlementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -16,6 +30,8 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentSettlementService paymentSettlementService;
+    private final PaymentRecurringExpenseService paymentRecurringExpenseService;
 
     @PostMapping("/{sectionId}/payments/expenses")
     public ResponseEntity<Long> addExpense(@PathVariable Long sectionId,
@@ -29,6 +45,18 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getExpenses(sectionId));
     }
 
+    @GetMapping("/{sectionId}/payments/expenses/page")
+    public ResponseEntity<PaymentExpensePageDto> getExpensePage(
+            @PathVariable Long sectionId,
+            @RequestParam(required = false) Long payerId,
+            @RequestParam(required = false) Long participantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(paymentService.getExpensePage(sectionId, payerId, participantId, from, to, cursor, limit));
+    }
+
     @PutMapping("/{sectionId}/payments/expenses/{expenseId}")
     public ResponseEntity<Void> updateExpense(@PathVariable Long sectionId,
                                               @PathVariable Long expenseId,
@@ -44,8 +72,87 @@ public class PaymentController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{sectionId}/payments/recurring-expenses")
+    public ResponseEntity<Long> addRecurringExpense(@PathVariable Long sectionId,
+                                                    @RequestBody CreateRecurringExpenseRequestDto request) {
+        return ResponseEntity.ok(paymentRecurringExpenseService.addRecurringExpense(sectionId, request));
+    }
+
+    @GetMapping("/{sectionId}/payments/recurring-expenses")
+    public ResponseEntity<List<PaymentRecurringExpenseDto>> getRecurringExpenses(@PathVariable Long sectionId) {
+        return ResponseEntity.ok(paymentRecurringExpenseService.getRecurringExpenses(sectionId));
+    }
+
+    @DeleteMapping("/{sectionId}/payments/recurring-expenses/{recurringExpenseId}")
+    public ResponseEntity<Void> deleteRecurringExpense(@PathVariable Long sectionId,
+                                                       @PathVariable Long recurringExpenseId) {
+        paymentRecurringExpenseService.deleteRecurringExpense(sectionId, recurringExpenseId);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/{sectionId}/payments/balances")
-    public ResponseEntity<List<PaymentBalanceDto>> getBalances(@PathVariable Long sectionId) {
-        return ResponseEntity.ok(paymentService.getBalances(sectionId));
+    public ResponseEntity<List<PaymentBalanceDto>> getBalances(@PathVariable Long sectionId,
+                                                               @RequestParam(required = false) String currency) {
+        return ResponseEntity.ok(paymentService.getBalances(sectionId, currency));
+    }
+
+    // Group-wide: all PAYMENT sections of the group in X-Group-ID
+    @GetMapping("/payments/balances")
+    public ResponseEntity<GroupPaymentBalancesDto> getGroupBalances(@RequestParam(required = false) String currency) {
+        return ResponseEntity.ok(paymentService.getGroupBalances(currency));
+    }
+
+    @PostMapping("/{sectionId}/payments/balances/rebuild")
+    public ResponseEntity<Void> rebuildBalances(@PathVariable Long sectionId) {
+        paymentService.rebuildBalances(sectionId);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/{sectionId}/payments/balances/check")
+    public ResponseEntity<List<PaymentBalanceMismatchDto>> checkBalances(@PathVariable Long sectionId) {
+        return ResponseEntity.ok(paymentService.checkBalances(sectionId));
+    }
+
+    // from/to are months, e.g. 2024-01
+    @GetMapping("/{sectionId}/payments/analytics")
+    public ResponseEntity<PaymentSpendSummaryDto> getSpendSummary(@PathVariable Long sectionId,
+                                                                  @RequestParam(required = false) YearMonth from,
+                                                                  @RequestParam(required = false) YearMonth to,
+                                                                  @RequestParam(required = false) String currency) {
+        return ResponseEntity.ok(paymentService.getSpendSummary(sectionId, from, to, currency));
+    }
+
+    @PostMapping("/{sectionId}/payments/analytics/rebuild")
+    public ResponseEntity<Void> rebuildSpendRollups(@PathVariable Long sectionId) {
+        paymentService.rebuildSpendRollups(sectionId);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/{sectionId}/payments/settle-up")
+    public ResponseEntity<SettleUpDto> getSettleUp(@PathVariable Long sectionId,
+                                                   @RequestParam(required = false) String mode,
+                                                   @RequestParam(required = false) String currency) {
+        return ResponseEntity.ok(paymentService.getSettleUp(sectionId, mode, currency));
+    }
+
+    @PostMapping("/{sectionId}/payments/settlements")
+    public ResponseEntity<Long> addSettlement(@PathVariable Long sectionId,
+                                              @RequestBody CreatePaymentSettlementRequestDto request) {
+        return ResponseEntity.ok(paymentSettlementService.addSettlement(sectionId, request));
+    }
+
+    @GetMapping("/{sectionId}/payments/settlements")
+    public ResponseEntity<List<PaymentSettlementDto>> getSettlements(
+            @PathVariable Long sectionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return ResponseEntity.ok(paymentSettlementService.getSettlements(sectionId, from, to));
+    }
+
+    @DeleteMapping("/{sectionId}/payments/settlements/{settlementId}")
+    public ResponseEntity<Void> deleteSettlement(@PathVariable Long sectionId,
+                                                 @PathVariable Long settlementId) {
+        paymentSettlementService.deleteSettlement(sectionId, settlementId);
+        return ResponseEntity.ok().build();
     }
 }
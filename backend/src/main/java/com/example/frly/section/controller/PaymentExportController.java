@@ -0,0 +1,50 @@
+package com.example.frly.section.controller;
+
+import com.example.frly.section.service.PaymentExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/groups/sections")
+@RequiredArgsConstructor
+public class PaymentExportController {
+
+    private static final String CSV_CONTENT_TYPE = "text/csv;charset=UTF-8";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson;charset=UTF-8";
+
+    private final PaymentExportService paymentExportService;
+
+    // format is csv (default) or ndjson; the body is streamed, never built in memory
+    @GetMapping("/{sectionId}/payments/export/expenses")
+    public void exportExpenses(@PathVariable Long sectionId,
+                               @RequestParam(required = false) String format,
+                               HttpServletResponse response) throws IOException {
+        PaymentExportService.Format exportFormat = paymentExportService.parseFormat(format);
+        prepare(response, "expenses-" + sectionId, exportFormat);
+        paymentExportService.writeExpenses(sectionId, exportFormat, response.getWriter());
+    }
+
+    @GetMapping("/{sectionId}/payments/export/balances")
+    public void exportBalances(@PathVariable Long sectionId,
+                               @RequestParam(required = false) String format,
+                               HttpServletResponse response) throws IOException {
+        PaymentExportService.Format exportFormat = paymentExportService.parseFormat(format);
+        prepare(response, "balances-" + sectionId, exportFormat);
+        paymentExportService.writeBalances(sectionId, exportFormat, response.getWriter());
+    }
+
+    private void prepare(HttpServletResponse response, String baseName, PaymentExportService.Format format) {
+        boolean csv = format == PaymentExportService.Format.CSV;
+        response.setContentType(csv ? CSV_CONTENT_TYPE : NDJSON_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(baseName + (csv ? ".csv" : ".ndjson"))
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.frly.section.controller;
 
+import com.example.frly.common.exception.NoteConflictException;
 import com.example.frly.section.dto.*;
+import com.example.frly.section.service.FreeBusyService;
 import com.example.frly.section.service.SectionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -16,6 +20,7 @@ import java.util.List;
 public class SectionController {
 
     private final SectionService sectionService;
+    private final FreeBusyService freeBusyService;
 
     // --- SECTIONS ---
 
@@ -74,6 +79,10 @@ public class SectionController {
             body.put("code", "NOTE_CONFLICT");
             body.put("message", "This note was updated by someone else. Please review the latest version.");
             body.put("latestNote", latest);
+            if (ex instanceof NoteConflictException conflict) {
+                // Edits that were acknowledged but lost to a save on another server
+                body.put("unsavedContent", conflict.getUnsavedContent());
+            }
             return ResponseEntity.status(409).body(body);
         }
     }
@@ -114,8 +123,20 @@ public class SectionController {
     }
 
     @GetMapping("/{sectionId}/calendar-events")
-    public ResponseEntity<java.util.List<com.example.frly.section.dto.CalendarEventDto>> getCalendarEvents(@PathVariable Long sectionId) {
-        return ResponseEntity.ok(sectionService.getCalendarEvents(sectionId));
+    public ResponseEntity<java.util.List<com.example.frly.section.dto.CalendarEventDto>> getCalendarEvents(
+            @PathVariable Long sectionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(sectionService.getCalendarEvents(sectionId, from, to));
+    }
+
+    @GetMapping("/calendar-events/free-busy")
+    public ResponseEntity<FreeBusyDto> getFreeBusy(
+            @RequestParam List<Long> userIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer minMinutes) {
+        return ResponseEntity.ok(freeBusyService.getFreeBusy(userIds, from, to, minMinutes));
     }
 
     @DeleteMapping("/calendar-events/{eventId}")
@@ -0,0 +1,20 @@
+package com.example.frly.section.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaItemDto {
+    private String kind; // EVENT, REMINDER or LIST_ITEM
+    private Long id;
+    private Long sectionId;
+    private String sectionTitle;
+    private String title;
+    private LocalDateTime time;
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,15 @@
+package com.example.frly.section.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaPageDto {
+    private List<AgendaItemDto> items;
+    private String nextCursor; // null when there are no more items in the window
+}
@@ -15,4 +15,11 @@ public class CalendarEventDto {
     private String category;
     private String createdByName;
     private java.util.List<Long> memberIds;
+    private String recurrenceFrequency;
+    private Integer recurrenceInterval;
+    private Integer recurrenceCount;
+    private LocalDateTime recurrenceUntil;
+    private java.util.List<LocalDateTime> recurrenceExceptions;
+    // Start of the series' first occurrence; equals startTime for single events
+    private LocalDateTime seriesStartTime;
 }
@@ -0,0 +1,10 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+@Data
+public class CalendarFeedDto {
+    // Subscription URL for calendar apps; the token is the only credential, so treat it like a password
+    private String url;
+    private String token;
+}
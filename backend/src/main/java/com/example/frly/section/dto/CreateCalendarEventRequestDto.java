@@ -13,4 +13,10 @@ public class CreateCalendarEventRequestDto {
     private String location;
     private String category;
     private java.util.List<Long> memberIds;
+    // DAILY, WEEKLY or MONTHLY; omit for a single event
+    private String recurrenceFrequency;
+    private Integer recurrenceInterval;
+    private Integer recurrenceCount;
+    private LocalDateTime recurrenceUntil;
+    private java.util.List<LocalDateTime> recurrenceExceptions;
 }
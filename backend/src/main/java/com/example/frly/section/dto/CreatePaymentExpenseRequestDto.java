@@ -11,13 +11,18 @@ public class CreatePaymentExpenseRequestDto {
     private String description;
     private BigDecimal totalAmount;
     private String currency;
+    private String category;
     private OffsetDateTime expenseDate;
     private Long paidByUserId;
+    // EXACT (default) uses each shareAmount as given; EQUAL, PERCENTAGE and WEIGHT have the server compute them
+    private String splitMode;
     private List<ShareInput> shares;
 
     @Data
     public static class ShareInput {
         private Long userId;
         private BigDecimal shareAmount;
+        // Percentage (PERCENTAGE mode) or relative weight (WEIGHT mode)
+        private BigDecimal weight;
     }
 }
@@ -0,0 +1,16 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class CreatePaymentSettlementRequestDto {
+    private Long fromUserId;
+    private Long toUserId;
+    private BigDecimal amount;
+    private String currency;
+    private OffsetDateTime settledAt;
+    private String note;
+}
@@ -0,0 +1,14 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+public class CreateRecurringExpenseRequestDto {
+    // Amounts, payer, split and share layout of every occurrence; expenseDate is the first occurrence (default now)
+    private CreatePaymentExpenseRequestDto expense;
+    private String frequency; // DAILY, WEEKLY or MONTHLY
+    private Integer interval;
+    private OffsetDateTime endsAt;
+}
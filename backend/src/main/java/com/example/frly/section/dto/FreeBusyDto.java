@@ -0,0 +1,17 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class FreeBusyDto {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Slots in which every requested member is free
+    private List<TimeSlotDto> free;
+    // Merged busy intervals per member, clipped to the window
+    private Map<Long, List<TimeSlotDto>> busyByUser;
+}
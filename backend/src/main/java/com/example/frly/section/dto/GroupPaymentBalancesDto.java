@@ -0,0 +1,20 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GroupPaymentBalancesDto {
+    private String currency;
+    // Net balance per member over all PAYMENT sections of the group
+    private List<PaymentBalanceDto> totals;
+    private List<SectionBalances> sections;
+
+    @Data
+    public static class SectionBalances {
+        private Long sectionId;
+        private String title;
+        private List<PaymentBalanceDto> balances;
+    }
+}
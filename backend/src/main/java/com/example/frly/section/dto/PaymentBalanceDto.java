@@ -10,4 +10,5 @@ public class PaymentBalanceDto {
     private String firstName;
     private String lastName;
     private BigDecimal balance; // positive = others owe them, negative = they owe
+    private String currency;
 }
@@ -0,0 +1,20 @@
+package com.example.frly.section.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentBalanceMismatchDto {
+    private String groupId;
+    private Long sectionId;
+    private Long userId;
+    // Balance recomputed from expenses and shares
+    private BigDecimal expected;
+    // Balance currently stored in the ledger
+    private BigDecimal actual;
+}
@@ -1,12 +1,14 @@
 package com.example.frly.section.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class PaymentExpenseDto {
     private Long id;
     private Long sectionId;
@@ -16,6 +18,23 @@ public class PaymentExpenseDto {
     private String description;
     private BigDecimal totalAmount;
     private String currency;
+    private String category;
     private OffsetDateTime expenseDate;
     private List<PaymentShareDto> shares;
+
+    // Used by the listing projection; shares are attached afterwards
+    public PaymentExpenseDto(Long id, Long sectionId, Long paidByUserId, String paidByFirstName, String paidByLastName,
+                             String description, BigDecimal totalAmount, String currency, String category,
+                             OffsetDateTime expenseDate) {
+        this.id = id;
+        this.sectionId = sectionId;
+        this.paidByUserId = paidByUserId;
+        this.paidByFirstName = paidByFirstName;
+        this.paidByLastName = paidByLastName;
+        this.description = description;
+        this.totalAmount = totalAmount;
+        this.currency = currency;
+        this.category = category;
+        this.expenseDate = expenseDate;
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.frly.section.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentExpensePageDto {
+    private List<PaymentExpenseDto> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,27 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+public class PaymentRecurringExpenseDto {
+    private Long id;
+    private Long sectionId;
+    private Long paidByUserId;
+    private String paidByFirstName;
+    private String paidByLastName;
+    private String description;
+    private String category;
+    private BigDecimal totalAmount;
+    private String currency;
+    private String frequency;
+    private Integer interval;
+    private OffsetDateTime startsAt;
+    private OffsetDateTime endsAt;
+    private Integer occurrencesPosted;
+    private OffsetDateTime nextDueAt; // null once the series has ended
+    private List<PaymentShareDto> shares;
+}
@@ -0,0 +1,22 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+public class PaymentSettlementDto {
+    private Long id;
+    private Long sectionId;
+    private Long fromUserId;
+    private String fromFirstName;
+    private String fromLastName;
+    private Long toUserId;
+    private String toFirstName;
+    private String toLastName;
+    private BigDecimal amount;
+    private String currency;
+    private OffsetDateTime settledAt;
+    private String note;
+}
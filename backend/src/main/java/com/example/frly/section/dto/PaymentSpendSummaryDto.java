@@ -0,0 +1,47 @@
+package com.example.frly.section.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class PaymentSpendSummaryDto {
+    private String currency;
+    private LocalDate fromMonth;
+    private LocalDate toMonth;
+    private BigDecimal total;
+    // Months without spend are omitted
+    private List<MonthSpend> months;
+    private List<MemberSpend> members;
+    private List<CategorySpend> categories;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthSpend {
+        private LocalDate month;
+        private BigDecimal amount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MemberSpend {
+        private Long userId;
+        private String firstName;
+        private String lastName;
+        private BigDecimal amount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategorySpend {
+        private String category; // null = uncategorized
+        private BigDecimal amount;
+    }
+}
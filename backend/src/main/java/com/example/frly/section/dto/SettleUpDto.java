@@ -0,0 +1,14 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SettleUpDto {
+    // EXACT when the minimum number of transfers was guaranteed, GREEDY otherwise
+    private String mode;
+    // Currency the transfer amounts are expressed in
+    private String currency;
+    private List<SettlementTransferDto> transfers;
+}
@@ -0,0 +1,16 @@
+package com.example.frly.section.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class SettlementTransferDto {
+    private Long fromUserId;
+    private String fromFirstName;
+    private String fromLastName;
+    private Long toUserId;
+    private String toFirstName;
+    private String toLastName;
+    private BigDecimal amount;
+}
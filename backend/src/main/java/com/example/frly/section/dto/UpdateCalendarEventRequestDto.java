@@ -13,4 +13,12 @@ public class UpdateCalendarEventRequestDto {
     private String location;
     private String category;
     private java.util.List<Long> memberIds;
+    // DAILY, WEEKLY or MONTHLY; NONE turns the series back into a single event
+    private String recurrenceFrequency;
+    private Integer recurrenceInterval;
+    private Integer recurrenceCount;
+    private LocalDateTime recurrenceUntil;
+    // true makes the series open-ended; ignored when a new count or until is given
+    private Boolean clearRecurrenceEnd;
+    private java.util.List<LocalDateTime> recurrenceExceptions;
 }
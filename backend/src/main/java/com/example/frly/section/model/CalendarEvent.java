@@ -38,4 +38,26 @@ public class CalendarEvent extends GroupAwareEntity {
 
     @Column(name = "category", length = 64)
     private String category;
+
+    // Recurrence rule (null frequency = single occurrence)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence_frequency", length = 16)
+    private RecurrenceFrequency recurrenceFrequency;
+
+    @Column(name = "recurrence_interval")
+    private Integer recurrenceInterval;
+
+    @Column(name = "recurrence_count")
+    private Integer recurrenceCount;
+
+    @Column(name = "recurrence_until")
+    private LocalDateTime recurrenceUntil;
+
+    // Comma-separated ISO start times of skipped occurrences
+    @Column(name = "recurrence_exceptions", columnDefinition = "TEXT")
+    private String recurrenceExceptions;
+
+    // End of the last occurrence, maintained on save; null for open-ended series
+    @Column(name = "recurrence_end_time")
+    private LocalDateTime recurrenceEndTime;
 }
@@ -12,8 +12,10 @@ import lombok.Setter;
 @Setter
 public class CalendarEventMember extends GroupAwareEntity {
 
+    // Pooled sequence rather than IDENTITY so an event's members go out as one insert batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "calendar_event_members_seq")
+    @SequenceGenerator(name = "calendar_event_members_seq", schema = "config", sequenceName = "calendar_event_members_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
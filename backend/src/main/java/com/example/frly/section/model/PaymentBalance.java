@@ -0,0 +1,36 @@
+package com.example.frly.section.model;
+
+import com.example.frly.common.GroupAwareEntity;
+import com.example.frly.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Materialized net balance of one user in a PAYMENT section.
+ * Maintained by PaymentBalanceLedger; never written through JPA.
+ */
+@Entity
+@Table(name = "payment_balances", schema = "config",
+        uniqueConstraints = @UniqueConstraint(name = "uq_payment_balances_section_user", columnNames = {"group_id", "section_id", "user_id"}))
+@Getter
+@Setter
+public class PaymentBalance extends GroupAwareEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "section_id", nullable = false)
+    private Long sectionId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // positive = others owe them, negative = they owe
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+}
@@ -37,9 +37,20 @@ public class PaymentExpense extends GroupAwareEntity {
     @Column(length = 16)
     private String currency;
 
-    @Column(name = "expense_date")
+    // Base-currency units per unit of currency, fixed when the amount, currency or date was written
+    @Column(name = "fx_rate", nullable = false, precision = 24, scale = 10)
+    private BigDecimal fxRate;
+
+    @Column(length = 50)
+    private String category;
+
+    @Column(name = "expense_date", nullable = false)
     private OffsetDateTime expenseDate;
 
+    // Template this expense was posted from, if any; written only by the recurring expense materializer
+    @Column(name = "recurring_expense_id", insertable = false, updatable = false)
+    private Long recurringExpenseId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private RecordStatus status = RecordStatus.ACTIVE;
@@ -0,0 +1,70 @@
+package com.example.frly.section.model;
+
+import com.example.frly.common.GroupAwareEntity;
+import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Template for an expense that repeats (rent, subscriptions).
+ * PaymentRecurringExpenseMaterializer posts each due occurrence and advances occurrencesPosted / nextDueAt.
+ */
+@Entity
+@Table(name = "payment_recurring_expenses", schema = "config")
+@Getter
+@Setter
+public class PaymentRecurringExpense extends GroupAwareEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "section_id", nullable = false)
+    private Section section;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paid_by_user_id", nullable = false)
+    private User paidBy;
+
+    @Column(length = 255)
+    private String description;
+
+    @Column(length = 50)
+    private String category;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false, length = 16)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "interval_count", nullable = false)
+    private Integer intervalCount = 1;
+
+    @Column(name = "starts_at", nullable = false)
+    private OffsetDateTime startsAt;
+
+    @Column(name = "ends_at")
+    private OffsetDateTime endsAt;
+
+    @Column(name = "occurrences_posted", nullable = false)
+    private Integer occurrencesPosted = 0;
+
+    // null once the series has ended
+    @Column(name = "next_due_at")
+    private OffsetDateTime nextDueAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecordStatus status = RecordStatus.ACTIVE;
+}
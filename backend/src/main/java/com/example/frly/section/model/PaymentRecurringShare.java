@@ -0,0 +1,31 @@
+package com.example.frly.section.model;
+
+import com.example.frly.common.GroupAwareEntity;
+import com.example.frly.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "payment_recurring_shares", schema = "config")
+@Getter
+@Setter
+public class PaymentRecurringShare extends GroupAwareEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recurring_expense_id", nullable = false)
+    private PaymentRecurringExpense recurringExpense;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "share_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal shareAmount;
+}
@@ -0,0 +1,55 @@
+package com.example.frly.section.model;
+
+import com.example.frly.common.GroupAwareEntity;
+import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "payment_settlements", schema = "config")
+@Getter
+@Setter
+public class PaymentSettlement extends GroupAwareEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "section_id", nullable = false)
+    private Section section;
+
+    // The member who paid money back
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_user_id", nullable = false)
+    private User fromUser;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "to_user_id", nullable = false)
+    private User toUser;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(length = 16)
+    private String currency;
+
+    // Base-currency units per unit of currency, fixed when the amount, currency or date was written
+    @Column(name = "fx_rate", nullable = false, precision = 24, scale = 10)
+    private BigDecimal fxRate;
+
+    @Column(name = "settled_at", nullable = false)
+    private OffsetDateTime settledAt;
+
+    @Column(length = 255)
+    private String note;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecordStatus status = RecordStatus.ACTIVE;
+}
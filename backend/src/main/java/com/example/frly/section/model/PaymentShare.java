@@ -15,8 +15,10 @@ import java.math.BigDecimal;
 @Setter
 public class PaymentShare extends GroupAwareEntity {
 
+    // IDENTITY would force one INSERT per share; the pooled sequence lets a split batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_shares_seq")
+    @SequenceGenerator(name = "payment_shares_seq", schema = "config", sequenceName = "payment_shares_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
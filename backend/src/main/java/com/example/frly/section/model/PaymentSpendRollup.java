@@ -0,0 +1,45 @@
+package com.example.frly.section.model;
+
+import com.example.frly.common.GroupAwareEntity;
+import com.example.frly.user.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Base-currency spend of one member in one category and UTC month of a PAYMENT section.
+ * Maintained by PaymentSpendRollups; read-only through JPA.
+ */
+@Entity
+@Table(name = "payment_spend_rollups", schema = "config",
+        uniqueConstraints = @UniqueConstraint(name = "uq_payment_spend_rollups_key",
+                columnNames = {"group_id", "section_id", "spend_month", "user_id", "category"}))
+@Getter
+@Setter
+public class PaymentSpendRollup extends GroupAwareEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "section_id", nullable = false)
+    private Long sectionId;
+
+    // First day of the month
+    @Column(name = "spend_month", nullable = false)
+    private LocalDate month;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // '' = uncategorized
+    @Column(nullable = false, length = 50)
+    private String category;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+}
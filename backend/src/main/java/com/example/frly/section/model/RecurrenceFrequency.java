@@ -0,0 +1,7 @@
+package com.example.frly.section.model;
+
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
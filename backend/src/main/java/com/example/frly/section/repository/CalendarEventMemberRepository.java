@@ -2,6 +2,8 @@ package com.example.frly.section.repository;
 
 import com.example.frly.section.model.CalendarEventMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -9,4 +11,30 @@ public interface CalendarEventMemberRepository extends JpaRepository<CalendarEve
     List<CalendarEventMember> findByEventId(Long eventId);
     List<CalendarEventMember> findByEventIdIn(java.util.Collection<Long> eventIds);
     void deleteByEventId(Long eventId);
+
+    // (eventId, userId) pairs only, so member lists don't hydrate entities or user proxies
+    @Query("SELECT m.event.id, m.user.id FROM CalendarEventMember m WHERE m.event.id IN :eventIds")
+    List<Object[]> findMemberIdsByEventIdIn(@Param("eventIds") java.util.Collection<Long> eventIds);
+
+    // Busy intervals of the given members for single events overlapping [from, to), as (userId, start, end)
+    @Query("SELECT m.user.id, e.startTime, e.endTime FROM CalendarEventMember m JOIN m.event e JOIN e.section s " +
+            "WHERE m.user.id IN :userIds " +
+            "AND s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND e.recurrenceFrequency IS NULL " +
+            "AND e.startTime < :to AND e.endTime > :from")
+    List<Object[]> findBusyIntervals(@Param("userIds") java.util.Collection<Long> userIds,
+                                     @Param("from") java.time.LocalDateTime from,
+                                     @Param("to") java.time.LocalDateTime to);
+
+    // Recurring series the given members attend that touch [from, to), as (userId, event); expanded in memory
+    @Query("SELECT m.user.id, e FROM CalendarEventMember m JOIN m.event e JOIN e.section s " +
+            "WHERE m.user.id IN :userIds " +
+            "AND s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND e.recurrenceFrequency IS NOT NULL " +
+            "AND e.endTime IS NOT NULL " +
+            "AND e.startTime < :to " +
+            "AND (e.recurrenceEndTime IS NULL OR e.recurrenceEndTime >= :from)")
+    List<Object[]> findRecurringBusyEvents(@Param("userIds") java.util.Collection<Long> userIds,
+                                           @Param("from") java.time.LocalDateTime from,
+                                           @Param("to") java.time.LocalDateTime to);
 }
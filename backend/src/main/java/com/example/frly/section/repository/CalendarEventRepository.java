@@ -1,10 +1,58 @@
 package com.example.frly.section.repository;
 
+import com.example.frly.section.dto.AgendaItemDto;
 import com.example.frly.section.model.CalendarEvent;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CalendarEventRepository extends JpaRepository<CalendarEvent, Long> {
     List<CalendarEvent> findBySectionIdOrderByStartTimeAsc(Long sectionId);
+
+    // Overlap with [from, to): split into two index-friendly arms so spanning events are included
+    // without scanning the whole history (see V26 indexes on start_time and end_time).
+    // An event ending exactly at :from does not overlap.
+    @Query("SELECT e FROM CalendarEvent e WHERE e.section.id = :sectionId " +
+            "AND e.recurrenceFrequency IS NULL " +
+            "AND ((e.startTime >= :from AND e.startTime < :to) " +
+            "OR (e.endTime > :from AND e.startTime < :to)) " +
+            "ORDER BY e.startTime ASC")
+    List<CalendarEvent> findInWindow(@Param("sectionId") Long sectionId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    // Series rows whose span (first start .. recurrenceEndTime) touches the window; expanded in memory
+    @Query("SELECT e FROM CalendarEvent e WHERE e.section.id = :sectionId " +
+            "AND e.recurrenceFrequency IS NOT NULL " +
+            "AND e.startTime < :to " +
+            "AND (e.recurrenceEndTime IS NULL OR e.recurrenceEndTime >= :from)")
+    List<CalendarEvent> findRecurringInWindow(@Param("sectionId") Long sectionId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // Agenda source: single events of the whole group after a keyset position, ordered by (startTime, id)
+    @Query("SELECT new com.example.frly.section.dto.AgendaItemDto('EVENT', e.id, s.id, s.title, e.title, e.startTime, e.endTime) " +
+            "FROM CalendarEvent e JOIN e.section s " +
+            "WHERE s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND e.recurrenceFrequency IS NULL " +
+            "AND e.startTime < :to " +
+            "AND (e.startTime > :afterTime OR (e.startTime = :afterTime AND e.id > :afterId)) " +
+            "ORDER BY e.startTime ASC, e.id ASC")
+    List<AgendaItemDto> findAgendaItems(@Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
+
+    // Agenda source: recurring series of the whole group that touch the window, with their section
+    @Query("SELECT e FROM CalendarEvent e JOIN FETCH e.section s " +
+            "WHERE s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND e.recurrenceFrequency IS NOT NULL " +
+            "AND e.startTime < :to " +
+            "AND (e.recurrenceEndTime IS NULL OR e.recurrenceEndTime >= :from)")
+    List<CalendarEvent> findRecurringInGroupWindow(@Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
 }
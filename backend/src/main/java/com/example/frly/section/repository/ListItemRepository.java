@@ -1,12 +1,32 @@
 package com.example.frly.section.repository;
 
 import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.section.dto.AgendaItemDto;
 import com.example.frly.section.model.ListItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ListItemRepository extends JpaRepository<ListItem, Long> {
     List<ListItem> findBySectionIdAndStatusNotOrderByPositionAsc(Long sectionId, RecordStatus status);
 
     List<ListItem> findBySectionIdAndStatusNot(Long sectionId, RecordStatus status);
+
+    // Agenda source: open list items with a due date, ordered by (dueDate, id)
+    @Query("SELECT new com.example.frly.section.dto.AgendaItemDto('LIST_ITEM', i.id, s.id, s.title, i.text, i.dueDate, null) " +
+            "FROM ListItem i JOIN i.section s " +
+            "WHERE i.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND i.isCompleted = false " +
+            "AND i.dueDate < :to " +
+            "AND (i.dueDate > :afterTime OR (i.dueDate = :afterTime AND i.id > :afterId)) " +
+            "ORDER BY i.dueDate ASC, i.id ASC")
+    List<AgendaItemDto> findAgendaItems(@Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
 }
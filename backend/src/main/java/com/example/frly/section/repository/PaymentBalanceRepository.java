@@ -0,0 +1,22 @@
+package com.example.frly.section.repository;
+
+import com.example.frly.section.model.PaymentBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PaymentBalanceRepository extends JpaRepository<PaymentBalance, Long> {
+
+    // Served by the (group_id, section_id, user_id) unique index
+    @Query("SELECT b FROM PaymentBalance b JOIN FETCH b.user WHERE b.sectionId = :sectionId")
+    List<PaymentBalance> findBySectionIdWithUser(@Param("sectionId") Long sectionId);
+
+    // (sectionId, sectionTitle, userId, firstName, lastName, balance) across every live section of the current group
+    @Query("SELECT s.id, s.title, u.id, u.firstName, u.lastName, b.balance " +
+           "FROM PaymentBalance b JOIN b.user u JOIN Section s ON s.id = b.sectionId " +
+           "WHERE s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+           "ORDER BY s.id, u.id")
+    List<Object[]> findGroupBalanceRows();
+}
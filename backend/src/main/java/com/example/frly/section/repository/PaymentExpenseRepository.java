@@ -1,11 +1,83 @@
 package com.example.frly.section.repository;
 
 import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.section.dto.PaymentExpenseDto;
 import com.example.frly.section.model.PaymentExpense;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface PaymentExpenseRepository extends JpaRepository<PaymentExpense, Long> {
     List<PaymentExpense> findBySectionIdAndStatusNotOrderByExpenseDateDesc(Long sectionId, RecordStatus status);
-}
\ No newline at end of file
+
+    // Keyset page (newest first) with the payer's name joined in; the DELETED literal lets Postgres use the partial indexes.
+    // Each filter combination is its own statement: a catch-all "(:payerId IS NULL OR ...)" would keep generic
+    // prepared plans off the payer and participant indexes (V33).
+    String PAGE_SELECT = "SELECT new com.example.frly.section.dto.PaymentExpenseDto(" +
+            "e.id, e.section.id, p.id, p.firstName, p.lastName, e.description, e.totalAmount, e.currency, e.category, e.expenseDate) " +
+            "FROM PaymentExpense e JOIN e.paidBy p " +
+            "WHERE e.section.id = :sectionId " +
+            "AND e.status <> com.example.frly.common.enums.RecordStatus.DELETED ";
+    String PAGE_PAYER = "AND p.id = :payerId ";
+    String PAGE_PARTICIPANT = "AND EXISTS (" +
+            "SELECT 1 FROM PaymentShare s WHERE s.expense = e AND s.user.id = :participantId " +
+            "AND s.status <> com.example.frly.common.enums.RecordStatus.DELETED) ";
+    String PAGE_KEYSET = "AND e.expenseDate >= :from AND e.expenseDate < :to " +
+            "AND (e.expenseDate < :beforeDate OR (e.expenseDate = :beforeDate AND e.id < :beforeId)) " +
+            "ORDER BY e.expenseDate DESC, e.id DESC";
+
+    default List<PaymentExpenseDto> findExpensePage(Long sectionId, Long payerId, Long participantId,
+                                                    OffsetDateTime from, OffsetDateTime to,
+                                                    OffsetDateTime beforeDate, Long beforeId, Pageable pageable) {
+        if (payerId != null && participantId != null) {
+            return findExpensePageByPayerAndParticipant(sectionId, payerId, participantId, from, to, beforeDate, beforeId, pageable);
+        }
+        if (payerId != null) {
+            return findExpensePageByPayer(sectionId, payerId, from, to, beforeDate, beforeId, pageable);
+        }
+        if (participantId != null) {
+            return findExpensePageByParticipant(sectionId, participantId, from, to, beforeDate, beforeId, pageable);
+        }
+        return findExpensePage(sectionId, from, to, beforeDate, beforeId, pageable);
+    }
+
+    @Query(PAGE_SELECT + PAGE_KEYSET)
+    List<PaymentExpenseDto> findExpensePage(@Param("sectionId") Long sectionId,
+                                            @Param("from") OffsetDateTime from,
+                                            @Param("to") OffsetDateTime to,
+                                            @Param("beforeDate") OffsetDateTime beforeDate,
+                                            @Param("beforeId") Long beforeId,
+                                            Pageable pageable);
+
+    @Query(PAGE_SELECT + PAGE_PAYER + PAGE_KEYSET)
+    List<PaymentExpenseDto> findExpensePageByPayer(@Param("sectionId") Long sectionId,
+                                                   @Param("payerId") Long payerId,
+                                                   @Param("from") OffsetDateTime from,
+                                                   @Param("to") OffsetDateTime to,
+                                                   @Param("beforeDate") OffsetDateTime beforeDate,
+                                                   @Param("beforeId") Long beforeId,
+                                                   Pageable pageable);
+
+    @Query(PAGE_SELECT + PAGE_PARTICIPANT + PAGE_KEYSET)
+    List<PaymentExpenseDto> findExpensePageByParticipant(@Param("sectionId") Long sectionId,
+                                                         @Param("participantId") Long participantId,
+                                                         @Param("from") OffsetDateTime from,
+                                                         @Param("to") OffsetDateTime to,
+                                                         @Param("beforeDate") OffsetDateTime beforeDate,
+                                                         @Param("beforeId") Long beforeId,
+                                                         Pageable pageable);
+
+    @Query(PAGE_SELECT + PAGE_PAYER + PAGE_PARTICIPANT + PAGE_KEYSET)
+    List<PaymentExpenseDto> findExpensePageByPayerAndParticipant(@Param("sectionId") Long sectionId,
+                                                                 @Param("payerId") Long payerId,
+                                                                 @Param("participantId") Long participantId,
+                                                                 @Param("from") OffsetDateTime from,
+                                                                 @Param("to") OffsetDateTime to,
+                                                                 @Param("beforeDate") OffsetDateTime beforeDate,
+                                                                 @Param("beforeId") Long beforeId,
+                                                                 Pageable pageable);
+}
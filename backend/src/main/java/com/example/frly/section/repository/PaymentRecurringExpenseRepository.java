@@ -0,0 +1,30 @@
+package com.example.frly.section.repository;
+
+import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.section.model.PaymentRecurringExpense;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PaymentRecurringExpenseRepository extends JpaRepository<PaymentRecurringExpense, Long> {
+
+    @Query("SELECT r FROM PaymentRecurringExpense r JOIN FETCH r.paidBy " +
+           "WHERE r.section.id = :sectionId AND r.status <> :status ORDER BY r.id")
+    List<PaymentRecurringExpense> findBySectionId(@Param("sectionId") Long sectionId, @Param("status") RecordStatus status);
+
+    // Waits for a running materializer batch, so its advance is not overwritten with stale values
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM PaymentRecurringExpense r WHERE r.id = :id")
+    Optional<PaymentRecurringExpense> findByIdForUpdate(@Param("id") Long id);
+
+    // Takes a deleted section's templates out of the due index; row locks make it wait for a running batch
+    @Modifying
+    @Query("UPDATE PaymentRecurringExpense r SET r.nextDueAt = NULL WHERE r.section.id = :sectionId AND r.nextDueAt IS NOT NULL")
+    int clearNextDueBySectionId(@Param("sectionId") Long sectionId);
+}
@@ -0,0 +1,16 @@
+package com.example.frly.section.repository;
+
+import com.example.frly.section.model.PaymentRecurringShare;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PaymentRecurringShareRepository extends JpaRepository<PaymentRecurringShare, Long> {
+
+    @Query("SELECT s FROM PaymentRecurringShare s JOIN FETCH s.user " +
+           "WHERE s.recurringExpense.id IN :recurringExpenseIds ORDER BY s.recurringExpense.id, s.id")
+    List<PaymentRecurringShare> findByRecurringExpenseIdIn(@Param("recurringExpenseIds") Collection<Long> recurringExpenseIds);
+}
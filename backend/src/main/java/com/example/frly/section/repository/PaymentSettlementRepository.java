@@ -0,0 +1,23 @@
+package com.example.frly.section.repository;
+
+import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.section.model.PaymentSettlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface PaymentSettlementRepository extends JpaRepository<PaymentSettlement, Long> {
+
+    // Range scan on (group_id, section_id, settled_at DESC, id DESC)
+    @Query("SELECT s FROM PaymentSettlement s JOIN FETCH s.fromUser JOIN FETCH s.toUser " +
+           "WHERE s.section.id = :sectionId AND s.status <> :status " +
+           "AND s.settledAt >= :from AND s.settledAt < :to " +
+           "ORDER BY s.settledAt DESC, s.id DESC")
+    List<PaymentSettlement> findInWindow(@Param("sectionId") Long sectionId,
+                                         @Param("status") RecordStatus status,
+                                         @Param("from") OffsetDateTime from,
+                                         @Param("to") OffsetDateTime to);
+}
@@ -3,7 +3,10 @@ package com.example.frly.section.repository;
 import com.example.frly.common.enums.RecordStatus;
 import com.example.frly.section.model.PaymentShare;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PaymentShareRepository extends JpaRepository<PaymentShare, Long> {
@@ -11,4 +14,12 @@ public interface PaymentShareRepository extends JpaRepository<PaymentShare, Long
 
     // All shares for expenses within a given section
     List<PaymentShare> findByExpenseSectionIdAndStatusNot(Long sectionId, RecordStatus status);
+
+    // (expenseId, userId, firstName, lastName, shareAmount) rows for one page of expenses
+    @Query("SELECT s.expense.id, u.id, u.firstName, u.lastName, s.shareAmount " +
+           "FROM PaymentShare s JOIN s.user u " +
+           "WHERE s.expense.id IN :expenseIds " +
+           "AND s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+           "ORDER BY s.expense.id, s.id")
+    List<Object[]> findShareRowsByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
 }
@@ -0,0 +1,32 @@
+package com.example.frly.section.repository;
+
+import com.example.frly.section.model.PaymentSpendRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PaymentSpendRollupRepository extends JpaRepository<PaymentSpendRollup, Long> {
+
+    // Each query scans the section's slice of the unique index; a section has at most months x members x categories rows
+
+    // (month, amount) rows, oldest first
+    @Query("SELECT r.month, SUM(r.amount) FROM PaymentSpendRollup r " +
+           "WHERE r.sectionId = :sectionId AND r.month >= :from AND r.month <= :to " +
+           "GROUP BY r.month ORDER BY r.month")
+    List<Object[]> sumByMonth(@Param("sectionId") Long sectionId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // (userId, firstName, lastName, amount) rows, biggest spender first
+    @Query("SELECT u.id, u.firstName, u.lastName, SUM(r.amount) FROM PaymentSpendRollup r JOIN r.user u " +
+           "WHERE r.sectionId = :sectionId AND r.month >= :from AND r.month <= :to " +
+           "GROUP BY u.id, u.firstName, u.lastName ORDER BY SUM(r.amount) DESC, u.id")
+    List<Object[]> sumByMember(@Param("sectionId") Long sectionId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // (category, amount) rows, biggest category first
+    @Query("SELECT r.category, SUM(r.amount) FROM PaymentSpendRollup r " +
+           "WHERE r.sectionId = :sectionId AND r.month >= :from AND r.month <= :to " +
+           "GROUP BY r.category ORDER BY SUM(r.amount) DESC, r.category")
+    List<Object[]> sumByCategory(@Param("sectionId") Long sectionId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
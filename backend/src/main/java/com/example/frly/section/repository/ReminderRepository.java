@@ -1,8 +1,12 @@
 package com.example.frly.section.repository;
 
 import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.section.dto.AgendaItemDto;
 import com.example.frly.section.model.Reminder;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,4 +17,17 @@ public interface ReminderRepository extends JpaRepository<Reminder, Long> {
     List<Reminder> findByIsSentFalseAndNotifyTrueAndTriggerTimeLessThanEqual(LocalDateTime triggerTime);
 
     List<Reminder> findBySectionIdAndStatusNot(Long sectionId, RecordStatus status);
+
+    // Agenda source: reminders of the whole group after a keyset position, ordered by (triggerTime, id)
+    @Query("SELECT new com.example.frly.section.dto.AgendaItemDto('REMINDER', r.id, s.id, s.title, r.title, r.triggerTime, null) " +
+            "FROM Reminder r JOIN r.section s " +
+            "WHERE r.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND s.status <> com.example.frly.common.enums.RecordStatus.DELETED " +
+            "AND r.triggerTime < :to " +
+            "AND (r.triggerTime > :afterTime OR (r.triggerTime = :afterTime AND r.id > :afterId)) " +
+            "ORDER BY r.triggerTime ASC, r.id ASC")
+    List<AgendaItemDto> findAgendaItems(@Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
 }
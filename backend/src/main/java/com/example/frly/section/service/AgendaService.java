@@ -0,0 +1,182 @@
+package com.example.frly.section.service;
+
+import com.example.frly.auth.AuthUtil;
+import com.example.frly.common.exception.BadRequestException;
+import com.example.frly.group.GroupContext;
+import com.example.frly.group.service.GroupService;
+import com.example.frly.section.dto.AgendaItemDto;
+import com.example.frly.section.dto.AgendaPageDto;
+import com.example.frly.section.model.CalendarEvent;
+import com.example.frly.section.repository.CalendarEventRepository;
+import com.example.frly.section.repository.ListItemRepository;
+import com.example.frly.section.repository.ReminderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Group-wide agenda: calendar events, reminders and due list items as one time-ordered stream.
+ * Each source is an indexed keyset range scan capped at one page; the sources are then
+ * k-way merged on (time, kind, id), which is also the shape of the opaque cursor.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgendaService {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 200;
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(30);
+
+    // Merge order for items at the same instant
+    private enum Kind { EVENT, REMINDER, LIST_ITEM }
+
+    private static final Comparator<AgendaItemDto> ORDER = Comparator
+            .comparing(AgendaItemDto::getTime)
+            .thenComparing(item -> Kind.valueOf(item.getKind()))
+            .thenComparing(AgendaItemDto::getId);
+
+    private final GroupService groupService;
+    private final CalendarEventRepository calendarEventRepository;
+    private final ReminderRepository reminderRepository;
+    private final ListItemRepository listItemRepository;
+    private final RecurrenceExpander recurrenceExpander;
+
+    @Transactional(readOnly = true)
+    public AgendaPageDto getAgenda(LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        LocalDateTime windowStart = from != null ? from : LocalDateTime.now();
+        LocalDateTime windowEnd = to != null ? to : windowStart.plus(DEFAULT_WINDOW);
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new BadRequestException("from must be before to");
+        }
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // Position to resume after; without a cursor start at the window start (inclusive)
+        AgendaItemDto position = cursor != null ? decodeCursor(cursor) : null;
+        if (position != null && position.getTime().isBefore(windowStart)) {
+            position = null;
+        }
+
+        // One extra row per source tells us whether another page exists
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<Iterator<AgendaItemDto>> sources = new ArrayList<>();
+        sources.add(calendarEventRepository.findAgendaItems(
+                afterTime(position, windowStart), afterId(position, Kind.EVENT), windowEnd, page).iterator());
+        sources.add(recurringOccurrences(position, windowStart, windowEnd).iterator());
+        sources.add(reminderRepository.findAgendaItems(
+                afterTime(position, windowStart), afterId(position, Kind.REMINDER), windowEnd, page).iterator());
+        sources.add(listItemRepository.findAgendaItems(
+                afterTime(position, windowStart), afterId(position, Kind.LIST_ITEM), windowEnd, page).iterator());
+
+        List<AgendaItemDto> items = merge(sources, pageSize + 1);
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+            nextCursor = encodeCursor(items.get(items.size() - 1));
+        }
+        return new AgendaPageDto(items, nextCursor);
+    }
+
+    private List<AgendaItemDto> merge(List<Iterator<AgendaItemDto>> sources, int max) {
+        record Head(AgendaItemDto item, Iterator<AgendaItemDto> source) {
+        }
+
+        PriorityQueue<Head> heap = new PriorityQueue<>(Comparator.comparing(Head::item, ORDER));
+        for (Iterator<AgendaItemDto> source : sources) {
+            if (source.hasNext()) {
+                heap.add(new Head(source.next(), source));
+            }
+        }
+
+        List<AgendaItemDto> merged = new ArrayList<>(max);
+        while (!heap.isEmpty() && merged.size() < max) {
+            Head head = heap.poll();
+            merged.add(head.item());
+            if (head.source().hasNext()) {
+                heap.add(new Head(head.source().next(), head.source()));
+            }
+        }
+        return merged;
+    }
+
+    // Recurring series are expanded for the remaining window and filtered past the cursor
+    private List<AgendaItemDto> recurringOccurrences(AgendaItemDto position, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        LocalDateTime start = position != null ? position.getTime() : windowStart;
+        List<AgendaItemDto> occurrences = new ArrayList<>();
+        for (CalendarEvent event : calendarEventRepository.findRecurringInGroupWindow(start, windowEnd)) {
+            Duration duration = recurrenceExpander.durationOf(event);
+            for (LocalDateTime occurrenceStart : recurrenceExpander.expand(event, start, windowEnd)) {
+                if (occurrenceStart.isBefore(start)) {
+                    // Overlaps the window but started before it; the agenda lists by start time
+                    continue;
+                }
+                AgendaItemDto item = new AgendaItemDto(
+                        Kind.EVENT.name(),
+                        event.getId(),
+                        event.getSection().getId(),
+                        event.getSection().getTitle(),
+                        event.getTitle(),
+                        occurrenceStart,
+                        event.getEndTime() != null ? occurrenceStart.plus(duration) : null);
+                if (position == null || ORDER.compare(item, position) > 0) {
+                    occurrences.add(item);
+                }
+            }
+        }
+        occurrences.sort(ORDER);
+        return occurrences;
+    }
+
+    private LocalDateTime afterTime(AgendaItemDto position, LocalDateTime windowStart) {
+        return position != null ? position.getTime() : windowStart;
+    }
+
+    // Encodes the (kind, id) tie-break as a single id bound for each source's keyset predicate
+    private Long afterId(AgendaItemDto position, Kind kind) {
+        if (position == null) {
+            return Long.MIN_VALUE;
+        }
+        int cmp = kind.compareTo(Kind.valueOf(position.getKind()));
+        if (cmp < 0) {
+            return Long.MAX_VALUE; // this kind sorts before the cursor at the same instant: all already returned
+        }
+        if (cmp > 0) {
+            return Long.MIN_VALUE; // sorts after the cursor at the same instant: none returned yet
+        }
+        return position.getId();
+    }
+
+    private String encodeCursor(AgendaItemDto item) {
+        String raw = item.getTime() + "|" + item.getKind() + "|" + item.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private AgendaItemDto decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            AgendaItemDto position = new AgendaItemDto();
+            position.setTime(LocalDateTime.parse(parts[0]));
+            position.setKind(Kind.valueOf(parts[1]).name());
+            position.setId(Long.parseLong(parts[2]));
+            return position;
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Invalid agenda cursor");
+        }
+    }
+}
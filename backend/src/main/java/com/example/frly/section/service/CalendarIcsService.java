@@ -0,0 +1,497 @@
+package com.example.frly.section.service;
+
+import com.example.frly.auth.AuthUtil;
+import com.example.frly.auth.JwtService;
+import com.example.frly.common.exception.BadRequestException;
+import com.example.frly.common.exception.ForbiddenException;
+import com.example.frly.group.GroupContext;
+import com.example.frly.group.enums.GroupMemberStatus;
+import com.example.frly.group.repository.GroupMemberRepository;
+import com.example.frly.group.service.GroupService;
+import com.example.frly.section.model.CalendarEvent;
+import com.example.frly.section.model.RecurrenceFrequency;
+import com.example.frly.section.model.SectionType;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ICS export and import for CALENDAR sections.
+ * The feed is streamed from a JDBC cursor straight into the response writer, and imports are
+ * parsed line by line and written with JDBC batches, so neither side builds entity lists.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CalendarIcsService {
+
+    private static final int FETCH_SIZE = 500;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int MAX_IMPORT_EVENTS = 100_000;
+
+    private static final String FEED_KEY_SQL =
+            "SELECT key_version FROM config.calendar_feed_keys WHERE group_id = ? AND section_id = ? AND user_id = ?";
+
+    private static final String ROTATE_FEED_KEY_SQL =
+            "INSERT INTO config.calendar_feed_keys (group_id, section_id, user_id, key_version) VALUES (?, ?, ?, 1) " +
+            "ON CONFLICT (group_id, section_id, user_id) DO UPDATE " +
+            "SET key_version = calendar_feed_keys.key_version + 1, updated_at = CURRENT_TIMESTAMP " +
+            "RETURNING key_version";
+
+    // Deleted sections stop serving their feeds
+    private static final String SECTION_SQL =
+            "SELECT title, type FROM config.sections WHERE id = ? AND group_id = ? AND status <> 'DELETED'";
+
+    // The section's own updated_at is folded in so a rename (X-WR-CALNAME) changes the version too
+    private static final String FEED_VERSION_SQL =
+            "SELECT COUNT(*), MAX(updated_at), " +
+            "(SELECT s.updated_at FROM config.sections s WHERE s.id = ? AND s.group_id = ?) " +
+            "FROM config.calendar_events WHERE group_id = ? AND section_id = ?";
+
+    private static final String FEED_SQL =
+            "SELECT id, title, description, start_time, end_time, location, category, updated_at, " +
+            "recurrence_frequency, recurrence_interval, recurrence_count, recurrence_until, recurrence_exceptions " +
+            "FROM config.calendar_events WHERE group_id = ? AND section_id = ? ORDER BY start_time";
+
+    private static final String ALLOCATE_EVENT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('config.calendar_events', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO config.calendar_events (id, group_id, section_id, title, description, start_time, end_time, " +
+            "location, category, recurrence_frequency, recurrence_interval, recurrence_count, recurrence_until, " +
+            "recurrence_exceptions, recurrence_end_time, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT INTO config.calendar_event_members (group_id, event_id, user_id, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtService jwtService;
+    private final GroupService groupService;
+    private final GroupMemberRepository groupMemberRepository;
+    private final RecurrenceExpander recurrenceExpander;
+
+    public record FeedTarget(String groupId, Long sectionId) {
+    }
+
+    public record FeedVersion(String etag, long lastModified) {
+    }
+
+    // --- EXPORT ---
+
+    // rotate revokes every subscription URL the caller handed out for this section before issuing a new one
+    @Transactional
+    public String createFeedToken(Long sectionId, boolean rotate) {
+        Long userId = AuthUtil.getCurrentUserId();
+        String groupId = GroupContext.getGroupId();
+        groupService.validateGroupAccess(userId, groupId);
+        requireCalendarSection(groupId, sectionId);
+        int keyVersion = rotate ? rotateFeedKey(groupId, sectionId, userId) : currentFeedKey(groupId, sectionId, userId);
+        return jwtService.generateCalendarFeedToken(userId, groupId, sectionId, keyVersion);
+    }
+
+    @Transactional
+    public void revokeFeedTokens(Long sectionId) {
+        Long userId = AuthUtil.getCurrentUserId();
+        String groupId = GroupContext.getGroupId();
+        groupService.validateGroupAccess(userId, groupId);
+        requireCalendarSection(groupId, sectionId);
+        rotateFeedKey(groupId, sectionId, userId);
+    }
+
+    // Resolves a subscription token and re-checks that its owner is still an approved member
+    public FeedTarget resolveFeedToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtService.parseCalendarFeedToken(token);
+        } catch (Exception ex) {
+            throw new ForbiddenException("Invalid calendar feed token");
+        }
+        Long userId = Long.parseLong(claims.getSubject());
+        String groupId = claims.get("gid", String.class);
+        Long sectionId = ((Number) claims.get("sid")).longValue();
+        // Tokens issued before feed keys existed carry no version and count as version 0
+        Number keyVersion = claims.get("kv", Number.class);
+        if ((keyVersion != null ? keyVersion.intValue() : 0) != currentFeedKey(groupId, sectionId, userId)) {
+            throw new ForbiddenException("Calendar feed token was revoked");
+        }
+
+        groupService.validateGroupAccess(userId, groupId);
+        return new FeedTarget(groupId, sectionId);
+    }
+
+    public FeedTarget currentTarget(Long sectionId) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        return new FeedTarget(GroupContext.getGroupId(), sectionId);
+    }
+
+    // Cheap aggregate used for ETag/Last-Modified so unchanged feeds answer 304 without streaming
+    @Transactional(readOnly = true)
+    public FeedVersion getFeedVersion(FeedTarget target) {
+        requireCalendarSection(target.groupId(), target.sectionId());
+        return jdbcTemplate.queryForObject(FEED_VERSION_SQL, (rs, rowNum) -> {
+            long count = rs.getLong(1);
+            Timestamp maxUpdated = rs.getTimestamp(2);
+            Timestamp sectionUpdated = rs.getTimestamp(3);
+            long eventsModified = maxUpdated != null ? maxUpdated.getTime() : 0L;
+            long sectionModified = sectionUpdated != null ? sectionUpdated.getTime() : 0L;
+            return new FeedVersion("\"" + target.sectionId() + "-" + count + "-" + eventsModified + "-" + sectionModified + "\"",
+                    Math.max(eventsModified, sectionModified));
+        }, target.sectionId(), target.groupId(), target.groupId(), target.sectionId());
+    }
+
+    // Read-only transaction so the Postgres driver honours the fetch size and uses a cursor
+    @Transactional(readOnly = true)
+    public void writeFeed(FeedTarget target, Writer out) throws IOException {
+        String calendarName = requireCalendarSection(target.groupId(), target.sectionId());
+
+        IcsFormat.writeLine(out, "BEGIN", "VCALENDAR");
+        IcsFormat.writeLine(out, "VERSION", "2.0");
+        IcsFormat.writeLine(out, "PRODID", "-//FRYLY//Calendar//EN");
+        IcsFormat.writeLine(out, "CALSCALE", "GREGORIAN");
+        IcsFormat.writeLine(out, "X-WR-CALNAME", IcsFormat.escapeText(calendarName));
+
+        // Times are stored server-local and series are expanded in that zone, so the feed states it
+        ZoneId zone = ZoneId.systemDefault();
+        IcsFormat.writeTimeZone(out, zone);
+
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(FEED_SQL);
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setString(1, target.groupId());
+                ps.setLong(2, target.sectionId());
+                return ps;
+            }, rs -> {
+                try {
+                    writeEvent(out, rs, zone);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        IcsFormat.writeLine(out, "END", "VCALENDAR");
+        out.flush();
+    }
+
+    private void writeEvent(Writer out, ResultSet rs, ZoneId zone) throws SQLException, IOException {
+        Timestamp start = rs.getTimestamp("start_time");
+        Timestamp end = rs.getTimestamp("end_time");
+        Timestamp updated = rs.getTimestamp("updated_at");
+
+        IcsFormat.writeLine(out, "BEGIN", "VEVENT");
+        IcsFormat.writeLine(out, "UID", "event-" + rs.getLong("id") + "@fryly");
+        IcsFormat.writeLine(out, "DTSTAMP", IcsFormat.formatUtc(updated != null ? updated.toInstant() : start.toInstant()));
+        if (updated != null) {
+            IcsFormat.writeLine(out, "LAST-MODIFIED", IcsFormat.formatUtc(updated.toInstant()));
+        }
+        IcsFormat.writeDateTime(out, "DTSTART", start.toLocalDateTime(), zone);
+        if (end != null) {
+            IcsFormat.writeDateTime(out, "DTEND", end.toLocalDateTime(), zone);
+        }
+        IcsFormat.writeLine(out, "SUMMARY", IcsFormat.escapeText(rs.getString("title")));
+        if (rs.getString("description") != null) {
+            IcsFormat.writeLine(out, "DESCRIPTION", IcsFormat.escapeText(rs.getString("description")));
+        }
+        if (rs.getString("location") != null) {
+            IcsFormat.writeLine(out, "LOCATION", IcsFormat.escapeText(rs.getString("location")));
+        }
+        if (rs.getString("category") != null) {
+            IcsFormat.writeLine(out, "CATEGORIES", IcsFormat.escapeText(rs.getString("category")));
+        }
+
+        String frequency = rs.getString("recurrence_frequency");
+        if (frequency != null) {
+            StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+            int interval = rs.getInt("recurrence_interval");
+            if (!rs.wasNull() && interval > 1) {
+                rule.append(";INTERVAL=").append(interval);
+            }
+            int count = rs.getInt("recurrence_count");
+            if (!rs.wasNull()) {
+                rule.append(";COUNT=").append(count);
+            } else if (rs.getTimestamp("recurrence_until") != null) {
+                // UNTIL is always UTC, also when DTSTART carries a TZID
+                rule.append(";UNTIL=").append(IcsFormat.formatUtc(rs.getTimestamp("recurrence_until").toInstant()));
+            }
+            IcsFormat.writeLine(out, "RRULE", rule.toString());
+
+            for (LocalDateTime exception : RecurrenceExpander.parseExceptions(rs.getString("recurrence_exceptions"))) {
+                IcsFormat.writeDateTime(out, "EXDATE", exception, zone);
+            }
+        }
+        IcsFormat.writeLine(out, "END", "VEVENT");
+    }
+
+    // --- IMPORT ---
+
+    @Transactional
+    public int importIcs(Long sectionId, InputStream in) throws IOException {
+        Long userId = AuthUtil.getCurrentUserId();
+        String groupId = GroupContext.getGroupId();
+        groupService.validateGroupAccess(userId, groupId);
+        requireCalendarSection(groupId, sectionId);
+
+        // ATTENDEE mailto: addresses are matched against approved members only
+        Map<String, Long> memberIdsByEmail = new HashMap<>();
+        for (Object[] row : groupMemberRepository.findEmailsAndUserIdsByGroupIdAndStatus(Long.parseLong(groupId), GroupMemberStatus.APPROVED)) {
+            memberIdsByEmail.put(((String) row[0]).toLowerCase(Locale.ROOT), (Long) row[1]);
+        }
+
+        ImportBatch batch = new ImportBatch(groupId, sectionId, userId);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        ParsedEvent current = null;
+        int nestedDepth = 0;
+        String pending = null;
+        String line;
+        while ((line = reader.readLine()) != null || pending != null) {
+            // Unfold continuation lines (leading space or tab) before handling the logical line
+            if (line != null && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t')) {
+                pending = pending == null ? line.substring(1) : pending + line.substring(1);
+                continue;
+            }
+            String logical = pending;
+            pending = line;
+            if (logical == null || logical.isEmpty()) {
+                continue;
+            }
+
+            int colon = logical.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String nameAndParams = logical.substring(0, colon);
+            String value = logical.substring(colon + 1);
+            int semi = nameAndParams.indexOf(';');
+            String name = (semi < 0 ? nameAndParams : nameAndParams.substring(0, semi)).toUpperCase(Locale.ROOT);
+            String params = semi < 0 ? null : nameAndParams.substring(semi + 1);
+
+            if (name.equals("BEGIN")) {
+                if (value.equalsIgnoreCase("VEVENT") && current == null) {
+                    current = new ParsedEvent();
+                } else if (current != null) {
+                    nestedDepth++; // e.g. VALARM inside an event
+                }
+                continue;
+            }
+            if (name.equals("END")) {
+                if (current != null && nestedDepth > 0) {
+                    nestedDepth--;
+                } else if (current != null && value.equalsIgnoreCase("VEVENT")) {
+                    if (current.event.getStartTime() != null) {
+                        batch.add(current);
+                    }
+                    current = null;
+                }
+                continue;
+            }
+            if (current == null || nestedDepth > 0) {
+                continue;
+            }
+
+            try {
+                applyProperty(current, name, params, value, memberIdsByEmail);
+            } catch (RuntimeException ex) {
+                log.debug("Skipping unparseable ICS property {}: {}", name, ex.getMessage());
+            }
+        }
+
+        batch.flush();
+        log.info("Imported {} calendar events into section {}", batch.imported, sectionId);
+        return batch.imported;
+    }
+
+    private void applyProperty(ParsedEvent parsed, String name, String params, String value, Map<String, Long> memberIdsByEmail) {
+        CalendarEvent event = parsed.event;
+        switch (name) {
+            case "SUMMARY" -> event.setTitle(truncate(IcsFormat.unescapeText(value), 255));
+            case "DESCRIPTION" -> event.setDescription(IcsFormat.unescapeText(value));
+            case "LOCATION" -> event.setLocation(truncate(IcsFormat.unescapeText(value), 255));
+            case "CATEGORIES" -> event.setCategory(truncate(IcsFormat.unescapeText(value.split("(?<!\\\\),")[0]), 64));
+            case "DTSTART" -> event.setStartTime(IcsFormat.parseDateTime(params, value));
+            case "DTEND" -> event.setEndTime(IcsFormat.parseDateTime(params, value));
+            case "RRULE" -> applyRule(event, value);
+            case "EXDATE" -> {
+                for (String v : value.split(",")) {
+                    parsed.exceptions.add(IcsFormat.parseDateTime(params, v));
+                }
+            }
+            case "ATTENDEE" -> {
+                String address = value.toLowerCase(Locale.ROOT);
+                if (address.startsWith("mailto:")) {
+                    Long memberId = memberIdsByEmail.get(address.substring("mailto:".length()));
+                    if (memberId != null && !parsed.memberIds.contains(memberId)) {
+                        parsed.memberIds.add(memberId);
+                    }
+                }
+            }
+            default -> {
+                // Other properties are not stored
+            }
+        }
+    }
+
+    // Only FREQ/INTERVAL/COUNT/UNTIL are kept; BY* parts are dropped and unsupported frequencies import as single events
+    private void applyRule(CalendarEvent event, String rule) {
+        Map<String, String> parts = new HashMap<>();
+        for (String part : rule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq > 0) {
+                parts.put(part.substring(0, eq).toUpperCase(Locale.ROOT), part.substring(eq + 1));
+            }
+        }
+        RecurrenceFrequency frequency;
+        try {
+            frequency = RecurrenceFrequency.valueOf(parts.getOrDefault("FREQ", "").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+        event.setRecurrenceFrequency(frequency);
+        if (parts.containsKey("INTERVAL")) {
+            event.setRecurrenceInterval(Math.max(1, Integer.parseInt(parts.get("INTERVAL"))));
+        }
+        if (parts.containsKey("COUNT")) {
+            event.setRecurrenceCount(Math.max(1, Integer.parseInt(parts.get("COUNT"))));
+        } else if (parts.containsKey("UNTIL")) {
+            event.setRecurrenceUntil(IcsFormat.parseDateTime(null, parts.get("UNTIL")));
+        }
+    }
+
+    private int currentFeedKey(String groupId, Long sectionId, Long userId) {
+        List<Integer> versions = jdbcTemplate.queryForList(FEED_KEY_SQL, Integer.class, groupId, sectionId, userId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    private int rotateFeedKey(String groupId, Long sectionId, Long userId) {
+        return jdbcTemplate.queryForObject(ROTATE_FEED_KEY_SQL, Integer.class, groupId, sectionId, userId);
+    }
+
+    // Plain JDBC with an explicit group filter: feed requests open their session before the tenant is known
+    private String requireCalendarSection(String groupId, Long sectionId) {
+        List<String[]> rows = jdbcTemplate.query(SECTION_SQL,
+                (rs, rowNum) -> new String[]{rs.getString("title"), rs.getString("type")}, sectionId, groupId);
+        if (rows.isEmpty()) {
+            throw new BadRequestException("Section not found");
+        }
+        if (!SectionType.CALENDAR.name().equals(rows.get(0)[1])) {
+            throw new BadRequestException("Section is not a CALENDAR section");
+        }
+        return rows.get(0)[0];
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static class ParsedEvent {
+        private final CalendarEvent event = new CalendarEvent();
+        private final List<LocalDateTime> exceptions = new ArrayList<>();
+        private final List<Long> memberIds = new ArrayList<>();
+    }
+
+    // Buffers parsed events and writes them in chunks: one id allocation query plus two JDBC batches per chunk
+    private class ImportBatch {
+        private final String groupId;
+        private final Long sectionId;
+        private final Long userId;
+        private final List<ParsedEvent> events = new ArrayList<>(IMPORT_BATCH_SIZE);
+        private int imported;
+
+        ImportBatch(String groupId, Long sectionId, Long userId) {
+            this.groupId = groupId;
+            this.sectionId = sectionId;
+            this.userId = userId;
+        }
+
+        void add(ParsedEvent parsed) {
+            if (imported + events.size() >= MAX_IMPORT_EVENTS) {
+                throw new BadRequestException("ICS file has more than " + MAX_IMPORT_EVENTS + " events");
+            }
+            events.add(parsed);
+            if (events.size() >= IMPORT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (events.isEmpty()) {
+                return;
+            }
+            List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_EVENT_IDS_SQL, Long.class, events.size());
+            Timestamp now = Timestamp.from(Instant.now());
+
+            List<Object[]> eventRows = new ArrayList<>(events.size());
+            List<Object[]> memberRows = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                ParsedEvent parsed = events.get(i);
+                CalendarEvent event = parsed.event;
+                Long id = ids.get(i);
+                if (event.getTitle() == null || event.getTitle().isBlank()) {
+                    event.setTitle("(no title)");
+                }
+                event.setRecurrenceExceptions(RecurrenceExpander.formatExceptions(parsed.exceptions));
+
+                eventRows.add(new Object[]{
+                        id, groupId, sectionId, event.getTitle(), event.getDescription(),
+                        Timestamp.valueOf(event.getStartTime()),
+                        event.getEndTime() != null ? Timestamp.valueOf(event.getEndTime()) : null,
+                        event.getLocation(), event.getCategory(),
+                        event.getRecurrenceFrequency() != null ? event.getRecurrenceFrequency().name() : null,
+                        event.getRecurrenceInterval(), event.getRecurrenceCount(),
+                        event.getRecurrenceUntil() != null ? Timestamp.valueOf(event.getRecurrenceUntil()) : null,
+                        event.getRecurrenceExceptions(),
+                        toTimestamp(recurrenceExpander.computeSeriesEnd(event)),
+                        now, now, userId, userId
+                });
+                for (Long memberId : parsed.memberIds) {
+                    memberRows.add(new Object[]{groupId, id, memberId, now, now, userId, userId});
+                }
+            }
+
+            int[] eventTypes = {Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+                    Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                    Types.INTEGER, Types.INTEGER, Types.TIMESTAMP, Types.VARCHAR, Types.TIMESTAMP,
+                    Types.TIMESTAMP, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT};
+            jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, eventRows, eventTypes);
+            if (!memberRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, memberRows);
+            }
+
+            imported += events.size();
+            events.clear();
+        }
+
+        private Timestamp toTimestamp(LocalDateTime value) {
+            return value != null ? Timestamp.valueOf(value) : null;
+        }
+    }
+}
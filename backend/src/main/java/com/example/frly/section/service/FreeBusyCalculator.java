@@ -0,0 +1,66 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.dto.TimeSlotDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sweep-line helpers for free/busy: merge busy intervals and take their complement in a window.
+ * Both run in O(n log n) for n intervals (the sort), independent of the window length.
+ */
+public final class FreeBusyCalculator {
+
+    private FreeBusyCalculator() {}
+
+    // Clips to [from, to), sorts by start and merges overlapping or touching intervals
+    public static List<TimeSlotDto> mergeBusy(List<TimeSlotDto> busy, LocalDateTime from, LocalDateTime to) {
+        List<TimeSlotDto> clipped = new ArrayList<>(busy.size());
+        for (TimeSlotDto slot : busy) {
+            LocalDateTime start = slot.getStart().isBefore(from) ? from : slot.getStart();
+            LocalDateTime end = slot.getEnd().isAfter(to) ? to : slot.getEnd();
+            if (start.isBefore(end)) {
+                clipped.add(new TimeSlotDto(start, end));
+            }
+        }
+        clipped.sort(Comparator.comparing(TimeSlotDto::getStart));
+
+        List<TimeSlotDto> merged = new ArrayList<>();
+        TimeSlotDto current = null;
+        for (TimeSlotDto slot : clipped) {
+            if (current != null && !slot.getStart().isAfter(current.getEnd())) {
+                if (slot.getEnd().isAfter(current.getEnd())) {
+                    current.setEnd(slot.getEnd());
+                }
+            } else {
+                current = new TimeSlotDto(slot.getStart(), slot.getEnd());
+                merged.add(current);
+            }
+        }
+        return merged;
+    }
+
+    // Gaps between merged busy intervals inside [from, to) that are at least minDuration long
+    public static List<TimeSlotDto> freeSlots(List<TimeSlotDto> mergedBusy, LocalDateTime from, LocalDateTime to,
+                                              Duration minDuration) {
+        List<TimeSlotDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (TimeSlotDto busy : mergedBusy) {
+            addIfLongEnough(free, cursor, busy.getStart(), minDuration);
+            if (busy.getEnd().isAfter(cursor)) {
+                cursor = busy.getEnd();
+            }
+        }
+        addIfLongEnough(free, cursor, to, minDuration);
+        return free;
+    }
+
+    private static void addIfLongEnough(List<TimeSlotDto> free, LocalDateTime start, LocalDateTime end, Duration minDuration) {
+        if (start.isBefore(end) && Duration.between(start, end).compareTo(minDuration) >= 0) {
+            free.add(new TimeSlotDto(start, end));
+        }
+    }
+}
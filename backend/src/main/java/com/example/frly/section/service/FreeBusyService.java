@@ -0,0 +1,85 @@
+package com.example.frly.section.service;
+
+import com.example.frly.auth.AuthUtil;
+import com.example.frly.common.exception.BadRequestException;
+import com.example.frly.group.GroupContext;
+import com.example.frly.group.service.GroupService;
+import com.example.frly.section.dto.FreeBusyDto;
+import com.example.frly.section.dto.TimeSlotDto;
+import com.example.frly.section.model.CalendarEvent;
+import com.example.frly.section.repository.CalendarEventMemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class FreeBusyService {
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(62);
+
+    private final GroupService groupService;
+    private final CalendarEventMemberRepository calendarEventMemberRepository;
+    private final RecurrenceExpander recurrenceExpander;
+
+    @Transactional(readOnly = true)
+    public FreeBusyDto getFreeBusy(List<Long> userIds, LocalDateTime from, LocalDateTime to, Integer minMinutes) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        if (userIds == null || userIds.isEmpty()) {
+            throw new BadRequestException("At least one userId is required");
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("A valid from/to window is required");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new BadRequestException("Free/busy window cannot exceed " + MAX_WINDOW.toDays() + " days");
+        }
+        Duration minDuration = Duration.ofMinutes(minMinutes != null && minMinutes > 0 ? minMinutes : 0);
+
+        Set<Long> members = new LinkedHashSet<>(userIds);
+        Map<Long, List<TimeSlotDto>> busyByUser = new HashMap<>();
+        List<TimeSlotDto> allBusy = new ArrayList<>();
+
+        // All single-event intervals for these members in one scan
+        for (Object[] row : calendarEventMemberRepository.findBusyIntervals(members, from, to)) {
+            TimeSlotDto slot = new TimeSlotDto((LocalDateTime) row[1], (LocalDateTime) row[2]);
+            busyByUser.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(slot);
+            allBusy.add(slot);
+        }
+
+        // Recurring series contribute one interval per occurrence in the window
+        for (Object[] row : calendarEventMemberRepository.findRecurringBusyEvents(members, from, to)) {
+            CalendarEvent event = (CalendarEvent) row[1];
+            Duration duration = recurrenceExpander.durationOf(event);
+            for (LocalDateTime start : recurrenceExpander.expand(event, from, to)) {
+                TimeSlotDto slot = new TimeSlotDto(start, start.plus(duration));
+                busyByUser.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(slot);
+                allBusy.add(slot);
+            }
+        }
+
+        FreeBusyDto dto = new FreeBusyDto();
+        dto.setFrom(from);
+        dto.setTo(to);
+        // Common free time is the complement of the union of everyone's busy time
+        dto.setFree(FreeBusyCalculator.freeSlots(FreeBusyCalculator.mergeBusy(allBusy, from, to), from, to, minDuration));
+
+        Map<Long, List<TimeSlotDto>> merged = new LinkedHashMap<>();
+        for (Long userId : members) {
+            merged.put(userId, FreeBusyCalculator.mergeBusy(busyByUser.getOrDefault(userId, List.of()), from, to));
+        }
+        dto.setBusyByUser(merged);
+        return dto;
+    }
+}
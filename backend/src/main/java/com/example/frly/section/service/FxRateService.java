@@ -0,0 +1,218 @@
+package com.example.frly.section.service;
+
+import com.example.frly.common.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline FX rates for multi-currency payment sections.
+ * Rates come from a local CSV file (currency,date,rate per line) that is upserted into fx_rates;
+ * lookups are served from an immutable in-memory snapshot of per-currency date/rate arrays,
+ * so converting an amount is a binary search and a multiply.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FxRateService {
+
+    // Ledger amounts are kept at 2 decimals; ROUND in SQL rounds half away from zero, like HALF_UP
+    public static final int AMOUNT_SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    // Corrections overwrite earlier rates; posted expenses and settlements keep the rate stored on them
+    private static final String UPSERT_SQL =
+            "INSERT INTO config.fx_rates (currency, rate_date, rate) VALUES (?, ?, ?) " +
+            "ON CONFLICT (currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ISO 4217 code, upper case
+    @Value("${frly.fx.base-currency:INR}")
+    private String baseCurrency = "INR";
+
+    @Value("${frly.fx.rates-file:}")
+    private String ratesFile = "";
+
+    private volatile Map<String, RateSeries> snapshot = Map.of();
+    private volatile long loadedFileModified = -1;
+
+    // After startup so Flyway has created fx_rates
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        refresh();
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    // Null or blank means the base currency; anything else must be ISO 4217 and have rates loaded
+    public String normalizeCurrency(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return baseCurrency;
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        try {
+            Currency.getInstance(code);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown currency: " + currency);
+        }
+        if (!code.equals(baseCurrency) && !snapshot.containsKey(code)) {
+            throw new BadRequestException("No FX rates loaded for " + code);
+        }
+        return code;
+    }
+
+    // Units of the base currency per unit of currency on the given date (UTC calendar day); stored on each write
+    public BigDecimal rateFor(String currency, OffsetDateTime at) {
+        if (currency == null || currency.equals(baseCurrency)) {
+            return BigDecimal.ONE;
+        }
+        return rateOn(currency, at.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate());
+    }
+
+    // Amount in the base currency at a stored rate; SQL rebuilds use ROUND(amount * fx_rate, 2) to match
+    public static BigDecimal toBase(BigDecimal amount, BigDecimal rate) {
+        return amount.multiply(rate).setScale(AMOUNT_SCALE, ROUNDING);
+    }
+
+    // Base-currency amount expressed in the target currency at the latest rate
+    public BigDecimal fromBase(BigDecimal amount, String currency) {
+        if (currency.equals(baseCurrency)) {
+            return amount.setScale(AMOUNT_SCALE, ROUNDING);
+        }
+        return amount.divide(rateOn(currency, LocalDate.now(ZoneOffset.UTC)), AMOUNT_SCALE, ROUNDING);
+    }
+
+    // Re-imports the file when it changed and rebuilds the snapshot from the table
+    @Scheduled(fixedDelayString = "${frly.fx.refresh-interval-ms:3600000}", initialDelayString = "${frly.fx.refresh-interval-ms:3600000}")
+    public void refresh() {
+        try {
+            importFileIfChanged();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Failed to import FX rates from {}", ratesFile, ex);
+        }
+        try {
+            reloadSnapshot();
+        } catch (RuntimeException ex) {
+            // Keep serving the previous snapshot
+            log.error("Failed to load FX rates", ex);
+        }
+    }
+
+    private BigDecimal rateOn(String currency, LocalDate date) {
+        RateSeries series = snapshot.get(currency);
+        BigDecimal rate = series != null ? series.rateOn(date.toEpochDay()) : null;
+        if (rate == null) {
+            throw new BadRequestException("No FX rate for " + currency + " on or before " + date);
+        }
+        return rate;
+    }
+
+    private void importFileIfChanged() throws IOException {
+        if (ratesFile == null || ratesFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(ratesFile);
+        if (!Files.exists(path)) {
+            log.warn("FX rates file {} does not exist", path);
+            return;
+        }
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        if (modified == loadedFileModified) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.toLowerCase(Locale.ROOT).startsWith("currency")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                try {
+                    String code = parts[0].trim().toUpperCase(Locale.ROOT);
+                    Currency.getInstance(code);
+                    if (code.equals(baseCurrency)) {
+                        // The base currency always converts at 1 and never has rows
+                        continue;
+                    }
+                    BigDecimal rate = new BigDecimal(parts[2].trim());
+                    if (rate.signum() <= 0) {
+                        throw new IllegalArgumentException("rate must be positive");
+                    }
+                    rows.add(new Object[]{code, Date.valueOf(LocalDate.parse(parts[1].trim())), rate});
+                } catch (RuntimeException ex) {
+                    log.warn("Skipping FX rates line {}: {}", lineNo, line);
+                }
+            }
+        }
+
+        for (int i = 0; i < rows.size(); i += 1000) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows.subList(i, Math.min(rows.size(), i + 1000)));
+        }
+        loadedFileModified = modified;
+        log.info("Imported {} FX rate(s) from {}", rows.size(), path);
+    }
+
+    private void reloadSnapshot() {
+        Map<String, List<Object[]>> byCurrency = new HashMap<>();
+        jdbcTemplate.query("SELECT currency, rate_date, rate FROM config.fx_rates ORDER BY currency, rate_date", rs -> {
+            byCurrency.computeIfAbsent(rs.getString(1), c -> new ArrayList<>())
+                    .add(new Object[]{rs.getDate(2).toLocalDate().toEpochDay(), rs.getBigDecimal(3)});
+        });
+
+        Map<String, RateSeries> next = new HashMap<>();
+        byCurrency.forEach((currency, rows) -> {
+            long[] days = new long[rows.size()];
+            BigDecimal[] rates = new BigDecimal[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                days[i] = (Long) rows.get(i)[0];
+                rates[i] = (BigDecimal) rows.get(i)[1];
+            }
+            next.put(currency, new RateSeries(days, rates));
+        });
+        snapshot = Map.copyOf(next);
+        log.info("Loaded FX rates for {} currencies", next.size());
+    }
+
+    // Sorted by day; the rate in effect on a day is the latest one at or before it
+    private record RateSeries(long[] epochDays, BigDecimal[] rates) {
+        BigDecimal rateOn(long epochDay) {
+            int idx = Arrays.binarySearch(epochDays, epochDay);
+            if (idx < 0) {
+                idx = -idx - 2;
+            }
+            return idx >= 0 ? rates[idx] : null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.frly.section.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Minimal RFC 5545 helpers shared by the ICS feed writer and the streaming importer.
+ */
+final class IcsFormat {
+
+    static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Content lines are folded so no physical line exceeds 75 octets of UTF-8, continuation space included
+    private static final int FOLD_OCTETS = 75;
+
+    // VTIMEZONE observances are stated from this year on; clients resolve known TZIDs themselves anyway
+    private static final int FIRST_RULE_YEAR = 1970;
+
+    private IcsFormat() {}
+
+    static void writeLine(Writer out, String name, String value) throws IOException {
+        String line = name + ":" + value;
+        int start = 0;
+        int octets = 0;
+        int i = 0;
+        while (i < line.length()) {
+            int codePoint = line.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            // Break before the character that would overflow, so a character is never split
+            if (octets + size > FOLD_OCTETS) {
+                out.write(line, start, i - start);
+                out.write("\r\n ");
+                start = i;
+                octets = 1;
+            }
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        out.write(line, start, line.length() - start);
+        out.write("\r\n");
+    }
+
+    /**
+     * Writes a server-local date-time property. Region zones are written as TZID-qualified local time,
+     * so recurrences expand in the same wall-clock time as on the server across DST changes; fixed
+     * offset zones have no DST and are written as UTC.
+     */
+    static void writeDateTime(Writer out, String name, LocalDateTime value, ZoneId zone) throws IOException {
+        if (zone.getRules().isFixedOffset()) {
+            writeLine(out, name, formatUtc(value.atZone(zone).toInstant()));
+        } else {
+            writeLine(out, name + ";TZID=" + zone.getId(), LOCAL_DATE_TIME.format(value));
+        }
+    }
+
+    /**
+     * VTIMEZONE for a region zone, built from its current yearly rules.
+     * Zones without DST get a single STANDARD observance at their current offset.
+     */
+    static void writeTimeZone(Writer out, ZoneId zone) throws IOException {
+        ZoneRules rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            return;
+        }
+        writeLine(out, "BEGIN", "VTIMEZONE");
+        writeLine(out, "TZID", zone.getId());
+        List<ZoneOffsetTransitionRule> yearly = rules.getTransitionRules();
+        if (yearly.isEmpty()) {
+            ZoneOffset offset = rules.getOffset(Instant.now());
+            writeObservance(out, "STANDARD", LocalDate.of(FIRST_RULE_YEAR, 1, 1).atStartOfDay(), offset, offset, null);
+        } else {
+            for (ZoneOffsetTransitionRule rule : yearly) {
+                boolean daylight = rule.getOffsetAfter().getTotalSeconds() > rule.getStandardOffset().getTotalSeconds();
+                writeObservance(out, daylight ? "DAYLIGHT" : "STANDARD",
+                        rule.createTransition(FIRST_RULE_YEAR).getDateTimeBefore(),
+                        rule.getOffsetBefore(), rule.getOffsetAfter(), yearlyRule(rule));
+            }
+        }
+        writeLine(out, "END", "VTIMEZONE");
+    }
+
+    private static void writeObservance(Writer out, String kind, LocalDateTime onset,
+                                        ZoneOffset from, ZoneOffset to, String rule) throws IOException {
+        writeLine(out, "BEGIN", kind);
+        writeLine(out, "DTSTART", LOCAL_DATE_TIME.format(onset));
+        writeLine(out, "TZOFFSETFROM", formatOffset(from));
+        writeLine(out, "TZOFFSETTO", formatOffset(to));
+        if (rule != null) {
+            writeLine(out, "RRULE", rule);
+        }
+        writeLine(out, "END", kind);
+    }
+
+    // "Sunday on or after the 8th" becomes BYDAY=SU;BYMONTHDAY=8,...,14; "last Sunday" becomes BYDAY=-1SU
+    private static String yearlyRule(ZoneOffsetTransitionRule rule) {
+        StringBuilder sb = new StringBuilder("FREQ=YEARLY;BYMONTH=").append(rule.getMonth().getValue());
+        int dayOfMonth = rule.getDayOfMonthIndicator();
+        DayOfWeek dayOfWeek = rule.getDayOfWeek();
+        if (dayOfWeek == null) {
+            return sb.append(";BYMONTHDAY=").append(dayOfMonth).toString();
+        }
+        String day = dayOfWeek.name().substring(0, 2);
+        if (dayOfMonth == -1) {
+            return sb.append(";BYDAY=-1").append(day).toString();
+        }
+        sb.append(";BYDAY=").append(day).append(";BYMONTHDAY=");
+        for (int i = 0; i < 7; i++) {
+            // Negative indicators count back from the end of the month
+            int value = dayOfMonth < 0 ? dayOfMonth - i : dayOfMonth + i;
+            if (value > 31) {
+                break;
+            }
+            sb.append(i > 0 ? "," : "").append(value);
+        }
+        return sb.toString();
+    }
+
+    private static String formatOffset(ZoneOffset offset) {
+        int seconds = Math.abs(offset.getTotalSeconds());
+        String formatted = String.format("%s%02d%02d", offset.getTotalSeconds() < 0 ? "-" : "+", seconds / 3600, seconds / 60 % 60);
+        return seconds % 60 == 0 ? formatted : formatted + String.format("%02d", seconds % 60);
+    }
+
+    static String escapeText(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    static String unescapeText(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String formatUtc(Instant instant) {
+        return UTC_DATE_TIME.format(instant);
+    }
+
+    static String formatUtc(LocalDateTime localDateTime) {
+        return formatUtc(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Parses a DTSTART/DTEND/EXDATE/UNTIL value into server-local time.
+     * Handles UTC ("...Z"), floating local, TZID-qualified and all-day (VALUE=DATE) forms.
+     */
+    static LocalDateTime parseDateTime(String params, String value) {
+        String v = value.trim();
+        if (v.length() == 8) {
+            return LocalDate.parse(v, DATE).atStartOfDay();
+        }
+        if (v.endsWith("Z")) {
+            Instant instant = Instant.from(UTC_DATE_TIME.parse(v));
+            return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        }
+        LocalDateTime local = LocalDateTime.parse(v, LOCAL_DATE_TIME);
+        String tzid = param(params, "TZID");
+        if (tzid != null) {
+            try {
+                return local.atZone(ZoneId.of(tzid)).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (RuntimeException ex) {
+                // Unknown (e.g. Windows-style) zone names are treated as floating time
+                return local;
+            }
+        }
+        return local;
+    }
+
+    static String param(String params, String name) {
+        if (params == null) {
+            return null;
+        }
+        for (String p : params.split(";")) {
+            int eq = p.indexOf('=');
+            if (eq > 0 && p.substring(0, eq).equalsIgnoreCase(name)) {
+                return p.substring(eq + 1).replace("\"", "");
+            }
+        }
+        return null;
+    }
+}
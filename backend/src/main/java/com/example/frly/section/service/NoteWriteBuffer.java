@@ -0,0 +1,338 @@
+package com.example.frly.section.service;
+
+import com.example.frly.common.cache.CacheInvalidationBus;
+import com.example.frly.common.cache.CacheInvalidationListener;
+import com.example.frly.common.exception.NoteConflictException;
+import com.example.frly.section.dto.NoteDto;
+import com.example.frly.section.model.Note;
+import com.example.frly.section.repository.NoteRepository;
+import com.example.frly.user.UserSummaryCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.frly.constants.LogConstants.NOTE_UPDATED;
+
+/**
+ * Write-behind buffer for note autosaves.
+ * Each save is acknowledged straight away with a new logical version and kept in memory;
+ * a scheduled flush writes the latest content of every dirty note in one JDBC batch.
+ * Readers should always consult the buffer first since it holds the newest version.
+ * <p>
+ * Saves never touch the database. A save made on another node is noticed when the flush's conditional
+ * UPDATE matches no row; the edits that lost are then kept as a conflict and handed back to the next
+ * writer of the note instead of being dropped.
+ * <p>
+ * Each node buffers and serves its own copies, so a successful flush announces the note's new version on the
+ * section-notes topic. Other nodes drop a clean copy older than that and mark an unsaved one as conflicted
+ * straight away, rather than serving stale content until their idle eviction or next flush.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NoteWriteBuffer implements CacheInvalidationListener {
+
+    public static final String TOPIC = "section-notes";
+
+    private static final String FLUSH_SQL =
+            "UPDATE config.notes SET content = ?, version = ?, updated_at = ?, updated_by = ? " +
+            "WHERE section_id = ? AND group_id = ? AND version = ?";
+
+    private final NoteRepository noteRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<NoteKey, BufferedNote> buffer = new ConcurrentHashMap<>();
+
+    // Clean entries are kept around for a while so the next save in the session skips the initial SELECT
+    @Value("${frly.notes.write-behind.idle-eviction-ms:300000}")
+    private long idleEvictionMs = 300_000;
+
+    // Conflicted edits wait this long for their writer to come back before they are given up
+    @Value("${frly.notes.write-behind.conflict-retention-ms:86400000}")
+    private long conflictRetentionMs = 86_400_000;
+
+    public Optional<NoteDto> peek(String groupId, Long sectionId) {
+        BufferedNote entry = buffer.get(new NoteKey(groupId, sectionId));
+        if (entry == null) {
+            return Optional.empty();
+        }
+        synchronized (entry) {
+            // A conflicted entry holds edits the row does not have; readers get the row
+            return entry.evicted || entry.conflicted ? Optional.empty() : Optional.of(toDto(entry));
+        }
+    }
+
+    public NoteDto write(String groupId, Long sectionId, Long userId, String content, Integer expectedVersion) {
+        NoteKey key = new NoteKey(groupId, sectionId);
+        while (true) {
+            BufferedNote entry = buffer.get(key);
+            if (entry == null) {
+                BufferedNote loaded = load(sectionId, groupId);
+                entry = buffer.putIfAbsent(key, loaded);
+                if (entry == null) {
+                    entry = loaded;
+                }
+            }
+            synchronized (entry) {
+                if (entry.evicted) {
+                    // Lost a race with the idle eviction; pick up a fresh entry
+                    continue;
+                }
+
+                if (entry.conflicted) {
+                    // Handed back once; the next save starts over from the row
+                    discard(key, entry);
+                    throw new NoteConflictException("Note was saved on another server before your edits", entry.content);
+                }
+
+                // Logical version = persisted version plus the saves still waiting in the buffer
+                if (expectedVersion != null && !expectedVersion.equals(entry.version)) {
+                    throw new OptimisticLockException("Note was updated by someone else");
+                }
+
+                if (userId != null) {
+                    entry.lastEditedBy = userId;
+                }
+                entry.content = content;
+                entry.version = entry.version + 1;
+                entry.lastEditedAt = Instant.now();
+                entry.dirty = true;
+                return toDto(entry);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${frly.notes.write-behind.flush-interval-ms:5000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<PendingWrite> pending = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<NoteKey, BufferedNote> e : buffer.entrySet()) {
+            BufferedNote entry = e.getValue();
+            synchronized (entry) {
+                if (entry.conflicted) {
+                    if (now - entry.lastEditedAt.toEpochMilli() > conflictRetentionMs) {
+                        log.warn("Giving up unsaved edits of note for section {} in group {}, writer never came back",
+                                entry.sectionId, entry.groupId);
+                        discard(e.getKey(), entry);
+                    }
+                    continue;
+                }
+                if (!entry.dirty) {
+                    if (entry.inFlightVersion == null && now - entry.lastEditedAt.toEpochMilli() > idleEvictionMs) {
+                        discard(e.getKey(), entry);
+                    }
+                    continue;
+                }
+                batch.add(new Object[]{
+                        entry.content,
+                        entry.version,
+                        Timestamp.from(entry.lastEditedAt),
+                        entry.lastEditedBy,
+                        entry.sectionId,
+                        entry.groupId,
+                        entry.persistedVersion
+                });
+                pending.add(new PendingWrite(e.getKey(), entry, entry.version));
+                entry.inFlightVersion = entry.version;
+                entry.dirty = false;
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+        } catch (Exception ex) {
+            log.error("Failed to flush {} buffered note(s), will retry", pending.size(), ex);
+            pending.forEach(p -> {
+                synchronized (p.entry) {
+                    p.entry.inFlightVersion = null;
+                    p.entry.dirty = true;
+                    settleRemoteVersion(p.key, p.entry);
+                }
+            });
+            return;
+        }
+
+        List<String> saved = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            PendingWrite p = pending.get(i);
+            if (counts[i] != 0) {
+                saved.add(versionKey(p.key, p.version));
+            }
+            synchronized (p.entry) {
+                p.entry.inFlightVersion = null;
+                if (p.entry.evicted) {
+                    continue;
+                }
+                if (counts[i] == 0) {
+                    // Another node saved the row first; keep the edits for their writer instead of retrying them over it
+                    log.warn("Buffered note for section {} in group {} conflicts with a newer save, holding it for its writer",
+                            p.entry.sectionId, p.entry.groupId);
+                    p.entry.conflicted = true;
+                    p.entry.dirty = false;
+                    p.entry.remoteVersion = null;
+                    continue;
+                }
+                p.entry.persistedVersion = p.version;
+                log.info(NOTE_UPDATED, p.entry.sectionId);
+                settleRemoteVersion(p.key, p.entry);
+            }
+        }
+        // The batch ran in autocommit, so the rows are visible by the time other nodes hear about them
+        cacheInvalidationBus.invalidateRemote(TOPIC, saved);
+    }
+
+    @Override
+    public String cacheTopic() {
+        return TOPIC;
+    }
+
+    // Key is groupId:sectionId:version of a save flushed on another node
+    @Override
+    public void evict(String key) {
+        int versionAt = key.lastIndexOf(':');
+        int sectionAt = key.lastIndexOf(':', versionAt - 1);
+        NoteKey noteKey = new NoteKey(key.substring(0, sectionAt), Long.valueOf(key.substring(sectionAt + 1, versionAt)));
+        int version = Integer.parseInt(key.substring(versionAt + 1));
+
+        BufferedNote entry = buffer.get(noteKey);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            supersede(noteKey, entry, version);
+        }
+    }
+
+    // Messages may have been missed: clean copies are dropped, unsaved edits are left to the flush's version check
+    @Override
+    public void evictAll() {
+        for (Map.Entry<NoteKey, BufferedNote> e : buffer.entrySet()) {
+            BufferedNote entry = e.getValue();
+            synchronized (entry) {
+                if (!entry.dirty && !entry.conflicted && entry.inFlightVersion == null) {
+                    discard(e.getKey(), entry);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing buffered notes before shutdown");
+        flush();
+    }
+
+    private void discard(NoteKey key, BufferedNote entry) {
+        entry.evicted = true;
+        buffer.remove(key, entry);
+    }
+
+    // Caller holds the entry's monitor
+    private void supersede(NoteKey key, BufferedNote entry, int version) {
+        // Loaded after that save, or already conflicted or evicted: nothing to do
+        if (entry.evicted || entry.conflicted || entry.persistedVersion >= version) {
+            return;
+        }
+        if (entry.inFlightVersion != null) {
+            // Settled once the running flush has its result
+            entry.remoteVersion = entry.remoteVersion == null ? version : Math.max(entry.remoteVersion, version);
+            return;
+        }
+        if (entry.dirty) {
+            // Its flush could only match no row now; hold the edits for their writer as the flush would
+            log.warn("Buffered note for section {} in group {} was saved on another server, holding it for its writer",
+                    entry.sectionId, entry.groupId);
+            entry.conflicted = true;
+            entry.dirty = false;
+            return;
+        }
+        discard(key, entry);
+    }
+
+    // A save another node reported while this entry's flush was running
+    private void settleRemoteVersion(NoteKey key, BufferedNote entry) {
+        if (entry.remoteVersion != null) {
+            int version = entry.remoteVersion;
+            entry.remoteVersion = null;
+            supersede(key, entry, version);
+        }
+    }
+
+    private static String versionKey(NoteKey key, Integer version) {
+        return key.groupId() + ":" + key.sectionId() + ":" + version;
+    }
+
+    private BufferedNote load(Long sectionId, String groupId) {
+        Note note = noteRepository.findBySectionId(sectionId)
+                .orElseThrow(() -> new RuntimeException("Note not found for section " + sectionId));
+
+        BufferedNote entry = new BufferedNote();
+        entry.noteId = note.getId();
+        entry.sectionId = sectionId;
+        entry.groupId = groupId;
+        entry.content = note.getContent();
+        entry.version = note.getVersion();
+        entry.persistedVersion = note.getVersion();
+        entry.lastEditedAt = note.getUpdatedAt() != null ? note.getUpdatedAt() : Instant.now();
+        entry.lastEditedBy = note.getUpdatedBy();
+        return entry;
+    }
+
+    private NoteDto toDto(BufferedNote entry) {
+        NoteDto dto = new NoteDto();
+        dto.setId(entry.noteId);
+        dto.setSectionId(entry.sectionId);
+        dto.setContent(entry.content);
+        dto.setVersion(entry.version);
+        dto.setLastEditedAt(entry.lastEditedAt);
+        // Resolved on read so renamed editors show up without touching the buffer
+        dto.setLastEditedByName(userSummaryCache.getDisplayName(entry.lastEditedBy));
+        return dto;
+    }
+
+    private record NoteKey(String groupId, Long sectionId) {
+    }
+
+    private record PendingWrite(NoteKey key, BufferedNote entry, Integer version) {
+    }
+
+    private static class BufferedNote {
+        private Long noteId;
+        private Long sectionId;
+        private String groupId;
+        private String content;
+        private Integer version;
+        private Integer persistedVersion;
+        // Version of the batch currently being written, if any
+        private Integer inFlightVersion;
+        // Newest version another node flushed while that batch was being written
+        private Integer remoteVersion;
+        private Instant lastEditedAt;
+        private Long lastEditedBy;
+        private boolean dirty;
+        private boolean evicted;
+        private boolean conflicted;
+    }
+}
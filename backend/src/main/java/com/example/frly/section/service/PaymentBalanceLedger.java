@@ -0,0 +1,211 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.dto.PaymentBalanceMismatchDto;
+import com.example.frly.section.model.PaymentExpense;
+import com.example.frly.section.model.PaymentSettlement;
+import com.example.frly.section.model.PaymentShare;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Incrementally maintained per-(section, user) balances for PAYMENT sections.
+ * Expense and settlement writes apply their deltas here in the same transaction; rebuild and
+ * the consistency check recompute the ledger from expenses, shares and settlements in SQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentBalanceLedger {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO config.payment_balances (group_id, section_id, user_id, balance, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (group_id, section_id, user_id) DO UPDATE SET " +
+            "balance = payment_balances.balance + EXCLUDED.balance, updated_at = EXCLUDED.updated_at, updated_by = EXCLUDED.updated_by";
+
+    // Writers share the per-section lock, a rebuild takes it exclusively so it never interleaves with a delta;
+    // the spend rollups use the same lock
+    static final String SHARED_LOCK_SQL = "SELECT pg_advisory_xact_lock_shared(?)";
+    static final String EXCLUSIVE_LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    // Mirrors the Java side: each share is converted at the rate stored on its expense and rounded on its own,
+    // and the payer is credited with the sum of the converted shares, so every expense nets to exactly zero
+    private static final String EXPECTED_SQL =
+            "SELECT d.group_id, d.section_id, d.user_id, SUM(d.delta) AS balance FROM (" +
+            "SELECT x.group_id, x.section_id, x.payer_id AS user_id, x.amount AS delta FROM share_rows x " +
+            "UNION ALL SELECT x.group_id, x.section_id, x.user_id, -x.amount FROM share_rows x " +
+            "UNION ALL SELECT x.group_id, x.section_id, x.from_user_id, x.amount FROM settlement_rows x " +
+            "UNION ALL SELECT x.group_id, x.section_id, x.to_user_id, -x.amount FROM settlement_rows x" +
+            ") d GROUP BY d.group_id, d.section_id, d.user_id";
+
+    private static final String CONVERTED_ROWS_SQL =
+            "WITH share_rows AS (" +
+            "SELECT e.group_id, e.section_id, e.paid_by_user_id AS payer_id, s.user_id, " +
+            "ROUND(s.share_amount * e.fx_rate, 2) AS amount " +
+            "FROM config.payment_shares s JOIN config.payment_expenses e ON e.id = s.expense_id " +
+            "WHERE e.status <> 'DELETED' AND s.status <> 'DELETED' %1$s" +
+            "), settlement_rows AS (" +
+            "SELECT e.group_id, e.section_id, e.from_user_id, e.to_user_id, " +
+            "ROUND(e.amount * e.fx_rate, 2) AS amount " +
+            "FROM config.payment_settlements e " +
+            "WHERE e.status <> 'DELETED' %1$s" +
+            ") ";
+
+    private static final String SECTION_FILTER = "AND e.group_id = ? AND e.section_id = ?";
+
+    private static final String MISMATCH_SQL =
+            "SELECT COALESCE(x.group_id, b.group_id) AS group_id, COALESCE(x.section_id, b.section_id) AS section_id, " +
+            "COALESCE(x.user_id, b.user_id) AS user_id, COALESCE(x.balance, 0) AS expected, COALESCE(b.balance, 0) AS actual " +
+            "FROM (" + CONVERTED_ROWS_SQL + EXPECTED_SQL + ") x " +
+            "FULL OUTER JOIN (SELECT * FROM config.payment_balances b %2$s) b " +
+            "ON b.group_id = x.group_id AND b.section_id = x.section_id AND b.user_id = x.user_id " +
+            "WHERE COALESCE(x.balance, 0) <> COALESCE(b.balance, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // When enabled the nightly check rebuilds any section it finds out of sync instead of only logging it
+    @Value("${frly.payments.balance-check.repair:false}")
+    private boolean repairOnMismatch = false;
+
+    public void applyExpense(PaymentExpense expense, Collection<PaymentShare> shares, Long userId) {
+        apply(expense.getGroupId(), expense.getSection().getId(), expenseContributions(expense, sharesByUser(shares)), userId);
+    }
+
+    public void reverseExpense(PaymentExpense expense, Collection<PaymentShare> shares, Long userId) {
+        Map<Long, BigDecimal> deltas = expenseContributions(expense, sharesByUser(shares));
+        deltas.replaceAll((balanceUserId, amount) -> amount.negate());
+        apply(expense.getGroupId(), expense.getSection().getId(), deltas, userId);
+    }
+
+    // What an expense adds to each user's base-currency balance, converted at the rate stored on the expense
+    public Map<Long, BigDecimal> expenseContributions(PaymentExpense expense, Map<Long, BigDecimal> sharesByUser) {
+        return expenseContributions(expense.getPaidBy().getId(), expense.getFxRate(), sharesByUser);
+    }
+
+    public Map<Long, BigDecimal> expenseContributions(Long payerId, BigDecimal fxRate, Map<Long, BigDecimal> sharesByUser) {
+        Map<Long, BigDecimal> contributions = new TreeMap<>();
+        BigDecimal payerCredit = BigDecimal.ZERO;
+        for (Map.Entry<Long, BigDecimal> share : sharesByUser.entrySet()) {
+            BigDecimal converted = FxRateService.toBase(share.getValue(), fxRate);
+            contributions.merge(share.getKey(), converted.negate(), BigDecimal::add);
+            payerCredit = payerCredit.add(converted);
+        }
+        contributions.merge(payerId, payerCredit, BigDecimal::add);
+        return contributions;
+    }
+
+    // Paying someone back raises the payer's balance and lowers the recipient's by the same amount
+    public void applySettlement(PaymentSettlement settlement, Long userId) {
+        apply(settlement.getGroupId(), settlement.getSection().getId(), settlementDeltas(settlement, BigDecimal.ONE), userId);
+    }
+
+    public void reverseSettlement(PaymentSettlement settlement, Long userId) {
+        apply(settlement.getGroupId(), settlement.getSection().getId(), settlementDeltas(settlement, BigDecimal.ONE.negate()), userId);
+    }
+
+    // Replays a net change per user; TreeMap order keeps row locks in a stable order across writers
+    public void apply(String groupId, Long sectionId, Map<Long, BigDecimal> deltas, Long userId) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        Timestamp now = Timestamp.from(Instant.now());
+        new TreeMap<>(deltas).forEach((balanceUserId, delta) -> {
+            if (delta.signum() != 0) {
+                rows.add(new Object[]{groupId, sectionId, balanceUserId, delta, now, now, userId, userId});
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForList(SHARED_LOCK_SQL, sectionId);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    @Transactional
+    public void rebuild(String groupId, Long sectionId) {
+        jdbcTemplate.queryForList(EXCLUSIVE_LOCK_SQL, sectionId);
+        jdbcTemplate.update("DELETE FROM config.payment_balances WHERE group_id = ? AND section_id = ?", groupId, sectionId);
+        int rows = jdbcTemplate.update(
+                "INSERT INTO config.payment_balances (group_id, section_id, user_id, balance) "
+                        + (CONVERTED_ROWS_SQL + EXPECTED_SQL).formatted(SECTION_FILTER),
+                groupId, sectionId, groupId, sectionId);
+        log.info("Rebuilt {} payment balance row(s) for section {} in group {}", rows, sectionId, groupId);
+    }
+
+    // No ledger lock: the comparison is a single statement, so it reads one snapshot, and every writer commits its
+    // rows together with their ledger deltas (a rebuild its delete and re-insert). Concurrent writes are never
+    // blocked and never show up as a false mismatch; the same holds for checkAll
+    @Transactional(readOnly = true)
+    public List<PaymentBalanceMismatchDto> findMismatches(String groupId, Long sectionId) {
+        String sql = MISMATCH_SQL.formatted(SECTION_FILTER, "WHERE b.group_id = ? AND b.section_id = ?");
+        return jdbcTemplate.query(sql, this::mapMismatch, groupId, sectionId, groupId, sectionId, groupId, sectionId);
+    }
+
+    // Nightly sweep over every group and section; runs outside any request, hence plain SQL
+    @Scheduled(cron = "${frly.payments.balance-check.cron:0 30 3 * * *}")
+    public void checkAll() {
+        List<PaymentBalanceMismatchDto> mismatches = transactionTemplate.execute(status ->
+                jdbcTemplate.query(MISMATCH_SQL.formatted("", ""), this::mapMismatch));
+        if (mismatches == null || mismatches.isEmpty()) {
+            log.info("Payment balance ledger is consistent");
+            return;
+        }
+
+        Set<List<Object>> sections = new LinkedHashSet<>();
+        for (PaymentBalanceMismatchDto mismatch : mismatches) {
+            log.warn("Payment balance mismatch: group {}, section {}, user {}: expected {}, ledger {}",
+                    mismatch.getGroupId(), mismatch.getSectionId(), mismatch.getUserId(), mismatch.getExpected(), mismatch.getActual());
+            sections.add(List.of(mismatch.getGroupId(), mismatch.getSectionId()));
+        }
+
+        if (repairOnMismatch) {
+            for (List<Object> section : sections) {
+                transactionTemplate.executeWithoutResult(status -> rebuild((String) section.get(0), (Long) section.get(1)));
+            }
+        }
+    }
+
+    // SQL rounds per share row; shares are unique per user within an expense, so per-user sums round the same way
+    private Map<Long, BigDecimal> sharesByUser(Collection<PaymentShare> shares) {
+        Map<Long, BigDecimal> byUser = new TreeMap<>();
+        for (PaymentShare share : shares) {
+            byUser.merge(share.getUser().getId(), share.getShareAmount(), BigDecimal::add);
+        }
+        return byUser;
+    }
+
+    private Map<Long, BigDecimal> settlementDeltas(PaymentSettlement settlement, BigDecimal sign) {
+        BigDecimal amount = FxRateService.toBase(settlement.getAmount(), settlement.getFxRate()).multiply(sign);
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        deltas.merge(settlement.getFromUser().getId(), amount, BigDecimal::add);
+        deltas.merge(settlement.getToUser().getId(), amount.negate(), BigDecimal::add);
+        return deltas;
+    }
+
+    private PaymentBalanceMismatchDto mapMismatch(ResultSet rs, int rowNum) throws SQLException {
+        return new PaymentBalanceMismatchDto(
+                rs.getString("group_id"),
+                rs.getLong("section_id"),
+                rs.getLong("user_id"),
+                rs.getBigDecimal("expected"),
+                rs.getBigDecimal("actual"));
+    }
+}
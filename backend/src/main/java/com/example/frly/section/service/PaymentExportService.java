@@ -0,0 +1,273 @@
+package com.example.frly.section.service;
+
+import com.example.frly.auth.AuthUtil;
+import com.example.frly.common.exception.BadRequestException;
+import com.example.frly.group.GroupContext;
+import com.example.frly.group.service.GroupService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * CSV / NDJSON export of a PAYMENT section's expenses and balances.
+ * Rows come from a JDBC cursor and are written straight to the response writer, so memory stays
+ * flat no matter how long the history is; only the shares of the current expense are held at a time.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    // One row per share, ordered so the shares of an expense arrive together; served by the listing indexes
+    private static final String EXPENSES_SQL =
+            "SELECT e.id, e.expense_date, e.description, e.category, e.currency, e.total_amount, " +
+            "p.id AS payer_id, p.first_name AS payer_first_name, p.last_name AS payer_last_name, " +
+            "u.id AS share_user_id, u.first_name AS share_first_name, u.last_name AS share_last_name, s.share_amount " +
+            "FROM config.payment_expenses e " +
+            "JOIN config.users p ON p.id = e.paid_by_user_id " +
+            "LEFT JOIN config.payment_shares s ON s.expense_id = e.id AND s.status <> 'DELETED' " +
+            "LEFT JOIN config.users u ON u.id = s.user_id " +
+            "WHERE e.group_id = ? AND e.section_id = ? AND e.status <> 'DELETED' " +
+            "ORDER BY e.expense_date, e.id, s.id";
+
+    private static final String BALANCES_SQL =
+            "SELECT u.id, u.first_name, u.last_name, b.balance " +
+            "FROM config.payment_balances b JOIN config.users u ON u.id = b.user_id " +
+            "WHERE b.group_id = ? AND b.section_id = ? ORDER BY u.id";
+
+    private static final String EXPENSES_CSV_HEADER =
+            "expense_id,expense_date,description,category,currency,total_amount,paid_by_user_id,paid_by_name,share_user_id,share_user_name,share_amount";
+
+    private static final String BALANCES_CSV_HEADER = "user_id,name,balance,currency";
+
+    public enum Format { CSV, NDJSON }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GroupService groupService;
+    private final FxRateService fxRateService;
+    private final ObjectMapper objectMapper;
+
+    public Format parseFormat(String format) {
+        try {
+            return format == null ? Format.CSV : Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("format must be csv or ndjson");
+        }
+    }
+
+    // CSV has one line per share; NDJSON has one object per expense with its shares nested
+    @Transactional(readOnly = true)
+    public void writeExpenses(Long sectionId, Format format, Writer out) throws IOException {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        if (format == Format.CSV) {
+            out.write(EXPENSES_CSV_HEADER);
+            out.write("\r\n");
+            stream(EXPENSES_SQL, sectionId, rs -> writeExpenseCsvRow(out, rs));
+        } else {
+            NdjsonExpenseWriter writer = new NdjsonExpenseWriter(out);
+            stream(EXPENSES_SQL, sectionId, writer::accept);
+            writer.finish();
+        }
+        out.flush();
+    }
+
+    // Balances are exported in the base currency, the unit the ledger is kept in
+    @Transactional(readOnly = true)
+    public void writeBalances(Long sectionId, Format format, Writer out) throws IOException {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        String currency = fxRateService.getBaseCurrency();
+
+        if (format == Format.CSV) {
+            out.write(BALANCES_CSV_HEADER);
+            out.write("\r\n");
+        }
+        JsonGenerator json = format == Format.NDJSON ? newGenerator(out) : null;
+        stream(BALANCES_SQL, sectionId, rs -> {
+            String name = fullName(rs.getString(2), rs.getString(3));
+            if (json == null) {
+                writeCsvLine(out, String.valueOf(rs.getLong(1)), name, rs.getBigDecimal(4).toPlainString(), currency);
+                return;
+            }
+            json.writeStartObject();
+            json.writeNumberField("userId", rs.getLong(1));
+            json.writeStringField("name", name);
+            json.writeNumberField("balance", rs.getBigDecimal(4));
+            json.writeStringField("currency", currency);
+            json.writeEndObject();
+            endJsonLine(json, out);
+        });
+        out.flush();
+    }
+
+    private void writeExpenseCsvRow(Writer out, ResultSet rs) throws SQLException, IOException {
+        long shareUserId = rs.getLong("share_user_id");
+        boolean hasShare = !rs.wasNull();
+        writeCsvLine(out,
+                String.valueOf(rs.getLong("id")),
+                formatDate(rs.getObject("expense_date", OffsetDateTime.class)),
+                rs.getString("description"),
+                rs.getString("category"),
+                rs.getString("currency"),
+                rs.getBigDecimal("total_amount").toPlainString(),
+                String.valueOf(rs.getLong("payer_id")),
+                fullName(rs.getString("payer_first_name"), rs.getString("payer_last_name")),
+                hasShare ? String.valueOf(shareUserId) : null,
+                hasShare ? fullName(rs.getString("share_first_name"), rs.getString("share_last_name")) : null,
+                hasShare ? rs.getBigDecimal("share_amount").toPlainString() : null);
+    }
+
+    // Groups consecutive share rows of the same expense into one JSON line
+    private final class NdjsonExpenseWriter {
+        private final Writer out;
+        private final JsonGenerator json;
+        private long currentExpenseId = -1;
+
+        NdjsonExpenseWriter(Writer out) throws IOException {
+            this.out = out;
+            this.json = newGenerator(out);
+        }
+
+        void accept(ResultSet rs) throws SQLException, IOException {
+            long expenseId = rs.getLong("id");
+            if (expenseId != currentExpenseId) {
+                finish();
+                currentExpenseId = expenseId;
+                json.writeStartObject();
+                json.writeNumberField("id", expenseId);
+                json.writeStringField("expenseDate", formatDate(rs.getObject("expense_date", OffsetDateTime.class)));
+                json.writeStringField("description", rs.getString("description"));
+                json.writeStringField("category", rs.getString("category"));
+                json.writeStringField("currency", rs.getString("currency"));
+                json.writeNumberField("totalAmount", rs.getBigDecimal("total_amount"));
+                json.writeNumberField("paidByUserId", rs.getLong("payer_id"));
+                json.writeStringField("paidByName", fullName(rs.getString("payer_first_name"), rs.getString("payer_last_name")));
+                json.writeArrayFieldStart("shares");
+            }
+            long shareUserId = rs.getLong("share_user_id");
+            if (!rs.wasNull()) {
+                json.writeStartObject();
+                json.writeNumberField("userId", shareUserId);
+                json.writeStringField("name", fullName(rs.getString("share_first_name"), rs.getString("share_last_name")));
+                json.writeNumberField("amount", rs.getBigDecimal("share_amount"));
+                json.writeEndObject();
+            }
+        }
+
+        void finish() throws IOException {
+            if (currentExpenseId < 0) {
+                return;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            endJsonLine(json, out);
+            currentExpenseId = -1;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    // Read-only transaction so the Postgres driver honours the fetch size and uses a cursor
+    private void stream(String sql, Long sectionId, RowWriter rowWriter) throws IOException {
+        String groupId = GroupContext.getGroupId();
+        RowCallbackHandler handler = rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setString(1, groupId);
+                ps.setLong(2, sectionId);
+                return ps;
+            }, handler);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private JsonGenerator newGenerator(Writer out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return json;
+    }
+
+    private static void endJsonLine(JsonGenerator json, Writer out) throws IOException {
+        json.flush();
+        out.write('\n');
+    }
+
+    private static void writeCsvLine(Writer out, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeCsvValue(out, values[i]);
+        }
+        out.write("\r\n");
+    }
+
+    // RFC 4180 quoting; text starting with a formula character is prefixed so spreadsheets do not evaluate it
+    private static void writeCsvValue(Writer out, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '@' || (first == '-' && !isNumber(value));
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        if (formula) {
+            out.write('\'');
+        }
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            new BigDecimal(value);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static String formatDate(OffsetDateTime date) {
+        return date == null ? null : date.withOffsetSameInstant(ZoneOffset.UTC).toString();
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        if (lastName == null || lastName.isBlank()) {
+            return firstName;
+        }
+        return firstName + " " + lastName;
+    }
+}
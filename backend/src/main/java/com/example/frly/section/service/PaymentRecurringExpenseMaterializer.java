@@ -0,0 +1,319 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.model.RecurrenceFrequency;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Posts due occurrences of recurring expense templates as regular expenses.
+ * One indexed query claims due templates across all groups (FOR UPDATE SKIP LOCKED, so several instances can
+ * run the job), occurrences and their shares are written with JDBC batches, and the templates are advanced in
+ * the same transaction. Together with the unique (recurring_expense_id, expense_date) index this makes the job
+ * idempotent: a crash rolls back both the expenses and the advance, and an occurrence is never posted twice.
+ * <p>
+ * One bad template must not stop posting for everyone, because it would stay the earliest due and be claimed
+ * again on every pass. A template whose occurrences cannot be priced, or whose rows the database rejects, is
+ * parked instead: its next_due_at is cleared and the error logged, and the rest of the batch goes ahead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentRecurringExpenseMaterializer {
+
+    // Deleting a section clears its templates' next_due_at; the join also skips any left from before that
+    private static final String DUE_SQL =
+            "SELECT r.id, r.group_id, r.section_id, r.paid_by_user_id, r.description, r.category, r.total_amount, r.currency, " +
+            "r.frequency, r.interval_count, r.starts_at, r.ends_at, r.occurrences_posted, r.created_by " +
+            "FROM config.payment_recurring_expenses r JOIN config.sections s ON s.id = r.section_id " +
+            "WHERE r.status = 'ACTIVE' AND r.next_due_at IS NOT NULL AND r.next_due_at <= ? AND s.status <> 'DELETED' " +
+            "ORDER BY r.next_due_at LIMIT ? FOR UPDATE OF r SKIP LOCKED";
+
+    private static final String SHARES_SQL =
+            "SELECT recurring_expense_id, user_id, share_amount FROM config.payment_recurring_shares " +
+            "WHERE recurring_expense_id = ANY(?) ORDER BY recurring_expense_id, user_id";
+
+    // Occurrences already on the books, e.g. after next_due_at was moved back by hand
+    private static final String POSTED_SQL =
+            "SELECT recurring_expense_id, expense_date FROM config.payment_expenses " +
+            "WHERE recurring_expense_id = ANY(?) AND expense_date >= ?";
+
+    private static final String ALLOCATE_EXPENSE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('config.payment_expenses', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_EXPENSE_SQL =
+            "INSERT INTO config.payment_expenses (id, group_id, section_id, paid_by_user_id, description, category, " +
+            "total_amount, currency, fx_rate, expense_date, recurring_expense_id, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SHARE_SQL =
+            "INSERT INTO config.payment_shares (group_id, expense_id, user_id, share_amount, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ADVANCE_SQL =
+            "UPDATE config.payment_recurring_expenses SET occurrences_posted = ?, next_due_at = ?, updated_at = ? WHERE id = ?";
+
+    // Taken out of the due index until someone fixes the template and sets next_due_at again
+    private static final String PARK_SQL =
+            "UPDATE config.payment_recurring_expenses SET next_due_at = NULL, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentBalanceLedger paymentBalanceLedger;
+    private final PaymentSpendRollups paymentSpendRollups;
+    private final FxRateService fxRateService;
+
+    // Templates claimed per transaction
+    @Value("${frly.payments.recurring.batch-size:200}")
+    private int batchSize = 200;
+
+    // Occurrences posted per template per pass; a template that is further behind continues in the next batch
+    @Value("${frly.payments.recurring.max-catch-up:36}")
+    private int maxCatchUp = 36;
+
+    private record Template(long id, String groupId, long sectionId, long payerId, String description, String category,
+                            BigDecimal totalAmount, String currency, RecurrenceFrequency frequency, int interval,
+                            OffsetDateTime startsAt, OffsetDateTime endsAt, int occurrencesPosted, Long createdBy) {
+    }
+
+    private record Occurrence(Template template, OffsetDateTime dueAt, BigDecimal fxRate) {
+    }
+
+    // Everything one template contributes to a batch: the occurrences to post and its advance row
+    private record Plan(Template template, List<Occurrence> occurrences, Object[] advance) {
+    }
+
+    private record SectionKey(String groupId, long sectionId) {
+    }
+
+    // Occurrence n is computed from the start, so month ends do not drift (Jan 31, Feb 28, Mar 31, ...)
+    static OffsetDateTime occurrenceAt(OffsetDateTime startsAt, RecurrenceFrequency frequency, int interval, int n) {
+        long steps = (long) interval * n;
+        return switch (frequency) {
+            case DAILY -> startsAt.plusDays(steps);
+            case WEEKLY -> startsAt.plusWeeks(steps);
+            case MONTHLY -> startsAt.plusMonths(steps);
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${frly.payments.recurring.poll-interval-ms:60000}")
+    public void materializeDue() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int posted = 0;
+        while (true) {
+            int[] result = transactionTemplate.execute(status -> materializeBatch(status, now));
+            posted += result[1];
+            if (result[0] < batchSize) {
+                break;
+            }
+        }
+        if (posted > 0) {
+            log.info("Posted {} recurring expense occurrence(s)", posted);
+        }
+    }
+
+    // Returns {templates claimed, expenses posted}
+    private int[] materializeBatch(TransactionStatus status, OffsetDateTime now) {
+        List<Template> templates = jdbcTemplate.query(DUE_SQL, this::mapTemplate, Timestamp.from(now.toInstant()), batchSize);
+        if (templates.isEmpty()) {
+            return new int[]{0, 0};
+        }
+
+        Long[] ids = new Long[templates.size()];
+        OffsetDateTime earliest = templates.get(0).startsAt();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = templates.get(i).id();
+            if (templates.get(i).startsAt().isBefore(earliest)) {
+                earliest = templates.get(i).startsAt();
+            }
+        }
+
+        Map<Long, Map<Long, BigDecimal>> sharesByTemplate = new HashMap<>();
+        jdbcTemplate.query(SHARES_SQL, ps -> ps.setArray(1, bigintArray(ps.getConnection(), ids)), rs -> {
+            sharesByTemplate.computeIfAbsent(rs.getLong(1), id -> new TreeMap<>()).put(rs.getLong(2), rs.getBigDecimal(3));
+        });
+
+        Set<String> alreadyPosted = new HashSet<>();
+        Timestamp postedFrom = Timestamp.from(earliest.toInstant());
+        jdbcTemplate.query(POSTED_SQL, ps -> {
+            ps.setArray(1, bigintArray(ps.getConnection(), ids));
+            ps.setTimestamp(2, postedFrom);
+        }, rs -> {
+            alreadyPosted.add(occurrenceKey(rs.getLong(1), rs.getTimestamp(2).toInstant()));
+        });
+
+        // Walk each template forward to now, capped per pass; the template row is advanced even for skipped occurrences
+        List<Plan> plans = new ArrayList<>(templates.size());
+        Timestamp updatedAt = Timestamp.from(now.toInstant());
+        for (Template template : templates) {
+            if (!sharesByTemplate.containsKey(template.id())) {
+                // Cannot be posted; end the series so it is not claimed again on every pass
+                log.warn("Recurring expense {} has no shares; stopping it", template.id());
+                plans.add(new Plan(template, List.of(), new Object[]{template.occurrencesPosted(), null, updatedAt, template.id()}));
+                continue;
+            }
+            try {
+                plans.add(plan(template, alreadyPosted, now, updatedAt));
+            } catch (RuntimeException ex) {
+                // e.g. no FX rate on or before a backdated due date
+                park(template, updatedAt, ex);
+            }
+        }
+
+        // All templates in one set of batches; if the database rejects it, retry one template at a time
+        int posted;
+        Object savepoint = status.createSavepoint();
+        try {
+            posted = write(plans, sharesByTemplate, updatedAt);
+            status.releaseSavepoint(savepoint);
+        } catch (DataAccessException ex) {
+            status.rollbackToSavepoint(savepoint);
+            log.warn("Recurring expense batch failed, posting its {} template(s) one by one: {}", plans.size(), ex.getMessage());
+            posted = 0;
+            for (Plan plan : plans) {
+                Object single = status.createSavepoint();
+                try {
+                    posted += write(List.of(plan), sharesByTemplate, updatedAt);
+                    status.releaseSavepoint(single);
+                } catch (DataAccessException singleEx) {
+                    status.rollbackToSavepoint(single);
+                    park(plan.template(), updatedAt, singleEx);
+                }
+            }
+        }
+        return new int[]{templates.size(), posted};
+    }
+
+    private Plan plan(Template template, Set<String> alreadyPosted, OffsetDateTime now, Timestamp updatedAt) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        int n = template.occurrencesPosted();
+        OffsetDateTime due = occurrenceAt(template.startsAt(), template.frequency(), template.interval(), n);
+        for (int step = 0; step < maxCatchUp && !due.isAfter(now) && !isPastEnd(template, due); step++) {
+            if (!alreadyPosted.contains(occurrenceKey(template.id(), due.toInstant()))) {
+                // Each occurrence is priced at the rate of its own due date
+                occurrences.add(new Occurrence(template, due, fxRateService.rateFor(template.currency(), due)));
+            }
+            n++;
+            due = occurrenceAt(template.startsAt(), template.frequency(), template.interval(), n);
+        }
+        Timestamp nextDue = isPastEnd(template, due) ? null : Timestamp.from(due.toInstant());
+        return new Plan(template, occurrences, new Object[]{n, nextDue, updatedAt, template.id()});
+    }
+
+    private void park(Template template, Timestamp updatedAt, RuntimeException cause) {
+        log.error("Recurring expense {} in group {} could not be posted and was parked; set next_due_at to resume it",
+                template.id(), template.groupId(), cause);
+        jdbcTemplate.update(PARK_SQL, updatedAt, template.id());
+    }
+
+    // Returns the number of expenses posted
+    private int write(List<Plan> plans, Map<Long, Map<Long, BigDecimal>> sharesByTemplate, Timestamp now) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        List<Object[]> advances = new ArrayList<>(plans.size());
+        for (Plan plan : plans) {
+            occurrences.addAll(plan.occurrences());
+            advances.add(plan.advance());
+        }
+        insertOccurrences(occurrences, sharesByTemplate, now);
+        jdbcTemplate.batchUpdate(ADVANCE_SQL, advances);
+        return occurrences.size();
+    }
+
+    private void insertOccurrences(List<Occurrence> occurrences, Map<Long, Map<Long, BigDecimal>> sharesByTemplate, Timestamp now) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+        List<Long> expenseIds = jdbcTemplate.queryForList(ALLOCATE_EXPENSE_IDS_SQL, Long.class, occurrences.size());
+
+        List<Object[]> expenseRows = new ArrayList<>(occurrences.size());
+        List<Object[]> shareRows = new ArrayList<>();
+        Comparator<SectionKey> sectionOrder = Comparator.comparing(SectionKey::groupId).thenComparingLong(SectionKey::sectionId);
+        Map<SectionKey, Map<Long, BigDecimal>> balanceDeltas = new TreeMap<>(sectionOrder);
+        Map<SectionKey, Map<PaymentSpendRollups.Key, BigDecimal>> spendDeltas = new TreeMap<>(sectionOrder);
+
+        for (int i = 0; i < occurrences.size(); i++) {
+            Occurrence occurrence = occurrences.get(i);
+            Template t = occurrence.template();
+            Long expenseId = expenseIds.get(i);
+            Map<Long, BigDecimal> shares = sharesByTemplate.get(t.id());
+            BigDecimal fxRate = occurrence.fxRate();
+
+            expenseRows.add(new Object[]{expenseId, t.groupId(), t.sectionId(), t.payerId(), t.description(), t.category(),
+                    t.totalAmount(), t.currency(), fxRate, Timestamp.from(occurrence.dueAt().toInstant()), t.id(),
+                    now, now, t.createdBy(), t.createdBy()});
+            shares.forEach((userId, amount) ->
+                    shareRows.add(new Object[]{t.groupId(), expenseId, userId, amount, now, now, t.createdBy(), t.createdBy()}));
+
+            SectionKey section = new SectionKey(t.groupId(), t.sectionId());
+            paymentBalanceLedger.expenseContributions(t.payerId(), fxRate, shares)
+                    .forEach((userId, delta) -> balanceDeltas.computeIfAbsent(section, k -> new HashMap<>())
+                            .merge(userId, delta, BigDecimal::add));
+            paymentSpendRollups.contributions(occurrence.dueAt(), t.category(), fxRate, shares)
+                    .forEach((key, delta) -> spendDeltas.computeIfAbsent(section, k -> new HashMap<>())
+                            .merge(key, delta, BigDecimal::add));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_EXPENSE_SQL, expenseRows);
+        jdbcTemplate.batchUpdate(INSERT_SHARE_SQL, shareRows);
+
+        // One ledger and one rollup write per section for the whole batch; posted by the system, hence no user
+        balanceDeltas.forEach((section, deltas) ->
+                paymentBalanceLedger.apply(section.groupId(), section.sectionId(), deltas, null));
+        spendDeltas.forEach((section, deltas) ->
+                paymentSpendRollups.apply(section.groupId(), section.sectionId(), deltas, null));
+    }
+
+    private static boolean isPastEnd(Template template, OffsetDateTime due) {
+        return template.endsAt() != null && due.isAfter(template.endsAt());
+    }
+
+    private static String occurrenceKey(long templateId, Instant dueAt) {
+        return templateId + "|" + dueAt;
+    }
+
+    private static Array bigintArray(Connection connection, Long[] ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids);
+    }
+
+    private Template mapTemplate(ResultSet rs, int rowNum) throws SQLException {
+        return new Template(
+                rs.getLong("id"),
+                rs.getString("group_id"),
+                rs.getLong("section_id"),
+                rs.getLong("paid_by_user_id"),
+                rs.getString("description"),
+                rs.getString("category"),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("currency"),
+                RecurrenceFrequency.valueOf(rs.getString("frequency")),
+                rs.getInt("interval_count"),
+                rs.getObject("starts_at", OffsetDateTime.class),
+                rs.getObject("ends_at", OffsetDateTime.class),
+                rs.getInt("occurrences_posted"),
+                rs.getObject("created_by", Long.class));
+    }
+}
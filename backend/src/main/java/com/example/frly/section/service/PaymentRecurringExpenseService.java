@@ -0,0 +1,176 @@
+package com.example.frly.section.service;
+
+import com.example.frly.auth.AuthUtil;
+import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.common.exception.BadRequestException;
+import com.example.frly.group.GroupContext;
+import com.example.frly.group.service.GroupService;
+import com.example.frly.section.dto.CreatePaymentExpenseRequestDto;
+import com.example.frly.section.dto.CreateRecurringExpenseRequestDto;
+import com.example.frly.section.dto.PaymentRecurringExpenseDto;
+import com.example.frly.section.dto.PaymentShareDto;
+import com.example.frly.section.model.PaymentRecurringExpense;
+import com.example.frly.section.model.PaymentRecurringShare;
+import com.example.frly.section.model.RecurrenceFrequency;
+import com.example.frly.section.model.Section;
+import com.example.frly.section.model.SectionType;
+import com.example.frly.section.repository.PaymentRecurringExpenseRepository;
+import com.example.frly.section.repository.PaymentRecurringShareRepository;
+import com.example.frly.section.repository.SectionRepository;
+import com.example.frly.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recurring expense templates of a PAYMENT section. Occurrences are posted by PaymentRecurringExpenseMaterializer;
+ * deleting a template stops future occurrences and leaves the posted expenses alone.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentRecurringExpenseService {
+
+    private static final int MAX_INTERVAL = 366;
+
+    private final GroupService groupService;
+    private final SectionRepository sectionRepository;
+    private final UserRepository userRepository;
+    private final PaymentRecurringExpenseRepository paymentRecurringExpenseRepository;
+    private final PaymentRecurringShareRepository paymentRecurringShareRepository;
+    private final PaymentService paymentService;
+    private final FxRateService fxRateService;
+
+    @Transactional
+    public Long addRecurringExpense(Long sectionId, CreateRecurringExpenseRequestDto request) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        Section section = sectionRepository.getReferenceById(sectionId);
+        if (section.getType() != SectionType.PAYMENT) {
+            throw new BadRequestException("Cannot add recurring expense to non-PAYMENT section");
+        }
+
+        CreatePaymentExpenseRequestDto expense = request.getExpense();
+        if (expense == null) {
+            throw new BadRequestException("expense is required");
+        }
+        Map<Long, BigDecimal> shares = paymentService.resolveShares(expense);
+        RecurrenceFrequency frequency = parseFrequency(request.getFrequency());
+        int interval = request.getInterval() != null ? request.getInterval() : 1;
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new BadRequestException("interval must be between 1 and " + MAX_INTERVAL);
+        }
+        OffsetDateTime startsAt = expense.getExpenseDate() != null ? expense.getExpenseDate() : OffsetDateTime.now();
+        if (request.getEndsAt() != null && request.getEndsAt().isBefore(startsAt)) {
+            throw new BadRequestException("endsAt must not be before the first occurrence");
+        }
+
+        PaymentRecurringExpense template = new PaymentRecurringExpense();
+        template.setSection(section);
+        template.setPaidBy(userRepository.getReferenceById(expense.getPaidByUserId()));
+        template.setDescription(expense.getDescription());
+        template.setCategory(paymentService.normalizeCategory(expense.getCategory()));
+        template.setTotalAmount(expense.getTotalAmount());
+        template.setCurrency(fxRateService.normalizeCurrency(expense.getCurrency()));
+        template.setFrequency(frequency);
+        template.setIntervalCount(interval);
+        template.setStartsAt(startsAt);
+        template.setEndsAt(request.getEndsAt());
+        template.setNextDueAt(startsAt);
+        template = paymentRecurringExpenseRepository.save(template);
+
+        List<PaymentRecurringShare> rows = new ArrayList<>(shares.size());
+        for (Map.Entry<Long, BigDecimal> share : shares.entrySet()) {
+            PaymentRecurringShare row = new PaymentRecurringShare();
+            row.setRecurringExpense(template);
+            row.setUser(userRepository.getReferenceById(share.getKey()));
+            row.setShareAmount(share.getValue());
+            rows.add(row);
+        }
+        paymentRecurringShareRepository.saveAll(rows);
+
+        return template.getId();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentRecurringExpenseDto> getRecurringExpenses(Long sectionId) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        List<PaymentRecurringExpense> templates = paymentRecurringExpenseRepository.findBySectionId(sectionId, RecordStatus.DELETED);
+        if (templates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, PaymentRecurringExpenseDto> byId = new HashMap<>();
+        List<PaymentRecurringExpenseDto> result = new ArrayList<>(templates.size());
+        for (PaymentRecurringExpense template : templates) {
+            PaymentRecurringExpenseDto dto = new PaymentRecurringExpenseDto();
+            dto.setId(template.getId());
+            dto.setSectionId(sectionId);
+            dto.setPaidByUserId(template.getPaidBy().getId());
+            dto.setPaidByFirstName(template.getPaidBy().getFirstName());
+            dto.setPaidByLastName(template.getPaidBy().getLastName());
+            dto.setDescription(template.getDescription());
+            dto.setCategory(template.getCategory());
+            dto.setTotalAmount(template.getTotalAmount());
+            dto.setCurrency(template.getCurrency());
+            dto.setFrequency(template.getFrequency().name());
+            dto.setInterval(template.getIntervalCount());
+            dto.setStartsAt(template.getStartsAt());
+            dto.setEndsAt(template.getEndsAt());
+            dto.setOccurrencesPosted(template.getOccurrencesPosted());
+            dto.setNextDueAt(template.getNextDueAt());
+            dto.setShares(new ArrayList<>());
+            byId.put(template.getId(), dto);
+            result.add(dto);
+        }
+
+        // All share layouts in one query
+        for (PaymentRecurringShare share : paymentRecurringShareRepository.findByRecurringExpenseIdIn(byId.keySet())) {
+            PaymentShareDto dto = new PaymentShareDto();
+            dto.setUserId(share.getUser().getId());
+            dto.setFirstName(share.getUser().getFirstName());
+            dto.setLastName(share.getUser().getLastName());
+            dto.setShareAmount(share.getShareAmount());
+            byId.get(share.getRecurringExpense().getId()).getShares().add(dto);
+        }
+        return result;
+    }
+
+    @Transactional
+    public void deleteRecurringExpense(Long sectionId, Long recurringExpenseId) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        PaymentRecurringExpense template = paymentRecurringExpenseRepository.findByIdForUpdate(recurringExpenseId)
+                .orElseThrow(() -> new BadRequestException("Recurring expense not found"));
+
+        if (!template.getSection().getId().equals(sectionId)) {
+            throw new BadRequestException("Recurring expense does not belong to this section");
+        }
+        if (template.getStatus() == RecordStatus.DELETED) {
+            return;
+        }
+
+        template.setStatus(RecordStatus.DELETED);
+        template.setNextDueAt(null);
+        paymentRecurringExpenseRepository.save(template);
+    }
+
+    private RecurrenceFrequency parseFrequency(String frequency) {
+        if (frequency == null) {
+            throw new BadRequestException("frequency is required");
+        }
+        try {
+            return RecurrenceFrequency.valueOf(frequency.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("frequency must be DAILY, WEEKLY or MONTHLY");
+        }
+    }
+}
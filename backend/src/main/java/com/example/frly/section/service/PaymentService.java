@@ -6,38 +6,82 @@ import com.example.frly.common.exception.BadRequestException;
 import com.example.frly.group.GroupContext;
 import com.example.frly.group.service.GroupService;
 import com.example.frly.section.dto.CreatePaymentExpenseRequestDto;
+import com.example.frly.section.dto.GroupPaymentBalancesDto;
 import com.example.frly.section.dto.PaymentBalanceDto;
+import com.example.frly.section.dto.PaymentBalanceMismatchDto;
 import com.example.frly.section.dto.PaymentExpenseDto;
+import com.example.frly.section.dto.PaymentExpensePageDto;
 import com.example.frly.section.dto.PaymentShareDto;
+import com.example.frly.section.dto.PaymentSpendSummaryDto;
+import com.example.frly.section.dto.SettleUpDto;
+import com.example.frly.section.dto.SettlementTransferDto;
+import com.example.frly.section.model.PaymentBalance;
 import com.example.frly.section.model.PaymentExpense;
 import com.example.frly.section.model.PaymentShare;
 import com.example.frly.section.model.Section;
 import com.example.frly.section.model.SectionType;
+import com.example.frly.section.repository.PaymentBalanceRepository;
 import com.example.frly.section.repository.PaymentExpenseRepository;
 import com.example.frly.section.repository.PaymentShareRepository;
+import com.example.frly.section.repository.PaymentSpendRollupRepository;
 import com.example.frly.section.repository.SectionRepository;
 import com.example.frly.user.User;
 import com.example.frly.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
+    // Amounts are NUMERIC(19,2); settlement works on whole minor units
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private static final int MAX_WEIGHT_SCALE = 6;
+    private static final int MAX_CATEGORY_LENGTH = 50;
+    private static final int DEFAULT_SUMMARY_MONTHS = 12;
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int SHARE_LOOKUP_CHUNK = 1000;
+    private static final OffsetDateTime MIN_EXPENSE_DATE = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime MAX_EXPENSE_DATE = OffsetDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
     private final GroupService groupService;
     private final SectionRepository sectionRepository;
     private final UserRepository userRepository;
     private final PaymentExpenseRepository paymentExpenseRepository;
     private final PaymentShareRepository paymentShareRepository;
+    private final PaymentBalanceRepository paymentBalanceRepository;
+    private final PaymentBalanceLedger paymentBalanceLedger;
+    private final FxRateService fxRateService;
+    private final PaymentSpendRollupRepository paymentSpendRollupRepository;
+    private final PaymentSpendRollups paymentSpendRollups;
+
+    // Exact settlement is exponential in the number of non-zero balances; above this AUTO falls back to greedy.
+    // Read through exactSettlementLimit(), which caps it at what SettlementCalculator.exact accepts
+    @Value("${frly.payments.settle-up.exact-max-members:12}")
+    private int exactSettlementMaxMembers = 12;
 
     @Transactional
     public Long addExpense(Long sectionId, CreatePaymentExpenseRequestDto request) {
@@ -48,25 +92,7 @@ public class PaymentService {
             throw new BadRequestException("Cannot add payment expense to non-PAYMENT section");
         }
 
-        if (request.getTotalAmount() == null || request.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("totalAmount must be positive");
-        }
-        if (request.getPaidByUserId() == null) {
-            throw new BadRequestException("paidByUserId is required");
-        }
-        if (request.getShares() == null || request.getShares().isEmpty()) {
-            throw new BadRequestException("At least one share is required");
-        }
-
-        // Validate that sum of all shares equals totalAmount
-        java.math.BigDecimal sharesTotal = request.getShares().stream()
-                .map(CreatePaymentExpenseRequestDto.ShareInput::getShareAmount)
-                .filter(java.util.Objects::nonNull)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-
-        if (sharesTotal.compareTo(request.getTotalAmount()) != 0) {
-            throw new BadRequestException("Sum of shares must equal total amount");
-        }
+        validateExpenseRequest(request);
 
         User payer = userRepository.getReferenceById(request.getPaidByUserId());
 
@@ -75,20 +101,16 @@ public class PaymentService {
         expense.setPaidBy(payer);
         expense.setDescription(request.getDescription());
         expense.setTotalAmount(request.getTotalAmount());
-        // For now we only support INR; ignore any other currency in the request
-        expense.setCurrency("INR");
-        expense.setExpenseDate(request.getExpenseDate());
+        expense.setCurrency(fxRateService.normalizeCurrency(request.getCurrency()));
+        expense.setCategory(normalizeCategory(request.getCategory()));
+        expense.setExpenseDate(request.getExpenseDate() != null ? request.getExpenseDate() : OffsetDateTime.now());
+        expense.setFxRate(fxRateService.rateFor(expense.getCurrency(), expense.getExpenseDate()));
 
         expense = paymentExpenseRepository.save(expense);
 
-        for (CreatePaymentExpenseRequestDto.ShareInput shareInput : request.getShares()) {
-            User user = userRepository.getReferenceById(shareInput.getUserId());
-            PaymentShare share = new PaymentShare();
-            share.setExpense(expense);
-            share.setUser(user);
-            share.setShareAmount(shareInput.getShareAmount());
-            paymentShareRepository.save(share);
-        }
+        List<PaymentShare> shares = paymentShareRepository.saveAll(buildShares(expense, request.getShares()));
+        paymentBalanceLedger.applyExpense(expense, shares, AuthUtil.getCurrentUserId());
+        paymentSpendRollups.applyExpense(expense, shares, AuthUtil.getCurrentUserId());
 
         return expense.getId();
     }
@@ -104,44 +126,73 @@ public class PaymentService {
             throw new BadRequestException("Expense does not belong to this section");
         }
 
-        if (request.getTotalAmount() == null || request.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new BadRequestException("totalAmount must be positive");
-        }
-        if (request.getPaidByUserId() == null) {
-            throw new BadRequestException("paidByUserId is required");
-        }
-        if (request.getShares() == null || request.getShares().isEmpty()) {
-            throw new BadRequestException("At least one share is required");
-        }
+        validateExpenseRequest(request);
 
-        BigDecimal sharesTotal = request.getShares().stream()
-                .map(CreatePaymentExpenseRequestDto.ShareInput::getShareAmount)
-                .filter(java.util.Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        User payer = userRepository.getReferenceById(request.getPaidByUserId());
 
-        if (sharesTotal.compareTo(request.getTotalAmount()) != 0) {
-            throw new BadRequestException("Sum of shares must equal total amount");
-        }
+        String currency = fxRateService.normalizeCurrency(request.getCurrency());
 
-        User payer = userRepository.getReferenceById(request.getPaidByUserId());
+        // Requested amount per user; repeated users are merged into one share
+        Map<Long, BigDecimal> requested = mergeShares(request.getShares());
+        Map<Long, BigDecimal> finalShares = new LinkedHashMap<>(requested);
+
+        // Deleted expenses are not in the ledger, so there is nothing to adjust for them
+        boolean active = expense.getStatus() != RecordStatus.DELETED;
+        List<PaymentShare> stored = paymentShareRepository.findByExpenseIdAndStatusNot(expenseId, RecordStatus.DELETED);
+        Map<Long, BigDecimal> storedByUser = sharesByUser(stored);
+        Map<Long, BigDecimal> before = active ? paymentBalanceLedger.expenseContributions(expense, storedByUser) : Map.of();
+        Map<PaymentSpendRollups.Key, BigDecimal> spendBefore = active ? paymentSpendRollups.contributions(expense, storedByUser) : Map.of();
+        String previousCurrency = expense.getCurrency();
+        OffsetDateTime previousDate = expense.getExpenseDate();
 
         expense.setPaidBy(payer);
         expense.setDescription(request.getDescription());
         expense.setTotalAmount(request.getTotalAmount());
-        expense.setCurrency("INR");
-        expense.setExpenseDate(request.getExpenseDate());
+        expense.setCurrency(currency);
+        expense.setCategory(normalizeCategory(request.getCategory()));
+        if (request.getExpenseDate() != null) {
+            expense.setExpenseDate(request.getExpenseDate());
+        }
+        // Re-priced only when what the rate depends on changed; other edits keep the rate the ledger applied
+        if (!currency.equals(previousCurrency) || !expense.getExpenseDate().isEqual(previousDate)) {
+            expense.setFxRate(fxRateService.rateFor(currency, expense.getExpenseDate()));
+        }
 
-        // Replace all existing shares for this expense
-        List<PaymentShare> existing = paymentShareRepository.findByExpenseIdAndStatusNot(expenseId, RecordStatus.DELETED);
-        paymentShareRepository.deleteAll(existing);
+        // Diff against the stored shares: unchanged rows are left alone, changed amounts become
+        // dirty-checked UPDATEs, and only new or dropped users are inserted or deleted (each as one batch)
+        List<PaymentShare> toDelete = new ArrayList<>();
+        for (PaymentShare share : stored) {
+            BigDecimal newAmount = requested.remove(share.getUser().getId());
+            if (newAmount == null) {
+                toDelete.add(share);
+            } else if (newAmount.compareTo(share.getShareAmount()) != 0) {
+                share.setShareAmount(newAmount);
+            }
+        }
 
-        for (CreatePaymentExpenseRequestDto.ShareInput shareInput : request.getShares()) {
-            User user = userRepository.getReferenceById(shareInput.getUserId());
+        List<PaymentShare> toInsert = new ArrayList<>(requested.size());
+        requested.forEach((shareUserId, amount) -> {
             PaymentShare share = new PaymentShare();
             share.setExpense(expense);
-            share.setUser(user);
-            share.setShareAmount(shareInput.getShareAmount());
-            paymentShareRepository.save(share);
+            share.setUser(userRepository.getReferenceById(shareUserId));
+            share.setShareAmount(amount);
+            toInsert.add(share);
+        });
+
+        if (!toDelete.isEmpty()) {
+            paymentShareRepository.deleteAllInBatch(toDelete);
+        }
+        if (!toInsert.isEmpty()) {
+            paymentShareRepository.saveAll(toInsert);
+        }
+
+        // Net change per user in the base currency: the old state at its stored rate, the new one at the current rate
+        if (active) {
+            Map<Long, BigDecimal> deltas = new HashMap<>(paymentBalanceLedger.expenseContributions(expense, finalShares));
+            before.forEach((balanceUserId, amount) -> deltas.merge(balanceUserId, amount.negate(), BigDecimal::add));
+            paymentBalanceLedger.apply(expense.getGroupId(), sectionId, deltas, AuthUtil.getCurrentUserId());
+            paymentSpendRollups.applyChange(expense.getGroupId(), sectionId, spendBefore,
+                    paymentSpendRollups.contributions(expense, finalShares), AuthUtil.getCurrentUserId());
         }
     }
 
@@ -156,92 +207,426 @@ public class PaymentService {
             throw new BadRequestException("Expense does not belong to this section");
         }
 
+        if (expense.getStatus() == RecordStatus.DELETED) {
+            return;
+        }
+
         expense.setStatus(com.example.frly.common.enums.RecordStatus.DELETED);
         paymentExpenseRepository.save(expense);
+
+        List<PaymentShare> shares = paymentShareRepository.findByExpenseIdAndStatusNot(expenseId, RecordStatus.DELETED);
+        paymentBalanceLedger.reverseExpense(expense, shares, AuthUtil.getCurrentUserId());
+        paymentSpendRollups.reverseExpense(expense, shares, AuthUtil.getCurrentUserId());
     }
 
+    // Full history; kept for existing clients, prefer getExpensePage
     @Transactional(readOnly = true)
     public List<PaymentExpenseDto> getExpenses(Long sectionId) {
         groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
 
-        List<PaymentExpense> expenses = paymentExpenseRepository.findBySectionIdAndStatusNotOrderByExpenseDateDesc(sectionId, com.example.frly.common.enums.RecordStatus.DELETED);
-        List<PaymentShare> allShares = paymentShareRepository.findByExpenseSectionIdAndStatusNot(sectionId, com.example.frly.common.enums.RecordStatus.DELETED);
-
-        Map<Long, List<PaymentShare>> sharesByExpense = allShares.stream()
-            .collect(Collectors.groupingBy(share -> share.getExpense().getId()));
-
-        List<PaymentExpenseDto> result = new ArrayList<>();
-        for (PaymentExpense expense : expenses) {
-            PaymentExpenseDto dto = new PaymentExpenseDto();
-            dto.setId(expense.getId());
-            dto.setSectionId(expense.getSection().getId());
-            dto.setPaidByUserId(expense.getPaidBy().getId());
-            dto.setPaidByFirstName(expense.getPaidBy().getFirstName());
-            dto.setPaidByLastName(expense.getPaidBy().getLastName());
-            dto.setDescription(expense.getDescription());
-            dto.setTotalAmount(expense.getTotalAmount());
-            dto.setCurrency(expense.getCurrency());
-            dto.setExpenseDate(expense.getExpenseDate());
-
-            List<PaymentShare> shares = sharesByExpense.getOrDefault(expense.getId(), List.of());
-            List<PaymentShareDto> shareDtos = new ArrayList<>();
-            for (PaymentShare share : shares) {
-                PaymentShareDto sDto = new PaymentShareDto();
-                sDto.setUserId(share.getUser().getId());
-                sDto.setFirstName(share.getUser().getFirstName());
-                sDto.setLastName(share.getUser().getLastName());
-                sDto.setShareAmount(share.getShareAmount());
-                shareDtos.add(sDto);
+        List<PaymentExpenseDto> expenses = paymentExpenseRepository.findExpensePage(
+                sectionId, null, null, MIN_EXPENSE_DATE, MAX_EXPENSE_DATE, MAX_EXPENSE_DATE, Long.MAX_VALUE, Pageable.unpaged());
+        attachShares(expenses);
+        return expenses;
+    }
+
+    // Keyset page on (expenseDate, id), newest first, optionally filtered by payer, participant and date range
+    @Transactional(readOnly = true)
+    public PaymentExpensePageDto getExpensePage(Long sectionId, Long payerId, Long participantId,
+                                                OffsetDateTime from, OffsetDateTime to, String cursor, Integer limit) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        OffsetDateTime start = from != null ? from : MIN_EXPENSE_DATE;
+        OffsetDateTime end = to != null ? to : MAX_EXPENSE_DATE;
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("from must be before to");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        OffsetDateTime beforeDate = MAX_EXPENSE_DATE;
+        Long beforeId = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                beforeDate = OffsetDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid expense cursor");
             }
-            dto.setShares(shareDtos);
-            result.add(dto);
         }
 
+        // One extra row tells us whether another page exists
+        List<PaymentExpenseDto> items = paymentExpenseRepository.findExpensePage(
+                sectionId, payerId, participantId, start, end, beforeDate, beforeId, PageRequest.of(0, pageSize + 1));
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+            PaymentExpenseDto last = items.get(items.size() - 1);
+            String raw = last.getExpenseDate() + "|" + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        attachShares(items);
+        return new PaymentExpensePageDto(items, nextCursor);
+    }
+
+    // One query per chunk of expenses, with user names joined in
+    private void attachShares(List<PaymentExpenseDto> expenses) {
+        Map<Long, PaymentExpenseDto> byId = new LinkedHashMap<>();
+        for (PaymentExpenseDto expense : expenses) {
+            expense.setShares(new ArrayList<>());
+            byId.put(expense.getId(), expense);
+        }
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int i = 0; i < ids.size(); i += SHARE_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + SHARE_LOOKUP_CHUNK));
+            for (Object[] row : paymentShareRepository.findShareRowsByExpenseIdIn(chunk)) {
+                PaymentShareDto share = new PaymentShareDto();
+                share.setUserId((Long) row[1]);
+                share.setFirstName((String) row[2]);
+                share.setLastName((String) row[3]);
+                share.setShareAmount((BigDecimal) row[4]);
+                byId.get((Long) row[0]).getShares().add(share);
+            }
+        }
+    }
+
+    // Single indexed read of the materialized ledger, shown in the requested currency (base currency by default)
+    @Transactional(readOnly = true)
+    public List<PaymentBalanceDto> getBalances(Long sectionId, String currency) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        String target = fxRateService.normalizeCurrency(currency);
+
+        List<PaymentBalanceDto> result = new ArrayList<>();
+        for (PaymentBalance balance : paymentBalanceRepository.findBySectionIdWithUser(sectionId)) {
+            User user = balance.getUser();
+            result.add(balanceDto(user.getId(), user.getFirstName(), user.getLastName(),
+                    fxRateService.fromBase(balance.getBalance(), target), target));
+        }
         return result;
     }
 
+    // One pass over the group's slice of the ledger; per-member totals are summed in base currency before converting
+    @Transactional(readOnly = true)
+    public GroupPaymentBalancesDto getGroupBalances(String currency) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        String target = fxRateService.normalizeCurrency(currency);
+
+        List<GroupPaymentBalancesDto.SectionBalances> sections = new ArrayList<>();
+        Map<Long, PaymentBalanceDto> totals = new TreeMap<>();
+        Map<Long, BigDecimal> baseTotals = new HashMap<>();
+        GroupPaymentBalancesDto.SectionBalances current = null;
+        for (Object[] row : paymentBalanceRepository.findGroupBalanceRows()) {
+            Long sectionId = (Long) row[0];
+            if (current == null || !current.getSectionId().equals(sectionId)) {
+                current = new GroupPaymentBalancesDto.SectionBalances();
+                current.setSectionId(sectionId);
+                current.setTitle((String) row[1]);
+                current.setBalances(new ArrayList<>());
+                sections.add(current);
+            }
+            Long userId = (Long) row[2];
+            BigDecimal balance = (BigDecimal) row[5];
+            current.getBalances().add(balanceDto(userId, (String) row[3], (String) row[4], fxRateService.fromBase(balance, target), target));
+            totals.computeIfAbsent(userId, id -> balanceDto(id, (String) row[3], (String) row[4], null, target));
+            baseTotals.merge(userId, balance, BigDecimal::add);
+        }
+        totals.forEach((userId, dto) -> dto.setBalance(fxRateService.fromBase(baseTotals.get(userId), target)));
+
+        GroupPaymentBalancesDto dto = new GroupPaymentBalancesDto();
+        dto.setCurrency(target);
+        dto.setTotals(new ArrayList<>(totals.values()));
+        dto.setSections(sections);
+        return dto;
+    }
+
+    // Admins only: takes the section's ledger lock and rewrites every balance
+    @Transactional
+    public void rebuildBalances(Long sectionId) {
+        groupService.validateAdminAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        paymentBalanceLedger.rebuild(GroupContext.getGroupId(), sectionId);
+    }
+
+    // Empty when the ledger matches a full recomputation from expenses and shares; admins only. Takes no lock, see
+    // PaymentBalanceLedger.findMismatches
     @Transactional(readOnly = true)
-    public List<PaymentBalanceDto> getBalances(Long sectionId) {
+    public List<PaymentBalanceMismatchDto> checkBalances(Long sectionId) {
+        groupService.validateAdminAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        return paymentBalanceLedger.findMismatches(GroupContext.getGroupId(), sectionId);
+    }
+
+    // Totals and monthly series from the rollups; the window defaults to the last 12 months (UTC), both ends inclusive
+    @Transactional(readOnly = true)
+    public PaymentSpendSummaryDto getSpendSummary(Long sectionId, YearMonth from, YearMonth to, String currency) {
         groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        String target = fxRateService.normalizeCurrency(currency);
+
+        YearMonth end = to != null ? to : YearMonth.now(ZoneOffset.UTC);
+        YearMonth start = from != null ? from : end.minusMonths(DEFAULT_SUMMARY_MONTHS - 1);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        LocalDate fromMonth = start.atDay(1);
+        LocalDate toMonth = end.atDay(1);
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<PaymentSpendSummaryDto.MonthSpend> months = new ArrayList<>();
+        for (Object[] row : paymentSpendRollupRepository.sumByMonth(sectionId, fromMonth, toMonth)) {
+            total = total.add((BigDecimal) row[1]);
+            months.add(new PaymentSpendSummaryDto.MonthSpend((LocalDate) row[0], fxRateService.fromBase((BigDecimal) row[1], target)));
+        }
+        List<PaymentSpendSummaryDto.MemberSpend> members = new ArrayList<>();
+        for (Object[] row : paymentSpendRollupRepository.sumByMember(sectionId, fromMonth, toMonth)) {
+            members.add(new PaymentSpendSummaryDto.MemberSpend(
+                    (Long) row[0], (String) row[1], (String) row[2], fxRateService.fromBase((BigDecimal) row[3], target)));
+        }
+        List<PaymentSpendSummaryDto.CategorySpend> categories = new ArrayList<>();
+        for (Object[] row : paymentSpendRollupRepository.sumByCategory(sectionId, fromMonth, toMonth)) {
+            String category = (String) row[0];
+            categories.add(new PaymentSpendSummaryDto.CategorySpend(
+                    PaymentSpendRollups.UNCATEGORIZED.equals(category) ? null : category, fxRateService.fromBase((BigDecimal) row[1], target)));
+        }
+
+        PaymentSpendSummaryDto dto = new PaymentSpendSummaryDto();
+        dto.setCurrency(target);
+        dto.setFromMonth(fromMonth);
+        dto.setToMonth(toMonth);
+        dto.setTotal(fxRateService.fromBase(total, target));
+        dto.setMonths(months);
+        dto.setMembers(members);
+        dto.setCategories(categories);
+        return dto;
+    }
+
+    // Admins only: rewrites every rollup of the section
+    @Transactional
+    public void rebuildSpendRollups(Long sectionId) {
+        groupService.validateAdminAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        paymentSpendRollups.rebuild(GroupContext.getGroupId(), sectionId);
+    }
+
+    // Who pays whom to clear every balance in the section; mode is AUTO (default), GREEDY or EXACT
+    @Transactional(readOnly = true)
+    public SettleUpDto getSettleUp(Long sectionId, String mode, String currency) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+        String target = fxRateService.normalizeCurrency(currency);
+
+        List<PaymentBalance> rows = paymentBalanceRepository.findBySectionIdWithUser(sectionId);
+        long baseTotal = 0;
+        long[] balances = new long[rows.size()];
+        long total = 0;
+        int largest = -1;
+        for (int i = 0; i < rows.size(); i++) {
+            baseTotal += toMinorUnits(rows.get(i).getBalance());
+            balances[i] = toMinorUnits(fxRateService.fromBase(rows.get(i).getBalance(), target));
+            total += balances[i];
+            if (largest < 0 || Math.abs(balances[i]) > Math.abs(balances[largest])) {
+                largest = i;
+            }
+        }
+        if (baseTotal != 0) {
+            throw new BadRequestException("Balances do not net to zero; rebuild the section balances");
+        }
+        // Converting each balance separately can leave a few minor units over; the largest balance absorbs them
+        if (total != 0) {
+            balances[largest] -= total;
+        }
+        int nonZero = 0;
+        for (long balance : balances) {
+            if (balance != 0) {
+                nonZero++;
+            }
+        }
 
-        List<PaymentExpense> expenses = paymentExpenseRepository.findBySectionIdAndStatusNotOrderByExpenseDateDesc(sectionId, com.example.frly.common.enums.RecordStatus.DELETED);
-        List<PaymentShare> allShares = paymentShareRepository.findByExpenseSectionIdAndStatusNot(sectionId, com.example.frly.common.enums.RecordStatus.DELETED);
-
-        Map<Long, List<PaymentShare>> sharesByExpense = allShares.stream()
-            .collect(Collectors.groupingBy(share -> share.getExpense().getId()));
-
-        Map<Long, PaymentBalanceDto> balances = new HashMap<>();
-
-        for (PaymentExpense expense : expenses) {
-            Long payerId = expense.getPaidBy().getId();
-            balances.computeIfAbsent(payerId, id -> {
-                PaymentBalanceDto dto = new PaymentBalanceDto();
-                dto.setUserId(id);
-                dto.setFirstName(expense.getPaidBy().getFirstName());
-                dto.setLastName(expense.getPaidBy().getLastName());
-                dto.setBalance(BigDecimal.ZERO);
-                return dto;
-            });
-
-            PaymentBalanceDto payerBalance = balances.get(payerId);
-            payerBalance.setBalance(payerBalance.getBalance().add(expense.getTotalAmount()));
-
-            List<PaymentShare> shares = sharesByExpense.getOrDefault(expense.getId(), List.of());
-            for (PaymentShare share : shares) {
-                Long userId = share.getUser().getId();
-                balances.computeIfAbsent(userId, id -> {
-                    PaymentBalanceDto dto = new PaymentBalanceDto();
-                    dto.setUserId(id);
-                    dto.setFirstName(share.getUser().getFirstName());
-                    dto.setLastName(share.getUser().getLastName());
-                    dto.setBalance(BigDecimal.ZERO);
-                    return dto;
-                });
-                PaymentBalanceDto b = balances.get(userId);
-                b.setBalance(b.getBalance().subtract(share.getShareAmount()));
+        String requested = mode == null ? "AUTO" : mode.trim().toUpperCase();
+        int exactLimit = exactSettlementLimit();
+        boolean exact = switch (requested) {
+            case "AUTO" -> nonZero <= exactLimit;
+            case "GREEDY" -> false;
+            case "EXACT" -> {
+                if (nonZero > exactLimit) {
+                    throw new BadRequestException("Exact settlement supports at most " + exactLimit + " members with a balance");
+                }
+                yield true;
             }
+            default -> throw new BadRequestException("mode must be AUTO, GREEDY or EXACT");
+        };
+
+        List<SettlementCalculator.Transfer> transfers = exact
+                ? SettlementCalculator.exact(balances)
+                : SettlementCalculator.greedy(balances);
+
+        List<SettlementTransferDto> result = new ArrayList<>(transfers.size());
+        for (SettlementCalculator.Transfer transfer : transfers) {
+            User from = rows.get(transfer.from()).getUser();
+            User to = rows.get(transfer.to()).getUser();
+            SettlementTransferDto dto = new SettlementTransferDto();
+            dto.setFromUserId(from.getId());
+            dto.setFromFirstName(from.getFirstName());
+            dto.setFromLastName(from.getLastName());
+            dto.setToUserId(to.getId());
+            dto.setToFirstName(to.getFirstName());
+            dto.setToLastName(to.getLastName());
+            dto.setAmount(BigDecimal.valueOf(transfer.amount(), MINOR_UNIT_SCALE));
+            result.add(dto);
         }
 
-        return new ArrayList<>(balances.values());
+        SettleUpDto dto = new SettleUpDto();
+        dto.setMode(exact ? "EXACT" : "GREEDY");
+        dto.setCurrency(target);
+        dto.setTransfers(result);
+        return dto;
+    }
+
+    // Saved together so the shares of one expense go out as a single JDBC batch
+    private List<PaymentShare> buildShares(PaymentExpense expense, List<CreatePaymentExpenseRequestDto.ShareInput> shareInputs) {
+        Map<Long, BigDecimal> merged = mergeShares(shareInputs);
+        List<PaymentShare> shares = new ArrayList<>(merged.size());
+        merged.forEach((userId, amount) -> {
+            PaymentShare share = new PaymentShare();
+            share.setExpense(expense);
+            share.setUser(userRepository.getReferenceById(userId));
+            share.setShareAmount(amount);
+            shares.add(share);
+        });
+        return shares;
+    }
+
+    // Validates an add/update request and resolves its split mode; afterwards the shares sum exactly to totalAmount
+    private void validateExpenseRequest(CreatePaymentExpenseRequestDto request) {
+        if (request.getTotalAmount() == null || request.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BadRequestException("totalAmount must be positive");
+        }
+        if (request.getPaidByUserId() == null) {
+            throw new BadRequestException("paidByUserId is required");
+        }
+        if (request.getShares() == null || request.getShares().isEmpty()) {
+            throw new BadRequestException("At least one share is required");
+        }
+
+        applySplit(request);
+
+        // Validate that sum of all shares equals totalAmount
+        BigDecimal sharesTotal = request.getShares().stream()
+                .map(CreatePaymentExpenseRequestDto.ShareInput::getShareAmount)
+                .filter(java.util.Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        if (sharesTotal.compareTo(request.getTotalAmount()) != 0) {
+            throw new BadRequestException("Sum of shares must equal total amount");
+        }
+    }
+
+    // Same rules as addExpense, for callers that store the share layout elsewhere (recurring templates)
+    Map<Long, BigDecimal> resolveShares(CreatePaymentExpenseRequestDto request) {
+        validateExpenseRequest(request);
+        return mergeShares(request.getShares());
+    }
+
+    // Fills in shareAmount for the server-side split modes; the result always sums exactly to totalAmount
+    private void applySplit(CreatePaymentExpenseRequestDto request) {
+        String mode = request.getSplitMode() == null ? "EXACT" : request.getSplitMode().trim().toUpperCase();
+        if (mode.equals("EXACT")) {
+            return;
+        }
+        List<CreatePaymentExpenseRequestDto.ShareInput> shares = request.getShares();
+        for (CreatePaymentExpenseRequestDto.ShareInput share : shares) {
+            if (share.getUserId() == null) {
+                throw new BadRequestException("Each share needs a userId");
+            }
+            if (!mode.equals("EQUAL") && (share.getWeight() == null || share.getWeight().signum() < 0)) {
+                throw new BadRequestException("Each share needs a non-negative weight");
+            }
+        }
+
+        long[] amounts;
+        try {
+            long total = request.getTotalAmount().setScale(MINOR_UNIT_SCALE).movePointRight(MINOR_UNIT_SCALE).longValueExact();
+            amounts = switch (mode) {
+                case "EQUAL" -> SplitCalculator.equal(total, shares.size());
+                case "PERCENTAGE" -> {
+                    BigDecimal percentTotal = shares.stream()
+                            .map(CreatePaymentExpenseRequestDto.ShareInput::getWeight)
+                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                    if (percentTotal.compareTo(ONE_HUNDRED) != 0) {
+                        throw new BadRequestException("Percentages must add up to 100");
+                    }
+                    yield SplitCalculator.weighted(total, scaledWeights(shares));
+                }
+                case "WEIGHT" -> SplitCalculator.weighted(total, scaledWeights(shares));
+                default -> throw new BadRequestException("splitMode must be EXACT, EQUAL, PERCENTAGE or WEIGHT");
+            };
+        } catch (ArithmeticException | IllegalArgumentException ex) {
+            throw new BadRequestException("Cannot split totalAmount: " + ex.getMessage());
+        }
+
+        for (int i = 0; i < shares.size(); i++) {
+            shares.get(i).setShareAmount(BigDecimal.valueOf(amounts[i], MINOR_UNIT_SCALE));
+        }
+    }
+
+    // Weights as whole numbers on a common scale, so 33.3/33.3/33.4 splits exactly like 333/333/334
+    private long[] scaledWeights(List<CreatePaymentExpenseRequestDto.ShareInput> shares) {
+        int scale = 0;
+        for (CreatePaymentExpenseRequestDto.ShareInput share : shares) {
+            scale = Math.max(scale, share.getWeight().stripTrailingZeros().scale());
+        }
+        if (scale > MAX_WEIGHT_SCALE) {
+            throw new BadRequestException("Weights support at most " + MAX_WEIGHT_SCALE + " decimal places");
+        }
+        long[] weights = new long[shares.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = shares.get(i).getWeight().movePointRight(scale).longValueExact();
+        }
+        return weights;
+    }
+
+    // One share per user keeps FX rounding identical between the ledger and its SQL rebuild
+    private Map<Long, BigDecimal> mergeShares(List<CreatePaymentExpenseRequestDto.ShareInput> shareInputs) {
+        Map<Long, BigDecimal> merged = new LinkedHashMap<>();
+        for (CreatePaymentExpenseRequestDto.ShareInput shareInput : shareInputs) {
+            if (shareInput.getUserId() == null || shareInput.getShareAmount() == null) {
+                throw new BadRequestException("Each share needs a userId and shareAmount");
+            }
+            merged.merge(shareInput.getUserId(), shareInput.getShareAmount(), BigDecimal::add);
+        }
+        return merged;
+    }
+
+    // A configured value above the solver's limit would let AUTO and EXACT reach exact() and fail there
+    private int exactSettlementLimit() {
+        return Math.min(exactSettlementMaxMembers, SettlementCalculator.MAX_EXACT_MEMBERS);
+    }
+
+    private Map<Long, BigDecimal> sharesByUser(List<PaymentShare> shares) {
+        Map<Long, BigDecimal> byUser = new LinkedHashMap<>();
+        for (PaymentShare share : shares) {
+            byUser.merge(share.getUser().getId(), share.getShareAmount(), BigDecimal::add);
+        }
+        return byUser;
+    }
+
+    String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        String trimmed = category.trim();
+        if (trimmed.length() > MAX_CATEGORY_LENGTH) {
+            throw new BadRequestException("category must be at most " + MAX_CATEGORY_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    private PaymentBalanceDto balanceDto(Long userId, String firstName, String lastName, BigDecimal balance, String currency) {
+        PaymentBalanceDto dto = new PaymentBalanceDto();
+        dto.setUserId(userId);
+        dto.setFirstName(firstName);
+        dto.setLastName(lastName);
+        dto.setBalance(balance);
+        dto.setCurrency(currency);
+        return dto;
+    }
+
+    private long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.HALF_UP).movePointRight(MINOR_UNIT_SCALE).longValueExact();
     }
 }
@@ -0,0 +1,133 @@
+package com.example.frly.section.service;
+
+import com.example.frly.auth.AuthUtil;
+import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.common.exception.BadRequestException;
+import com.example.frly.group.GroupContext;
+import com.example.frly.group.service.GroupService;
+import com.example.frly.section.dto.CreatePaymentSettlementRequestDto;
+import com.example.frly.section.dto.PaymentSettlementDto;
+import com.example.frly.section.model.PaymentSettlement;
+import com.example.frly.section.model.Section;
+import com.example.frly.section.model.SectionType;
+import com.example.frly.section.repository.PaymentSettlementRepository;
+import com.example.frly.section.repository.SectionRepository;
+import com.example.frly.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded repayments between members of a PAYMENT section.
+ * They feed the balance ledger like expenses do but are kept out of the expense list.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentSettlementService {
+
+    private static final OffsetDateTime MIN_TIME = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime MAX_TIME = OffsetDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private final GroupService groupService;
+    private final SectionRepository sectionRepository;
+    private final UserRepository userRepository;
+    private final PaymentSettlementRepository paymentSettlementRepository;
+    private final PaymentBalanceLedger paymentBalanceLedger;
+    private final FxRateService fxRateService;
+
+    @Transactional
+    public Long addSettlement(Long sectionId, CreatePaymentSettlementRequestDto request) {
+        Long currentUserId = AuthUtil.getCurrentUserId();
+        groupService.validateGroupAccess(currentUserId, GroupContext.getGroupId());
+
+        Section section = sectionRepository.getReferenceById(sectionId);
+        if (section.getType() != SectionType.PAYMENT) {
+            throw new BadRequestException("Cannot add settlement to non-PAYMENT section");
+        }
+
+        if (request.getFromUserId() == null || request.getToUserId() == null) {
+            throw new BadRequestException("fromUserId and toUserId are required");
+        }
+        if (request.getFromUserId().equals(request.getToUserId())) {
+            throw new BadRequestException("A member cannot settle with themselves");
+        }
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BadRequestException("amount must be positive");
+        }
+        if (request.getAmount().stripTrailingZeros().scale() > 2) {
+            throw new BadRequestException("amount can have at most 2 decimal places");
+        }
+
+        PaymentSettlement settlement = new PaymentSettlement();
+        settlement.setSection(section);
+        settlement.setFromUser(userRepository.getReferenceById(request.getFromUserId()));
+        settlement.setToUser(userRepository.getReferenceById(request.getToUserId()));
+        settlement.setAmount(request.getAmount());
+        settlement.setCurrency(fxRateService.normalizeCurrency(request.getCurrency()));
+        settlement.setSettledAt(request.getSettledAt() != null ? request.getSettledAt() : OffsetDateTime.now());
+        settlement.setFxRate(fxRateService.rateFor(settlement.getCurrency(), settlement.getSettledAt()));
+        settlement.setNote(request.getNote());
+
+        settlement = paymentSettlementRepository.save(settlement);
+        paymentBalanceLedger.applySettlement(settlement, currentUserId);
+
+        return settlement.getId();
+    }
+
+    // Newest first; from/to are optional bounds on settledAt ([from, to))
+    @Transactional(readOnly = true)
+    public List<PaymentSettlementDto> getSettlements(Long sectionId, OffsetDateTime from, OffsetDateTime to) {
+        groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
+
+        OffsetDateTime start = from != null ? from : MIN_TIME;
+        OffsetDateTime end = to != null ? to : MAX_TIME;
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("from must be before to");
+        }
+
+        List<PaymentSettlementDto> result = new ArrayList<>();
+        for (PaymentSettlement settlement : paymentSettlementRepository.findInWindow(sectionId, RecordStatus.DELETED, start, end)) {
+            PaymentSettlementDto dto = new PaymentSettlementDto();
+            dto.setId(settlement.getId());
+            dto.setSectionId(sectionId);
+            dto.setFromUserId(settlement.getFromUser().getId());
+            dto.setFromFirstName(settlement.getFromUser().getFirstName());
+            dto.setFromLastName(settlement.getFromUser().getLastName());
+            dto.setToUserId(settlement.getToUser().getId());
+            dto.setToFirstName(settlement.getToUser().getFirstName());
+            dto.setToLastName(settlement.getToUser().getLastName());
+            dto.setAmount(settlement.getAmount());
+            dto.setCurrency(settlement.getCurrency());
+            dto.setSettledAt(settlement.getSettledAt());
+            dto.setNote(settlement.getNote());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Transactional
+    public void deleteSettlement(Long sectionId, Long settlementId) {
+        Long currentUserId = AuthUtil.getCurrentUserId();
+        groupService.validateGroupAccess(currentUserId, GroupContext.getGroupId());
+
+        PaymentSettlement settlement = paymentSettlementRepository.findById(settlementId)
+                .orElseThrow(() -> new BadRequestException("Settlement not found"));
+
+        if (!settlement.getSection().getId().equals(sectionId)) {
+            throw new BadRequestException("Settlement does not belong to this section");
+        }
+        if (settlement.getStatus() == RecordStatus.DELETED) {
+            return;
+        }
+
+        settlement.setStatus(RecordStatus.DELETED);
+        paymentSettlementRepository.save(settlement);
+        paymentBalanceLedger.reverseSettlement(settlement, currentUserId);
+    }
+}
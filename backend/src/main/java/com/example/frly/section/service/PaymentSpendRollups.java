@@ -0,0 +1,187 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.model.PaymentExpense;
+import com.example.frly.section.model.PaymentShare;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Incrementally maintained spend rollups per (section, month, member, category) for PAYMENT sections.
+ * Expense writes apply their deltas here in the same transaction, converted to the base currency exactly
+ * like the balance ledger; rebuild recomputes a section from expenses and shares in SQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentSpendRollups {
+
+    // Uncategorized expenses roll up under '' so the unique key never contains NULL
+    static final String UNCATEGORIZED = "";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO config.payment_spend_rollups (group_id, section_id, spend_month, user_id, category, amount, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (group_id, section_id, spend_month, user_id, category) DO UPDATE SET " +
+            "amount = payment_spend_rollups.amount + EXCLUDED.amount, updated_at = EXCLUDED.updated_at, updated_by = EXCLUDED.updated_by";
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO config.payment_spend_rollups (group_id, section_id, spend_month, user_id, category, amount) " +
+            "SELECT e.group_id, e.section_id, CAST(date_trunc('month', e.expense_date AT TIME ZONE 'UTC') AS DATE), s.user_id, " +
+            "COALESCE(e.category, ''), SUM(ROUND(s.share_amount * e.fx_rate, 2)) " +
+            "FROM config.payment_shares s JOIN config.payment_expenses e ON e.id = s.expense_id " +
+            "WHERE e.status <> 'DELETED' AND s.status <> 'DELETED' AND e.group_id = ? AND e.section_id = ? " +
+            "GROUP BY 1, 2, 3, 4, 5";
+
+    // Sections that have or had spend; sections whose expenses were all removed still need their rows cleared
+    private static final String SECTIONS_SQL =
+            "SELECT group_id, section_id FROM config.payment_expenses " +
+            "UNION SELECT group_id, section_id FROM config.payment_spend_rollups";
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::month)
+            .thenComparing(Key::userId)
+            .thenComparing(Key::category);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${frly.payments.rollups.rebuild-parallelism:4}")
+    private int rebuildParallelism = 4;
+
+    // Sections per task handed to a rebuild worker; each section still commits on its own
+    @Value("${frly.payments.rollups.rebuild-chunk-size:50}")
+    private int rebuildChunkSize = 50;
+
+    public record Key(LocalDate month, Long userId, String category) {
+    }
+
+    public void applyExpense(PaymentExpense expense, Collection<PaymentShare> shares, Long userId) {
+        apply(expense.getGroupId(), expense.getSection().getId(), contributions(expense, sharesByUser(shares)), userId);
+    }
+
+    public void reverseExpense(PaymentExpense expense, Collection<PaymentShare> shares, Long userId) {
+        Map<Key, BigDecimal> deltas = contributions(expense, sharesByUser(shares));
+        deltas.replaceAll((key, amount) -> amount.negate());
+        apply(expense.getGroupId(), expense.getSection().getId(), deltas, userId);
+    }
+
+    // What an expense adds to the rollups: each member's share in the base currency under the expense's month and category
+    public Map<Key, BigDecimal> contributions(PaymentExpense expense, Map<Long, BigDecimal> sharesByUser) {
+        return contributions(expense.getExpenseDate(), expense.getCategory(), expense.getFxRate(), sharesByUser);
+    }
+
+    public Map<Key, BigDecimal> contributions(OffsetDateTime expenseDate, String category, BigDecimal fxRate,
+                                              Map<Long, BigDecimal> sharesByUser) {
+        LocalDate month = expenseDate.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+        String rollupCategory = category != null ? category : UNCATEGORIZED;
+        Map<Key, BigDecimal> contributions = new TreeMap<>(KEY_ORDER);
+        sharesByUser.forEach((shareUserId, amount) -> contributions.merge(new Key(month, shareUserId, rollupCategory),
+                FxRateService.toBase(amount, fxRate), BigDecimal::add));
+        return contributions;
+    }
+
+    // Net change between two states of the same expense; an edit that moves month or category shifts spend between rows
+    public void applyChange(String groupId, Long sectionId, Map<Key, BigDecimal> before, Map<Key, BigDecimal> after, Long userId) {
+        Map<Key, BigDecimal> deltas = new TreeMap<>(KEY_ORDER);
+        deltas.putAll(after);
+        before.forEach((key, amount) -> deltas.merge(key, amount.negate(), BigDecimal::add));
+        apply(groupId, sectionId, deltas, userId);
+    }
+
+    public void apply(String groupId, Long sectionId, Map<Key, BigDecimal> deltas, Long userId) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        Timestamp now = Timestamp.from(Instant.now());
+        Map<Key, BigDecimal> ordered = new TreeMap<>(KEY_ORDER);
+        ordered.putAll(deltas);
+        ordered.forEach((key, delta) -> {
+            if (delta.signum() != 0) {
+                rows.add(new Object[]{groupId, sectionId, Date.valueOf(key.month()), key.userId(), key.category(), delta, now, now, userId, userId});
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForList(PaymentBalanceLedger.SHARED_LOCK_SQL, sectionId);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    @Transactional
+    public void rebuild(String groupId, Long sectionId) {
+        jdbcTemplate.queryForList(PaymentBalanceLedger.EXCLUSIVE_LOCK_SQL, sectionId);
+        jdbcTemplate.update("DELETE FROM config.payment_spend_rollups WHERE group_id = ? AND section_id = ?", groupId, sectionId);
+        int rows = jdbcTemplate.update(REBUILD_SQL, groupId, sectionId);
+        log.debug("Rebuilt {} spend rollup row(s) for section {} in group {}", rows, sectionId, groupId);
+    }
+
+    // Full recomputation, off by default; sections are split into chunks that a small worker pool rebuilds in parallel
+    @Scheduled(cron = "${frly.payments.rollups.rebuild-cron:-}")
+    public void rebuildAll() {
+        List<Object[]> sections = jdbcTemplate.query(SECTIONS_SQL, (rs, rowNum) -> new Object[]{rs.getString(1), rs.getLong(2)});
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, rebuildParallelism));
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            int chunkSize = Math.max(1, rebuildChunkSize);
+            for (int i = 0; i < sections.size(); i += chunkSize) {
+                List<Object[]> chunk = sections.subList(i, Math.min(sections.size(), i + chunkSize));
+                chunks.add(pool.submit(() -> rebuildChunk(chunk, failed)));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Spend rollup rebuild interrupted");
+            return;
+        } catch (ExecutionException ex) {
+            log.error("Spend rollup rebuild failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Rebuilt spend rollups for {} section(s), {} failed", sections.size() - failed.get(), failed.get());
+    }
+
+    private void rebuildChunk(List<Object[]> sections, AtomicInteger failed) {
+        for (Object[] section : sections) {
+            try {
+                // Short per-section transactions keep the exclusive lock from blocking writers for long
+                transactionTemplate.executeWithoutResult(status -> rebuild((String) section[0], (Long) section[1]));
+            } catch (RuntimeException ex) {
+                failed.incrementAndGet();
+                log.warn("Could not rebuild spend rollups for section {} in group {}", section[1], section[0], ex);
+            }
+        }
+    }
+
+    private Map<Long, BigDecimal> sharesByUser(Collection<PaymentShare> shares) {
+        Map<Long, BigDecimal> byUser = new TreeMap<>();
+        for (PaymentShare share : shares) {
+            byUser.merge(share.getUser().getId(), share.getShareAmount(), BigDecimal::add);
+        }
+        return byUser;
+    }
+}
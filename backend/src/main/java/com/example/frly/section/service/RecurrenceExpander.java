@@ -0,0 +1,173 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.model.CalendarEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Expands a recurring calendar event into the occurrence start times that overlap a window.
+ * Expansion jumps straight to the first candidate occurrence instead of walking the series
+ * from its start, so the cost depends on the window size, not the age of the series.
+ * Expanded windows are kept in a small LRU cache keyed by the event's last update.
+ */
+@Component
+public class RecurrenceExpander {
+
+    @Value("${frly.calendar.recurrence.cache-max-entries:2000}")
+    private int maxCacheEntries = 2_000;
+
+    // Guards against huge windows over daily series
+    @Value("${frly.calendar.recurrence.max-occurrences-per-window:1000}")
+    private int maxOccurrencesPerWindow = 1_000;
+
+    private final Map<WindowKey, List<LocalDateTime>> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WindowKey, List<LocalDateTime>> eldest) {
+            return size() > maxCacheEntries;
+        }
+    };
+
+    public List<LocalDateTime> expand(CalendarEvent event, LocalDateTime from, LocalDateTime to) {
+        WindowKey key = new WindowKey(event.getId(), event.getUpdatedAt(), from, to);
+        synchronized (cache) {
+            List<LocalDateTime> cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        List<LocalDateTime> occurrences = List.copyOf(computeOccurrences(event, from, to));
+        synchronized (cache) {
+            cache.put(key, occurrences);
+        }
+        return occurrences;
+    }
+
+    // End of the last occurrence, or null when the series never ends
+    public LocalDateTime computeSeriesEnd(CalendarEvent event) {
+        if (event.getRecurrenceFrequency() == null) {
+            return null;
+        }
+        Duration duration = durationOf(event);
+        if (event.getRecurrenceCount() != null) {
+            return occurrenceAt(event, event.getRecurrenceCount() - 1).plus(duration);
+        }
+        if (event.getRecurrenceUntil() != null) {
+            return event.getRecurrenceUntil().plus(duration);
+        }
+        return null;
+    }
+
+    public Duration durationOf(CalendarEvent event) {
+        if (event.getEndTime() == null || event.getEndTime().isBefore(event.getStartTime())) {
+            return Duration.ZERO;
+        }
+        return Duration.between(event.getStartTime(), event.getEndTime());
+    }
+
+    public static List<LocalDateTime> parseExceptions(String value) {
+        if (value == null || value.isBlank()) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(LocalDateTime::parse)
+                .collect(Collectors.toList());
+    }
+
+    public static String formatExceptions(Collection<LocalDateTime> exceptions) {
+        if (exceptions == null || exceptions.isEmpty()) {
+            return null;
+        }
+        return exceptions.stream()
+                .distinct()
+                .sorted()
+                .map(LocalDateTime::toString)
+                .collect(Collectors.joining(","));
+    }
+
+    private List<LocalDateTime> computeOccurrences(CalendarEvent event, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> result = new ArrayList<>();
+        Duration duration = durationOf(event);
+
+        // An occurrence overlaps [from, to) when it starts before "to" and ends after "from", i.e. starts after
+        // from - duration; one ending exactly at "from" is left out, like a single event in findInWindow
+        LocalDateTime lowerBound = from.minus(duration);
+        Set<LocalDateTime> exceptions = new HashSet<>(parseExceptions(event.getRecurrenceExceptions()));
+
+        for (long n = firstIndexAtOrAfter(event, lowerBound); ; n++) {
+            if (event.getRecurrenceCount() != null && n >= event.getRecurrenceCount()) {
+                break;
+            }
+            LocalDateTime start = occurrenceAt(event, n);
+            if (!start.isBefore(to)) {
+                break;
+            }
+            if (event.getRecurrenceUntil() != null && start.isAfter(event.getRecurrenceUntil())) {
+                break;
+            }
+            if (!start.isAfter(lowerBound)) {
+                continue;
+            }
+            if (!exceptions.contains(start)) {
+                result.add(start);
+                if (result.size() >= maxOccurrencesPerWindow) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private long firstIndexAtOrAfter(CalendarEvent event, LocalDateTime lowerBound) {
+        LocalDateTime seriesStart = event.getStartTime();
+        if (!lowerBound.isAfter(seriesStart)) {
+            return 0;
+        }
+
+        long interval = intervalOf(event);
+        long n = switch (event.getRecurrenceFrequency()) {
+            case DAILY -> ChronoUnit.DAYS.between(seriesStart, lowerBound) / interval;
+            case WEEKLY -> ChronoUnit.WEEKS.between(seriesStart, lowerBound) / interval;
+            case MONTHLY -> ChronoUnit.MONTHS.between(seriesStart, lowerBound) / interval;
+        };
+        // The estimate is never past the target; step forward over the remainder
+        while (occurrenceAt(event, n).isBefore(lowerBound)) {
+            n++;
+        }
+        return n;
+    }
+
+    private LocalDateTime occurrenceAt(CalendarEvent event, long n) {
+        long steps = n * intervalOf(event);
+        // Always offset from the series start so month-end dates don't drift
+        return switch (event.getRecurrenceFrequency()) {
+            case DAILY -> event.getStartTime().plusDays(steps);
+            case WEEKLY -> event.getStartTime().plusWeeks(steps);
+            case MONTHLY -> event.getStartTime().plusMonths(steps);
+        };
+    }
+
+    private long intervalOf(CalendarEvent event) {
+        Integer interval = event.getRecurrenceInterval();
+        return interval == null || interval < 1 ? 1 : interval;
+    }
+
+    private record WindowKey(Long eventId, Instant version, LocalDateTime from, LocalDateTime to) {
+    }
+}
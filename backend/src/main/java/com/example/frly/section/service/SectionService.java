@@ -1,6 +1,7 @@
 package com.example.frly.section.service;
 
 import com.example.frly.common.enums.RecordStatus;
+import com.example.frly.common.exception.BadRequestException;
 import com.example.frly.section.dto.CreateListItemRequestDto;
 import com.example.frly.section.dto.CreateSectionRequestDto;
 import com.example.frly.section.dto.ListItemDto;
@@ -22,7 +23,8 @@ import com.example.frly.auth.AuthUtil;
 import com.example.frly.group.GroupContext;
 import com.example.frly.group.service.GroupService;
 import com.example.frly.section.SectionMapper;
-import com.example.frly.user.UserRepository;
+import com.example.frly.user.UserSummaryCache;
+import com.example.frly.user.dto.UserSummaryDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -42,9 +44,12 @@ public class SectionService {
     private final ReminderRepository reminderRepository;
     private final CalendarEventRepository calendarEventRepository;
     private final CalendarEventMemberRepository calendarEventMemberRepository;
+    private final PaymentRecurringExpenseRepository paymentRecurringExpenseRepository;
     private final GroupService groupService;
     private final SectionMapper sectionMapper;
-    private final UserRepository userRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final NoteWriteBuffer noteWriteBuffer;
+    private final RecurrenceExpander recurrenceExpander;
 
     // --- SECTIONS ---
 
@@ -110,6 +115,10 @@ public class SectionService {
         Section section = sectionRepository.findById(sectionId).orElseThrow();
         section.setStatus(RecordStatus.DELETED);
         sectionRepository.save(section);
+        // Otherwise the materializer would keep posting expenses into the deleted section
+        if (section.getType() == SectionType.PAYMENT) {
+            paymentRecurringExpenseRepository.clearNextDueBySectionId(sectionId);
+        }
     }
 
     // --- LIST ITEMS ---
@@ -162,6 +171,12 @@ public class SectionService {
         // Security Check
         groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
 
+        // Unflushed autosaves are newer than the row, so serve them first
+        java.util.Optional<NoteDto> buffered = noteWriteBuffer.peek(GroupContext.getGroupId(), sectionId);
+        if (buffered.isPresent()) {
+            return buffered.get();
+        }
+
         Note note = noteRepository.findBySectionId(sectionId)
             .orElseThrow(() -> new RuntimeException("Note not found for section " + sectionId));
 
@@ -169,51 +184,24 @@ public class SectionService {
         dto.setVersion(note.getVersion());
         dto.setLastEditedAt(note.getUpdatedAt());
 
-        if (note.getUpdatedBy() != null) {
-            userRepository.findById(note.getUpdatedBy()).ifPresent(user -> {
-            String name = (user.getFirstName() != null ? user.getFirstName() : "")
-                + (user.getLastName() != null ? (" " + user.getLastName()) : "");
-            dto.setLastEditedByName(name.trim().isEmpty() ? user.getEmail() : name.trim());
-            });
-        }
+        dto.setLastEditedByName(userSummaryCache.getDisplayName(note.getUpdatedBy()));
 
         return dto;
     }
 
-    @Transactional
     public NoteDto updateNote(Long sectionId, UpdateNoteRequestDto request) {
         // Security Check
         groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
 
-        Note note = noteRepository.findBySectionId(sectionId)
-            .orElseThrow(() -> new RuntimeException("Note not found for section " + sectionId));
-
-        // Optimistic locking: if client provided a version, ensure it matches current
-        if (request.getVersion() != null && !request.getVersion().equals(note.getVersion())) {
-            throw new jakarta.persistence.OptimisticLockException("Note was updated by someone else");
-        }
-
-        note.setContent(request.getContent());
-        noteRepository.save(note);
-        log.info(NOTE_UPDATED, sectionId);
-
-        // Reload to ensure auditing fields like updatedAt/updatedBy are up to date
-        Note refreshed = noteRepository.findBySectionId(sectionId)
-            .orElseThrow(() -> new RuntimeException("Note not found for section " + sectionId));
-
-        NoteDto dto = sectionMapper.toNoteDto(refreshed);
-        dto.setVersion(refreshed.getVersion());
-        dto.setLastEditedAt(refreshed.getUpdatedAt());
-
-        if (refreshed.getUpdatedBy() != null) {
-            userRepository.findById(refreshed.getUpdatedBy()).ifPresent(user -> {
-                String name = (user.getFirstName() != null ? user.getFirstName() : "")
-                    + (user.getLastName() != null ? (" " + user.getLastName()) : "");
-                dto.setLastEditedByName(name.trim().isEmpty() ? user.getEmail() : name.trim());
-            });
-        }
-
-        return dto;
+        // Acknowledged from the write-behind buffer; the row is updated on the next flush.
+        // Throws OptimisticLockException if the client's version is behind the buffered one,
+        // or NoteConflictException with the lost edits if another server saved the note first.
+        return noteWriteBuffer.write(
+            GroupContext.getGroupId(),
+            sectionId,
+            AuthUtil.getCurrentUserId(),
+            request.getContent(),
+            request.getVersion());
     }
 
     // --- REMINDERS ---
@@ -309,51 +297,97 @@ public class SectionService {
         event.setEndTime(request.getEndTime());
         event.setLocation(request.getLocation());
         event.setCategory(request.getCategory());
+        if (request.getRecurrenceFrequency() != null) {
+            event.setRecurrenceFrequency(parseRecurrenceFrequency(request.getRecurrenceFrequency()));
+            event.setRecurrenceInterval(request.getRecurrenceInterval());
+            event.setRecurrenceCount(request.getRecurrenceCount());
+            event.setRecurrenceUntil(request.getRecurrenceUntil());
+            event.setRecurrenceExceptions(RecurrenceExpander.formatExceptions(request.getRecurrenceExceptions()));
+        }
+        validateRecurrence(event);
+        event.setRecurrenceEndTime(recurrenceExpander.computeSeriesEnd(event));
 
         event = calendarEventRepository.save(event);
 
         if (request.getMemberIds() != null && !request.getMemberIds().isEmpty()) {
-            for (Long memberUserId : request.getMemberIds()) {
-                CalendarEventMember cem = new CalendarEventMember();
-                cem.setEvent(event);
-                cem.setUser(new com.example.frly.user.User());
-                cem.getUser().setId(memberUserId);
-                calendarEventMemberRepository.save(cem);
-            }
+            calendarEventMemberRepository.saveAll(buildEventMembers(event, request.getMemberIds()));
         }
 
         return event.getId();
     }
 
     public java.util.List<com.example.frly.section.dto.CalendarEventDto> getCalendarEvents(Long sectionId) {
+        return getCalendarEvents(sectionId, null, null);
+    }
+
+    public java.util.List<com.example.frly.section.dto.CalendarEventDto> getCalendarEvents(Long sectionId,
+                                                                                           java.time.LocalDateTime from,
+                                                                                           java.time.LocalDateTime to) {
         groupService.validateGroupAccess(AuthUtil.getCurrentUserId(), GroupContext.getGroupId());
 
-        java.util.List<CalendarEvent> events = calendarEventRepository.findBySectionIdOrderByStartTimeAsc(sectionId);
+        java.util.List<CalendarEvent> events;
+        if (from == null && to == null) {
+            // Legacy behaviour: full history for clients that don't send a window yet
+            events = calendarEventRepository.findBySectionIdOrderByStartTimeAsc(sectionId);
+        } else {
+            if (from == null || to == null) {
+                throw new BadRequestException("Both from and to are required for a windowed calendar query");
+            }
+            if (!from.isBefore(to)) {
+                throw new BadRequestException("from must be before to");
+            }
+            events = new java.util.ArrayList<>(calendarEventRepository.findInWindow(sectionId, from, to));
+            // One row per series regardless of how long it has been running
+            events.addAll(calendarEventRepository.findRecurringInWindow(sectionId, from, to));
+        }
 
+        // Members only for the events in this window, as plain id pairs
         java.util.List<Long> eventIds = events.stream().map(CalendarEvent::getId).toList();
         java.util.Map<Long, java.util.List<Long>> membersByEvent = new java.util.HashMap<>();
         if (!eventIds.isEmpty()) {
-            for (CalendarEventMember cem : calendarEventMemberRepository.findByEventIdIn(eventIds)) {
+            for (Object[] row : calendarEventMemberRepository.findMemberIdsByEventIdIn(eventIds)) {
                 membersByEvent
-                    .computeIfAbsent(cem.getEvent().getId(), k -> new java.util.ArrayList<>())
-                    .add(cem.getUser().getId());
+                    .computeIfAbsent((Long) row[0], k -> new java.util.ArrayList<>())
+                    .add((Long) row[1]);
             }
         }
 
-        return events.stream()
-            .map(event -> {
-                var dto = sectionMapper.toCalendarEventDto(event);
-                if (event.getCreatedBy() != null) {
-                    userRepository.findById(event.getCreatedBy()).ifPresent(user -> {
-                        String name = (user.getFirstName() != null ? user.getFirstName() : "")
-                                + (user.getLastName() != null ? (" " + user.getLastName()) : "");
-                        dto.setCreatedByName(name.trim().isEmpty() ? user.getEmail() : name.trim());
-                    });
-                }
-                dto.setMemberIds(membersByEvent.getOrDefault(event.getId(), java.util.Collections.emptyList()));
-                return dto;
-            })
-            .collect(java.util.stream.Collectors.toList());
+        // Resolve all creator names for the result set in one batch
+        java.util.Map<Long, UserSummaryDto> creators = userSummaryCache.getAll(
+            events.stream().map(CalendarEvent::getCreatedBy).filter(java.util.Objects::nonNull).toList());
+
+        java.util.List<com.example.frly.section.dto.CalendarEventDto> result = new java.util.ArrayList<>();
+        for (CalendarEvent event : events) {
+            var dto = sectionMapper.toCalendarEventDto(event);
+            dto.setRecurrenceExceptions(RecurrenceExpander.parseExceptions(event.getRecurrenceExceptions()));
+            UserSummaryDto creator = creators.get(event.getCreatedBy());
+            if (creator != null) {
+                dto.setCreatedByName(creator.getDisplayName());
+            }
+            dto.setMemberIds(membersByEvent.getOrDefault(event.getId(), java.util.Collections.emptyList()));
+
+            if (from == null || event.getRecurrenceFrequency() == null) {
+                // Without a window a series is returned once, as its definition
+                result.add(dto);
+                continue;
+            }
+
+            java.time.Duration duration = recurrenceExpander.durationOf(event);
+            for (java.time.LocalDateTime occurrenceStart : recurrenceExpander.expand(event, from, to)) {
+                var occurrence = sectionMapper.toCalendarEventDto(event);
+                occurrence.setRecurrenceExceptions(dto.getRecurrenceExceptions());
+                occurrence.setCreatedByName(dto.getCreatedByName());
+                occurrence.setMemberIds(dto.getMemberIds());
+                occurrence.setStartTime(occurrenceStart);
+                occurrence.setEndTime(event.getEndTime() != null ? occurrenceStart.plus(duration) : null);
+                result.add(occurrence);
+            }
+        }
+
+        if (from != null) {
+            result.sort(java.util.Comparator.comparing(com.example.frly.section.dto.CalendarEventDto::getStartTime));
+        }
+        return result;
     }
 
     @Transactional
@@ -389,18 +423,75 @@ public class SectionService {
         if (request.getCategory() != null) {
             event.setCategory(request.getCategory());
         }
+        if (request.getRecurrenceFrequency() != null) {
+            if (request.getRecurrenceFrequency().equalsIgnoreCase("NONE")) {
+                event.setRecurrenceFrequency(null);
+                event.setRecurrenceInterval(null);
+                event.setRecurrenceCount(null);
+                event.setRecurrenceUntil(null);
+                event.setRecurrenceExceptions(null);
+            } else {
+                event.setRecurrenceFrequency(parseRecurrenceFrequency(request.getRecurrenceFrequency()));
+            }
+        }
+        if (event.getRecurrenceFrequency() != null) {
+            if (request.getRecurrenceInterval() != null) {
+                event.setRecurrenceInterval(request.getRecurrenceInterval());
+            }
+            // A new end replaces the old one, so a count can be swapped for an until date and back
+            if (Boolean.TRUE.equals(request.getClearRecurrenceEnd())
+                    || request.getRecurrenceCount() != null || request.getRecurrenceUntil() != null) {
+                event.setRecurrenceCount(request.getRecurrenceCount());
+                event.setRecurrenceUntil(request.getRecurrenceUntil());
+            }
+            if (request.getRecurrenceExceptions() != null) {
+                event.setRecurrenceExceptions(RecurrenceExpander.formatExceptions(request.getRecurrenceExceptions()));
+            }
+        }
+        validateRecurrence(event);
+        event.setRecurrenceEndTime(recurrenceExpander.computeSeriesEnd(event));
 
         calendarEventRepository.save(event);
 
         if (request.getMemberIds() != null) {
             calendarEventMemberRepository.deleteByEventId(eventId);
-            for (Long memberUserId : request.getMemberIds()) {
-                CalendarEventMember cem = new CalendarEventMember();
-                cem.setEvent(event);
-                cem.setUser(new com.example.frly.user.User());
-                cem.getUser().setId(memberUserId);
-                calendarEventMemberRepository.save(cem);
-            }
+            calendarEventMemberRepository.saveAll(buildEventMembers(event, request.getMemberIds()));
+        }
+    }
+
+    // Collected up front so Hibernate can send all member inserts as one JDBC batch at flush
+    private List<CalendarEventMember> buildEventMembers(CalendarEvent event, java.util.Collection<Long> memberUserIds) {
+        List<CalendarEventMember> members = new java.util.ArrayList<>(memberUserIds.size());
+        for (Long memberUserId : new java.util.LinkedHashSet<>(memberUserIds)) {
+            CalendarEventMember cem = new CalendarEventMember();
+            cem.setEvent(event);
+            cem.setUser(new com.example.frly.user.User());
+            cem.getUser().setId(memberUserId);
+            members.add(cem);
+        }
+        return members;
+    }
+
+    private com.example.frly.section.model.RecurrenceFrequency parseRecurrenceFrequency(String value) {
+        try {
+            return com.example.frly.section.model.RecurrenceFrequency.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid recurrenceFrequency value");
+        }
+    }
+
+    private void validateRecurrence(CalendarEvent event) {
+        if (event.getRecurrenceFrequency() == null) {
+            return;
+        }
+        if (event.getRecurrenceInterval() != null && event.getRecurrenceInterval() < 1) {
+            throw new BadRequestException("recurrenceInterval must be at least 1");
+        }
+        if (event.getRecurrenceCount() != null && event.getRecurrenceCount() < 1) {
+            throw new BadRequestException("recurrenceCount must be at least 1");
+        }
+        if (event.getRecurrenceUntil() != null && event.getRecurrenceUntil().isBefore(event.getStartTime())) {
+            throw new BadRequestException("recurrenceUntil must not be before the first occurrence");
         }
     }
 
@@ -0,0 +1,175 @@
+package com.example.frly.section.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns net balances (long minor units, summing to zero) into a list of transfers.
+ * The greedy mode repeatedly matches the largest debtor with the largest creditor, giving at most
+ * n - 1 transfers in O(n log n). The exact mode finds the most disjoint zero-sum subgroups with a
+ * subset DP, which yields the true minimum (n - groups) but is O(2^n * n), so it is meant for small n.
+ */
+public final class SettlementCalculator {
+
+    // The DP keeps three arrays of 2^n entries; 20 members is about 16 MB
+    public static final int MAX_EXACT_MEMBERS = 20;
+
+    private SettlementCalculator() {}
+
+    // Indices refer to positions in the balances array
+    public record Transfer(int from, int to, long amount) {
+    }
+
+    public static List<Transfer> greedy(long[] balances) {
+        int[] all = new int[balances.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        List<Transfer> transfers = new ArrayList<>();
+        settleGroup(balances, all, all.length, transfers);
+        return transfers;
+    }
+
+    public static List<Transfer> exact(long[] balances) {
+        // Only non-zero balances take part; zero balances never need a transfer
+        int[] members = new int[balances.length];
+        int n = 0;
+        for (int i = 0; i < balances.length; i++) {
+            if (balances[i] != 0) {
+                members[n++] = i;
+            }
+        }
+        if (n > MAX_EXACT_MEMBERS) {
+            throw new IllegalArgumentException("Exact settlement supports at most " + MAX_EXACT_MEMBERS + " non-zero balances");
+        }
+
+        int full = (1 << n) - 1;
+        long[] sum = new long[full + 1];
+        int[] groups = new int[full + 1];
+        int[] removed = new int[full + 1];
+        for (int mask = 1; mask <= full; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            sum[mask] = sum[mask & (mask - 1)] + balances[members[low]];
+
+            // Best partition of mask: drop one member, add a group whenever the remaining set nets to zero
+            int best = -1;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = Integer.numberOfTrailingZeros(rest);
+                int candidate = groups[mask & ~(1 << bit)];
+                if (candidate > best) {
+                    best = candidate;
+                    removed[mask] = bit;
+                }
+            }
+            groups[mask] = best + (sum[mask] == 0 ? 1 : 0);
+        }
+
+        // Walk the removal order back; every zero-sum prefix closes one subgroup
+        List<Transfer> transfers = new ArrayList<>();
+        int[] group = new int[n];
+        int size = 0;
+        for (int mask = full; mask != 0; ) {
+            if (sum[mask] == 0 && size > 0) {
+                settleGroup(balances, group, size, transfers);
+                size = 0;
+            }
+            int bit = removed[mask];
+            group[size++] = members[bit];
+            mask &= ~(1 << bit);
+        }
+        settleGroup(balances, group, size, transfers);
+        return transfers;
+    }
+
+    // Largest debtor pays largest creditor until one side is cleared; a zero-sum group of k needs at most k - 1 transfers
+    private static void settleGroup(long[] balances, int[] indices, int count, List<Transfer> transfers) {
+        IndexHeap creditors = new IndexHeap(count);
+        IndexHeap debtors = new IndexHeap(count);
+        for (int i = 0; i < count; i++) {
+            int idx = indices[i];
+            if (balances[idx] > 0) {
+                creditors.push(idx, balances[idx]);
+            } else if (balances[idx] < 0) {
+                debtors.push(idx, -balances[idx]);
+            }
+        }
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long credit = creditors.topKey();
+            long debt = debtors.topKey();
+            int creditor = creditors.pop();
+            int debtor = debtors.pop();
+            long amount = Math.min(credit, debt);
+            transfers.add(new Transfer(debtor, creditor, amount));
+            if (credit > amount) {
+                creditors.push(creditor, credit - amount);
+            }
+            if (debt > amount) {
+                debtors.push(debtor, debt - amount);
+            }
+        }
+    }
+
+    // Binary max-heap of indices keyed by long amounts; avoids boxing in the hot loop
+    private static final class IndexHeap {
+        private final int[] indices;
+        private final long[] keys;
+        private int size;
+
+        IndexHeap(int capacity) {
+            this.indices = new int[Math.max(1, capacity)];
+            this.keys = new long[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long topKey() {
+            return keys[0];
+        }
+
+        void push(int index, long key) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] >= key) {
+                    break;
+                }
+                indices[i] = indices[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            indices[i] = index;
+            keys[i] = key;
+        }
+
+        int pop() {
+            int top = indices[0];
+            size--;
+            if (size > 0) {
+                int lastIndex = indices[size];
+                long lastKey = keys[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && keys[child + 1] > keys[child]) {
+                        child++;
+                    }
+                    if (keys[child] <= lastKey) {
+                        break;
+                    }
+                    indices[i] = indices[child];
+                    keys[i] = keys[child];
+                    i = child;
+                }
+                indices[i] = lastIndex;
+                keys[i] = lastKey;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.frly.section.service;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Splits a total (long minor units) into parts that always sum back to it exactly.
+ * Each part gets the floor of its proportional amount; the units left over are handed out one by one
+ * in order of largest remainder (ties go to the earlier part), i.e. the largest-remainder method.
+ */
+public final class SplitCalculator {
+
+    private SplitCalculator() {}
+
+    public static long[] equal(long total, int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("At least one part is required");
+        }
+        if (total < 0) {
+            throw new IllegalArgumentException("Total must not be negative");
+        }
+        // Every remainder is the same, so the leftover units simply go to the first parts
+        long[] result = new long[parts];
+        long base = total / parts;
+        long leftover = total % parts;
+        for (int i = 0; i < parts; i++) {
+            result[i] = i < leftover ? base + 1 : base;
+        }
+        return result;
+    }
+
+    public static long[] weighted(long total, long[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one part is required");
+        }
+        if (total < 0) {
+            throw new IllegalArgumentException("Total must not be negative");
+        }
+        long weightSum = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative");
+            }
+            weightSum = Math.addExact(weightSum, weight);
+        }
+        if (weightSum == 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        // Remainder and index packed into one long (remainder-major, lower index wins ties) so a plain
+        // primitive sort orders the leftover units without boxing or a comparator
+        long[] result = new long[n];
+        long[] keys = new long[n];
+        long allocated = 0;
+        for (int i = 0; i < n; i++) {
+            long quotient;
+            long remainder;
+            long product = total * weights[i];
+            if (Math.multiplyHigh(total, weights[i]) == 0 && product >= 0) {
+                quotient = product / weightSum;
+                remainder = product % weightSum;
+            } else {
+                BigInteger[] qr = BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i]))
+                        .divideAndRemainder(BigInteger.valueOf(weightSum));
+                quotient = qr[0].longValueExact();
+                remainder = qr[1].longValueExact();
+            }
+            result[i] = quotient;
+            allocated += quotient;
+            keys[i] = Math.addExact(Math.multiplyExact(remainder, (long) n), n - 1 - i);
+        }
+
+        // Floors lose less than one unit per part, so fewer than n units are left and each part gets at most one
+        long leftover = total - allocated;
+        Arrays.sort(keys);
+        for (int k = 0; k < leftover; k++) {
+            int index = n - 1 - (int) (keys[n - 1 - k] % n);
+            result[index]++;
+        }
+        return result;
+    }
+}
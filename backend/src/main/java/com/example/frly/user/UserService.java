@@ -1,6 +1,7 @@
 package com.example.frly.user;
 
 import com.example.frly.auth.dto.RegisterUserDto;
+import com.example.frly.common.cache.CacheInvalidationBus;
 import com.example.frly.common.storage.FileStorageService;
 import com.example.frly.user.dto.UserDto;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import java.util.List;
 import java.util.Optional;
 
 import static com.example.frly.constants.LogConstants.*;
@@ -20,6 +22,7 @@ public class UserService {
     private final UserMapper userMapper;
     private final BCryptPasswordEncoder passwordEncoder;
     private final FileStorageService fileStorageService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public UserDto createUser(RegisterUserDto registerUserDto) {
         log.info(USER_CREATE_START + ": " + registerUserDto.getEmail());
@@ -54,6 +57,7 @@ public class UserService {
         }
 
         User saved = userRepository.save(user);
+        cacheInvalidationBus.invalidate(UserSummaryCache.TOPIC, List.of(userId));
         return userMapper.toUserDto(saved);
     }
 
@@ -69,6 +73,7 @@ public class UserService {
 
             user.setPfpUrl(url);
             User saved = userRepository.save(user);
+            cacheInvalidationBus.invalidate(UserSummaryCache.TOPIC, List.of(userId));
             return userMapper.toUserDto(saved);
         } catch (Exception e) {
             log.error("Failed to upload avatar for user {}", userId, e);
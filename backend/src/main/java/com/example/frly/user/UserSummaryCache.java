@@ -0,0 +1,141 @@
+package com.example.frly.user;
+
+import com.example.frly.common.cache.CacheInvalidationListener;
+import com.example.frly.user.dto.UserSummaryDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared id -> user summary cache used to resolve audit names (createdBy/updatedBy).
+ * Lookups for a whole result set go through {@link #getAll(Collection)} so that
+ * missing ids are loaded with a single query instead of one per row.
+ * Profile changes evict on every node through CacheInvalidationBus; entries also expire after a
+ * fixed age as a backstop.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSummaryCache implements CacheInvalidationListener {
+
+    public static final String TOPIC = "user-summaries";
+
+    private final UserRepository userRepository;
+
+    @Value("${frly.users.summary-cache.max-entries:10000}")
+    private int maxEntries = 10_000;
+
+    @Value("${frly.users.summary-cache.ttl-ms:600000}")
+    private long ttlMs = 600_000;
+
+    // Bumped by every eviction; a load that started before one may not store its result
+    private long generation;
+
+    // Access-ordered so the least recently used summaries are dropped first
+    private final Map<Long, Cached> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private record Cached(UserSummaryDto summary, long expiresAt) {
+    }
+
+    public UserSummaryDto get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    public String getDisplayName(Long userId) {
+        UserSummaryDto summary = get(userId);
+        return summary != null ? summary.getDisplayName() : null;
+    }
+
+    public Map<Long, UserSummaryDto> getAll(Collection<Long> userIds) {
+        Map<Long, UserSummaryDto> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long seenGeneration;
+
+        synchronized (cache) {
+            seenGeneration = generation;
+            long now = System.currentTimeMillis();
+            for (Long id : userIds) {
+                if (id == null || result.containsKey(id)) {
+                    continue;
+                }
+                Cached cached = cache.get(id);
+                if (cached != null && cached.expiresAt() >= now) {
+                    result.put(id, cached.summary());
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<UserSummaryDto> loaded = userRepository.findAllById(missing).stream()
+                    .map(this::toSummary)
+                    .toList();
+            synchronized (cache) {
+                // An eviction since we started may mean what we loaded is already stale; use it but do not keep it
+                boolean keep = generation == seenGeneration;
+                long expiresAt = System.currentTimeMillis() + ttlMs;
+                for (UserSummaryDto summary : loaded) {
+                    if (keep) {
+                        cache.put(summary.getId(), new Cached(summary, expiresAt));
+                    }
+                    result.put(summary.getId(), summary);
+                }
+            }
+            log.debug("Loaded {} user summaries ({} requested)", loaded.size(), missing.size());
+        }
+
+        return result;
+    }
+
+    @Override
+    public String cacheTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void evict(String userId) {
+        evict(Long.valueOf(userId));
+    }
+
+    public void evict(Long userId) {
+        synchronized (cache) {
+            generation++;
+            cache.remove(userId);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        synchronized (cache) {
+            generation++;
+            cache.clear();
+        }
+    }
+
+    private UserSummaryDto toSummary(User user) {
+        return new UserSummaryDto(
+                user.getId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getPfpUrl());
+    }
+}
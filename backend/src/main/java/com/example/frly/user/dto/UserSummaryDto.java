@@ -0,0 +1,23 @@
+package com.example.frly.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String pfpUrl;
+
+    // "First Last", falling back to the email when no name is set
+    public String getDisplayName() {
+        String name = (firstName != null ? firstName : "")
+                + (lastName != null ? (" " + lastName) : "");
+        return name.trim().isEmpty() ? email : name.trim();
+    }
+}
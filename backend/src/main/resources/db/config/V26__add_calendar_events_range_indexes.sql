@@ -0,0 +1,10 @@
+-- Window queries: events starting inside [from, to) use the start_time index,
+-- events that started earlier but are still running at "from" use the end_time index.
+CREATE INDEX IF NOT EXISTS idx_calendar_events_group_section_start
+    ON calendar_events (group_id, section_id, start_time);
+
+CREATE INDEX IF NOT EXISTS idx_calendar_events_group_section_end
+    ON calendar_events (group_id, section_id, end_time);
+
+CREATE INDEX IF NOT EXISTS idx_calendar_event_members_event_id
+    ON calendar_event_members (event_id);
@@ -0,0 +1,13 @@
+-- Recurrence rule stored once on the series row; occurrences are expanded per requested window.
+ALTER TABLE calendar_events
+    ADD COLUMN IF NOT EXISTS recurrence_frequency VARCHAR(16),
+    ADD COLUMN IF NOT EXISTS recurrence_interval INT,
+    ADD COLUMN IF NOT EXISTS recurrence_count INT,
+    ADD COLUMN IF NOT EXISTS recurrence_until TIMESTAMPTZ,
+    ADD COLUMN IF NOT EXISTS recurrence_exceptions TEXT,
+    -- End of the last occurrence; NULL for open-ended series
+    ADD COLUMN IF NOT EXISTS recurrence_end_time TIMESTAMPTZ;
+
+CREATE INDEX IF NOT EXISTS idx_calendar_events_recurring_start
+    ON calendar_events (group_id, section_id, start_time)
+    WHERE recurrence_frequency IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Group-wide agenda: one ordered range scan per source across all sections of a group
+CREATE INDEX IF NOT EXISTS idx_calendar_events_group_start
+    ON calendar_events (group_id, start_time, id);
+
+CREATE INDEX IF NOT EXISTS idx_reminders_group_trigger
+    ON reminders (group_id, trigger_time, id)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX IF NOT EXISTS idx_list_items_group_due
+    ON list_items (group_id, due_date, id)
+    WHERE due_date IS NOT NULL AND status <> 'DELETED';
@@ -0,0 +1,3 @@
+-- Free/busy lookups start from the member side
+CREATE INDEX IF NOT EXISTS idx_calendar_event_members_user_event
+    ON calendar_event_members (group_id, user_id, event_id);
@@ -0,0 +1,4 @@
+-- Child rows now take ids from their sequence in blocks of 50 (Hibernate pooled optimizer)
+-- so inserts can be JDBC-batched; plain DEFAULT inserts still get unique ids
+ALTER SEQUENCE calendar_event_members_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payment_shares_id_seq INCREMENT BY 50;
@@ -0,0 +1,31 @@
+-- Materialized net balance per (section, user): paid minus owed over all active expenses
+CREATE TABLE IF NOT EXISTS payment_balances (
+    id BIGSERIAL PRIMARY KEY,
+    group_id VARCHAR(255) NOT NULL,
+    section_id BIGINT NOT NULL REFERENCES sections(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    balance NUMERIC(19,2) NOT NULL DEFAULT 0,
+
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+
+    CONSTRAINT uq_payment_balances_section_user UNIQUE (group_id, section_id, user_id)
+);
+
+-- Backfill from existing expenses so the ledger starts consistent
+INSERT INTO payment_balances (group_id, section_id, user_id, balance)
+SELECT d.group_id, d.section_id, d.user_id, SUM(d.delta)
+FROM (
+    SELECT e.group_id, e.section_id, e.paid_by_user_id AS user_id, e.total_amount AS delta
+    FROM payment_expenses e
+    WHERE e.status <> 'DELETED'
+    UNION ALL
+    SELECT e.group_id, e.section_id, s.user_id, -s.share_amount
+    FROM payment_shares s
+    JOIN payment_expenses e ON e.id = s.expense_id
+    WHERE e.status <> 'DELETED' AND s.status <> 'DELETED'
+) d
+GROUP BY d.group_id, d.section_id, d.user_id
+ON CONFLICT (group_id, section_id, user_id) DO NOTHING;
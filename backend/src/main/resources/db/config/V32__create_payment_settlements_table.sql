@@ -0,0 +1,25 @@
+-- "A paid B back" entries; they move balances without showing up as expenses
+CREATE TABLE IF NOT EXISTS payment_settlements (
+    id BIGSERIAL PRIMARY KEY,
+    group_id VARCHAR(255) NOT NULL,
+    section_id BIGINT NOT NULL REFERENCES sections(id) ON DELETE CASCADE,
+    from_user_id BIGINT NOT NULL REFERENCES users(id),
+    to_user_id BIGINT NOT NULL REFERENCES users(id),
+    amount NUMERIC(19,2) NOT NULL,
+    currency VARCHAR(16),
+    settled_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    note VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+
+    CONSTRAINT chk_payment_settlements_amount CHECK (amount > 0),
+    CONSTRAINT chk_payment_settlements_users CHECK (from_user_id <> to_user_id)
+);
+
+-- Newest-first history and from/to range queries within a section
+CREATE INDEX IF NOT EXISTS idx_payment_settlements_section_settled_at
+    ON payment_settlements (group_id, section_id, settled_at DESC, id DESC);
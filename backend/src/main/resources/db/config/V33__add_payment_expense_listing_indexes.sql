@@ -0,0 +1,21 @@
+-- Keyset pagination runs on (expense_date, id); give old rows a date and keep the column non-null
+UPDATE payment_expenses SET expense_date = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE expense_date IS NULL;
+ALTER TABLE payment_expenses ALTER COLUMN expense_date SET NOT NULL;
+
+-- Newest-first listing, optionally narrowed to one payer; deleted expenses are never listed
+CREATE INDEX IF NOT EXISTS idx_payment_expenses_section_date
+    ON payment_expenses (group_id, section_id, expense_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX IF NOT EXISTS idx_payment_expenses_section_payer_date
+    ON payment_expenses (group_id, section_id, paid_by_user_id, expense_date DESC, id DESC)
+    WHERE status <> 'DELETED';
+
+-- Participant filter and loading the shares of one page of expenses
+CREATE INDEX IF NOT EXISTS idx_payment_shares_user_expense
+    ON payment_shares (group_id, user_id, expense_id)
+    WHERE status <> 'DELETED';
+
+CREATE INDEX IF NOT EXISTS idx_payment_shares_expense
+    ON payment_shares (expense_id)
+    WHERE status <> 'DELETED';
@@ -0,0 +1,14 @@
+-- Daily FX rates loaded from a local file: units of the base currency (frly.fx.base-currency) per 1 unit of currency.
+-- The base currency itself has no rows; its rate is always 1.
+CREATE TABLE IF NOT EXISTS fx_rates (
+    currency VARCHAR(3) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate NUMERIC(24,10) NOT NULL,
+
+    PRIMARY KEY (currency, rate_date),
+    CONSTRAINT chk_fx_rates_rate CHECK (rate > 0)
+);
+
+-- Everything recorded so far was INR
+UPDATE payment_expenses SET currency = 'INR' WHERE currency IS NULL;
+UPDATE payment_settlements SET currency = 'INR' WHERE currency IS NULL;
@@ -0,0 +1,30 @@
+-- Optional free-text category on expenses (e.g. "Food", "Rent"); NULL means uncategorized
+ALTER TABLE payment_expenses ADD COLUMN IF NOT EXISTS category VARCHAR(50);
+
+-- Spend per (section, UTC month, member, category) in the base currency, where a member's spend is their share.
+-- Maintained incrementally on expense writes; '' stands for uncategorized so the unique key stays usable.
+CREATE TABLE IF NOT EXISTS payment_spend_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    group_id VARCHAR(255) NOT NULL,
+    section_id BIGINT NOT NULL REFERENCES sections(id) ON DELETE CASCADE,
+    spend_month DATE NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    category VARCHAR(50) NOT NULL DEFAULT '',
+    amount NUMERIC(19,2) NOT NULL DEFAULT 0,
+
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+
+    CONSTRAINT uq_payment_spend_rollups_key UNIQUE (group_id, section_id, spend_month, user_id, category)
+);
+
+-- Backfill from existing expenses; everything recorded so far is in the base currency
+INSERT INTO payment_spend_rollups (group_id, section_id, spend_month, user_id, category, amount)
+SELECT e.group_id, e.section_id, CAST(date_trunc('month', e.expense_date AT TIME ZONE 'UTC') AS DATE), s.user_id, '', SUM(s.share_amount)
+FROM payment_shares s
+JOIN payment_expenses e ON e.id = s.expense_id
+WHERE e.status <> 'DELETED' AND s.status <> 'DELETED'
+GROUP BY e.group_id, e.section_id, CAST(date_trunc('month', e.expense_date AT TIME ZONE 'UTC') AS DATE), s.user_id
+ON CONFLICT (group_id, section_id, spend_month, user_id, category) DO NOTHING;
@@ -0,0 +1,59 @@
+-- Recurring expense templates (rent, subscriptions); a scheduled job posts each due occurrence as a regular expense
+CREATE TABLE IF NOT EXISTS payment_recurring_expenses (
+    id BIGSERIAL PRIMARY KEY,
+    group_id VARCHAR(255) NOT NULL,
+    section_id BIGINT NOT NULL REFERENCES sections(id) ON DELETE CASCADE,
+    paid_by_user_id BIGINT NOT NULL REFERENCES users(id),
+    description VARCHAR(255),
+    category VARCHAR(50),
+    total_amount NUMERIC(19,2) NOT NULL,
+    currency VARCHAR(16) NOT NULL,
+    frequency VARCHAR(20) NOT NULL,
+    interval_count INTEGER NOT NULL DEFAULT 1,
+    starts_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    ends_at TIMESTAMP WITH TIME ZONE,
+    -- Occurrence n is due at starts_at + n * interval; next_due_at is NULL once the series is over
+    occurrences_posted INTEGER NOT NULL DEFAULT 0,
+    next_due_at TIMESTAMP WITH TIME ZONE,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+
+    CONSTRAINT chk_payment_recurring_expenses_amount CHECK (total_amount > 0),
+    CONSTRAINT chk_payment_recurring_expenses_interval CHECK (interval_count > 0)
+);
+
+-- The materializer's due query across all groups
+CREATE INDEX IF NOT EXISTS idx_payment_recurring_expenses_due
+    ON payment_recurring_expenses (next_due_at)
+    WHERE status = 'ACTIVE' AND next_due_at IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_payment_recurring_expenses_section
+    ON payment_recurring_expenses (group_id, section_id);
+
+-- Share layout copied onto every posted occurrence
+CREATE TABLE IF NOT EXISTS payment_recurring_shares (
+    id BIGSERIAL PRIMARY KEY,
+    group_id VARCHAR(255) NOT NULL,
+    recurring_expense_id BIGINT NOT NULL REFERENCES payment_recurring_expenses(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    share_amount NUMERIC(19,2) NOT NULL,
+
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+
+    CONSTRAINT uq_payment_recurring_shares_user UNIQUE (recurring_expense_id, user_id)
+);
+
+ALTER TABLE payment_expenses
+    ADD COLUMN IF NOT EXISTS recurring_expense_id BIGINT REFERENCES payment_recurring_expenses(id) ON DELETE SET NULL;
+
+-- At most one expense per template occurrence, even if the job runs twice for the same due time
+CREATE UNIQUE INDEX IF NOT EXISTS uq_payment_expenses_recurring_occurrence
+    ON payment_expenses (recurring_expense_id, expense_date)
+    WHERE recurring_expense_id IS NOT NULL;
@@ -0,0 +1,8 @@
+-- Keyset listing newest first: WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC.
+-- Its user_id prefix also covers the old single-column index.
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created ON config.notifications(user_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS config.idx_notifications_user_id;
+
+-- Unread count and bulk mark-read only ever look at unread rows
+CREATE INDEX IF NOT EXISTS idx_notifications_user_unread_only ON config.notifications(user_id, id) WHERE is_read = FALSE;
+DROP INDEX IF EXISTS config.idx_notifications_user_unread;
@@ -0,0 +1,10 @@
+-- Repeated notifications about the same thing share a collapse key (e.g. "group:42" for join requests);
+-- compaction folds unread rows with the same (user, type, key) into the newest one and counts them in occurrences
+ALTER TABLE config.notifications ADD COLUMN IF NOT EXISTS collapse_key VARCHAR(100);
+ALTER TABLE config.notifications ADD COLUMN IF NOT EXISTS occurrences INT NOT NULL DEFAULT 1;
+
+CREATE INDEX IF NOT EXISTS idx_notifications_collapsible
+    ON config.notifications(user_id, type, collapse_key, id) WHERE collapse_key IS NOT NULL AND is_read = FALSE;
+
+-- Retention scans read rows by age
+CREATE INDEX IF NOT EXISTS idx_notifications_read_created ON config.notifications(created_at) WHERE is_read = TRUE;
@@ -0,0 +1,5 @@
+-- Notifications are stored as a type code plus ids and rendered when read, so renamed users/groups show current names.
+-- message is only kept for rows that could not be converted; new rows leave it NULL.
+ALTER TABLE config.notifications ADD COLUMN IF NOT EXISTS actor_user_id BIGINT REFERENCES config.users(id) ON DELETE SET NULL;
+ALTER TABLE config.notifications ADD COLUMN IF NOT EXISTS target_group_id BIGINT REFERENCES config.groups(id) ON DELETE SET NULL;
+ALTER TABLE config.notifications ALTER COLUMN message DROP NOT NULL;
@@ -0,0 +1,61 @@
+-- Converts pre-rendered notification text into (type, actor_user_id, target_group_id).
+-- Runs outside a Flyway transaction and commits every 5000 ids, so no long lock is held on the table.
+-- Names are resolved through the recipient's memberships; ambiguous or unmatched rows keep their text.
+DO $$
+DECLARE
+    batch_start BIGINT := 0;
+    last_id BIGINT;
+BEGIN
+    SELECT COALESCE(MAX(id), 0) INTO last_id FROM config.notifications;
+    WHILE batch_start < last_id LOOP
+        WITH parsed AS (
+            SELECT n.id, n.user_id, t.new_type, t.has_actor,
+                   CASE WHEN t.has_actor THEN m.parts[1] END AS actor_name,
+                   CASE WHEN t.has_actor THEN m.parts[2] ELSE m.parts[1] END AS group_name
+            FROM config.notifications n
+            JOIN (VALUES
+                ('GROUP_JOIN_REQUEST', '^(.+) requested to join group ''(.*)''$', 'GROUP_JOIN_REQUEST', TRUE),
+                ('GROUP_JOIN_REQUEST', '^(.+) requested to rejoin group ''(.*)''$', 'GROUP_REJOIN_REQUEST', TRUE),
+                ('GROUP_MEMBER_LEFT', '^(.+) left group ''(.*)''$', 'GROUP_MEMBER_LEFT', TRUE),
+                ('GROUP_JOIN_APPROVED', '^Your request to join group ''(.*)'' has been approved\.$', 'GROUP_JOIN_APPROVED', FALSE),
+                ('GROUP_LEFT', '^You left group ''(.*)''\.$', 'GROUP_LEFT', FALSE),
+                ('GROUP_MEMBER_REMOVED', '^You have been removed from group ''(.*)'' by an admin\.$', 'GROUP_MEMBER_REMOVED', FALSE)
+            ) AS t(type, pattern, new_type, has_actor) ON t.type = n.type
+            CROSS JOIN LATERAL regexp_match(n.message, t.pattern) AS m(parts)
+            WHERE n.id > batch_start AND n.id <= batch_start + 5000
+              AND n.message IS NOT NULL AND m.parts IS NOT NULL
+        ),
+        resolved AS (
+            SELECT p.id, p.new_type, g.group_id, a.actor_id
+            FROM parsed p
+            CROSS JOIN LATERAL (
+                SELECT MIN(gr.id) AS group_id
+                FROM config.groups gr
+                JOIN config.group_members rm ON rm.group_id = gr.id AND rm.user_id = p.user_id
+                WHERE gr.display_name = p.group_name
+                HAVING COUNT(DISTINCT gr.id) = 1
+            ) g
+            LEFT JOIN LATERAL (
+                -- The old text was "first last" with a missing last name printed as "null"
+                SELECT MIN(u.id) AS actor_id
+                FROM config.group_members am
+                JOIN config.users u ON u.id = am.user_id
+                WHERE am.group_id = g.group_id
+                  AND u.first_name || ' ' || COALESCE(u.last_name, 'null') = p.actor_name
+                HAVING COUNT(DISTINCT u.id) = 1
+            ) a ON TRUE
+            WHERE NOT p.has_actor OR a.actor_id IS NOT NULL
+        )
+        UPDATE config.notifications n
+        SET type = r.new_type,
+            actor_user_id = r.actor_id,
+            target_group_id = r.group_id,
+            collapse_key = CASE WHEN r.new_type IN ('GROUP_JOIN_REQUEST', 'GROUP_REJOIN_REQUEST') THEN 'group:' || r.group_id END,
+            message = NULL
+        FROM resolved r
+        WHERE n.id = r.id;
+
+        COMMIT;
+        batch_start := batch_start + 5000;
+    END LOOP;
+END $$;
@@ -0,0 +1,13 @@
+-- Per-owner key version of a calendar subscription feed; feed tokens carry the version they were issued
+-- with and stop working once it is bumped. No row means version 0.
+CREATE TABLE IF NOT EXISTS calendar_feed_keys (
+    group_id VARCHAR(255) NOT NULL,
+    section_id BIGINT NOT NULL REFERENCES sections(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    key_version INTEGER NOT NULL,
+
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (group_id, section_id, user_id)
+);
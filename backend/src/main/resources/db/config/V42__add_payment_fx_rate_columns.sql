@@ -0,0 +1,23 @@
+-- Rate each expense and settlement was converted at when it was written. The ledger, the spend rollups and
+-- their rebuilds all use it, so a later correction in fx_rates no longer re-prices booked history.
+ALTER TABLE payment_expenses ADD COLUMN IF NOT EXISTS fx_rate NUMERIC(24,10);
+ALTER TABLE payment_settlements ADD COLUMN IF NOT EXISTS fx_rate NUMERIC(24,10);
+
+-- Existing rows get the rate the rebuild used until now; base-currency rows have no fx_rates and convert at 1
+UPDATE payment_expenses e SET fx_rate = COALESCE((
+    SELECT f.rate FROM fx_rates f
+    WHERE f.currency = e.currency AND f.rate_date <= CAST(e.expense_date AT TIME ZONE 'UTC' AS DATE)
+    ORDER BY f.rate_date DESC LIMIT 1), 1)
+WHERE fx_rate IS NULL;
+
+UPDATE payment_settlements e SET fx_rate = COALESCE((
+    SELECT f.rate FROM fx_rates f
+    WHERE f.currency = e.currency AND f.rate_date <= CAST(e.settled_at AT TIME ZONE 'UTC' AS DATE)
+    ORDER BY f.rate_date DESC LIMIT 1), 1)
+WHERE fx_rate IS NULL;
+
+ALTER TABLE payment_expenses ALTER COLUMN fx_rate SET NOT NULL;
+ALTER TABLE payment_settlements ALTER COLUMN fx_rate SET NOT NULL;
+
+ALTER TABLE payment_expenses ADD CONSTRAINT chk_payment_expenses_fx_rate CHECK (fx_rate > 0);
+ALTER TABLE payment_settlements ADD CONSTRAINT chk_payment_settlements_fx_rate CHECK (fx_rate > 0);
@@ -0,0 +1,203 @@
+package com.example.frly.common.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two application contexts, standing in for two nodes, share one PostgreSQL. Checks that evictions reach
+ * the other node only once the sending transaction commits, that a node ignores its own messages, and
+ * that a node clears everything after its listener connection is re-established.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CacheInvalidationBusTest {
+
+    private static final String TOPIC = "test-cache";
+    private static final Duration DELIVERY = Duration.ofSeconds(10);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    // Records what the bus delivered on one node
+    static class RecordingListener implements CacheInvalidationListener {
+        final List<String> evicted = new CopyOnWriteArrayList<>();
+        final AtomicInteger evictAllCalls = new AtomicInteger();
+
+        @Override
+        public String cacheTopic() {
+            return TOPIC;
+        }
+
+        @Override
+        public void evict(String key) {
+            evicted.add(key);
+        }
+
+        @Override
+        public void evictAll() {
+            evictAllCalls.incrementAndGet();
+        }
+    }
+
+    // Not @Configuration: only used as the primary source, so tests that boot the whole application
+    // from com.example.frly don't pick it up in their component scan
+    @EnableConfigurationProperties
+    @Import(CacheInvalidationBus.class)
+    static class NodeConfig {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource")
+        DataSourceProperties dataSourceProperties() {
+            return new DataSourceProperties();
+        }
+
+        @Bean
+        DataSource dataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().build();
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(DataSource dataSource) {
+            return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+        // Both listeners are up once each has cleared its caches on connect
+        await().atMost(DELIVERY).until(() -> listener(nodeA).evictAllCalls.get() > 0 && listener(nodeB).evictAllCalls.get() > 0);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @BeforeEach
+    void clearRecordings() {
+        listener(nodeA).evicted.clear();
+        listener(nodeB).evicted.clear();
+    }
+
+    @Test
+    void evictionReachesOtherNodeOnlyAfterCommit() {
+        CacheInvalidationBus busA = nodeA.getBean(CacheInvalidationBus.class);
+
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            busA.invalidate(TOPIC, List.of(42L));
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            assertThat(listener(nodeB).evicted).isEmpty();
+            assertThat(listener(nodeA).evicted).isEmpty();
+        });
+
+        await().atMost(DELIVERY).until(() -> listener(nodeB).evicted.contains("42"));
+        // Evicted locally after commit, and not a second time when its own NOTIFY comes back
+        assertThat(listener(nodeA).evicted).containsExactly("42");
+    }
+
+    @Test
+    void rolledBackEvictionIsNeverSent() {
+        nodeA.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            nodeA.getBean(CacheInvalidationBus.class).invalidate(TOPIC, List.of("rolled-back"));
+            status.setRollbackOnly();
+        });
+        // Sent after the rolled-back one, so once it arrives the first would have too
+        nodeA.getBean(CacheInvalidationBus.class).invalidateRemote(TOPIC, List.of("marker"));
+
+        await().atMost(DELIVERY).until(() -> listener(nodeB).evicted.contains("marker"));
+        assertThat(listener(nodeB).evicted).containsExactly("marker");
+        assertThat(listener(nodeA).evicted).isEmpty();
+    }
+
+    @Test
+    void nodeSkipsItsOwnMessages() {
+        nodeA.getBean(CacheInvalidationBus.class).invalidateRemote(TOPIC, List.of("from-a"));
+        nodeB.getBean(CacheInvalidationBus.class).invalidateRemote(TOPIC, List.of("from-b"));
+
+        await().atMost(DELIVERY).until(() -> listener(nodeA).evicted.contains("from-b") && listener(nodeB).evicted.contains("from-a"));
+        assertThat(listener(nodeA).evicted).containsExactly("from-b");
+        assertThat(listener(nodeB).evicted).containsExactly("from-a");
+    }
+
+    @Test
+    void reconnectEvictsEverything() {
+        int before = listener(nodeB).evictAllCalls.get();
+
+        // Kill node B's listener session the way a network drop or server restart would
+        Integer killed = nodeA.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(pg_terminate_backend(pid)) FROM pg_stat_activity " +
+                "WHERE application_name = 'node-b' AND query LIKE 'LISTEN%'", Integer.class);
+        assertThat(killed).isEqualTo(1);
+
+        await().atMost(DELIVERY).until(() -> listener(nodeB).evictAllCalls.get() > before);
+
+        // And it listens again afterwards
+        nodeA.getBean(CacheInvalidationBus.class).invalidateRemote(TOPIC, List.of("after-reconnect"));
+        await().atMost(DELIVERY).until(() -> listener(nodeB).evicted.contains("after-reconnect"));
+    }
+
+    private static ConfigurableApplicationContext startNode(String name) {
+        return new SpringApplicationBuilder(NodeConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                // As arguments, so they win over application.properties on the classpath
+                .run("--spring.datasource.url=" + POSTGRES.getJdbcUrl() + "&ApplicationName=" + name,
+                        "--spring.datasource.username=" + POSTGRES.getUsername(),
+                        "--spring.datasource.password=" + POSTGRES.getPassword(),
+                        "--frly.cache.invalidation.poll-timeout-ms=200",
+                        "--frly.cache.invalidation.reconnect-delay-ms=200");
+    }
+
+    private static RecordingListener listener(ConfigurableApplicationContext node) {
+        return node.getBean(RecordingListener.class);
+    }
+}
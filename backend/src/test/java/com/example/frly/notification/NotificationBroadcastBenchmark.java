@@ -0,0 +1,122 @@
+package com.example.frly.notification;
+
+import com.example.frly.common.cache.CacheInvalidationBus;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One notification to every member of a large group: NotificationPublisher's batched write against one
+ * INSERT per recipient, both in a single transaction on a Testcontainers PostgreSQL (needs Docker).
+ * Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationBroadcastBenchmark {
+
+    private static final String PER_ROW_INSERT_SQL =
+            "INSERT INTO config.notifications (user_id, type, actor_user_id, occurrences, is_read, created_at) " +
+            "VALUES (?, ?, ?, 1, FALSE, ?)";
+
+    @Param({"1000"})
+    private int members;
+
+    private PostgreSQLContainer<?> postgres;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private NotificationPublisher publisher;
+    private List<Long> recipients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/config")
+                .defaultSchema("config")
+                .placeholders(Map.of("config_schema", "config"))
+                .load()
+                .migrate();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl() + "&reWriteBatchedInserts=true", postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        recipients = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            recipients.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO config.users (first_name, last_name, email, encrypted_password) VALUES ('M', ?, ?, 'x') RETURNING id",
+                    Long.class, String.valueOf(i), "member-" + i + "@example.com"));
+        }
+
+        // Nobody has a stream open, so nothing is rendered or pushed; only the write path is measured
+        publisher = new NotificationPublisher(jdbcTemplate, transactionManager, new NotificationStreams(null, null),
+                new NotificationUnreadCounter(null), null, new CacheInvalidationBus(jdbcTemplate, null, null));
+        // Written on the calling thread so the benchmark times the insert, not the hand-off to the pool
+        ReflectionTestUtils.setField(publisher, "asyncThreshold", Integer.MAX_VALUE);
+        publisher.init();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearNotifications() {
+        jdbcTemplate.update("TRUNCATE config.notifications");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        publisher.shutdown();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void publisherBatched() {
+        publisher.publish(recipients, NotificationTypes.GROUP_JOIN_APPROVED, recipients.get(0), null, null);
+    }
+
+    @Benchmark
+    public void perRowInsert() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Long userId : recipients) {
+                jdbcTemplate.update(PER_ROW_INSERT_SQL, userId, NotificationTypes.GROUP_JOIN_APPROVED, recipients.get(0), now);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NotificationBroadcastBenchmark.class.getSimpleName()).build()).run();
+    }
+}
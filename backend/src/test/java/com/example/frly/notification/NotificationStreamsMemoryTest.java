@@ -0,0 +1,190 @@
+package com.example.frly.notification;
+
+import com.example.frly.auth.JwtUserPrincipal;
+import com.sun.management.UnixOperatingSystemMXBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * What an idle notification stream costs the server: opens real HTTP connections to NotificationController on an
+ * embedded Tomcat and checks the heap retained per connection, so a change that starts holding more per stream
+ * (buffers, threads, a replay list) shows up here. Only the web layer is started; a filter stands in for the JWT.
+ */
+class NotificationStreamsMemoryTest {
+
+    private static final int CONNECTIONS = 2_000;
+
+    // Measured around 105 KB per connection. Nearly all of it is Tomcat's buffers for the open request (socket,
+    // header, and the connector's byte and char buffers), held as long as the async request lasts; the emitter
+    // and map entry are under 1 KB. Also counts this test's client-side SocketChannel
+    private static final long MAX_BYTES_PER_CONNECTION = 128 * 1024;
+
+    private static ServletWebServerApplicationContext server;
+    private static NotificationStreams streams;
+    private static int port;
+
+    // Only the parts of the application an open stream touches
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    static class StreamServer {
+
+        @Bean
+        NotificationStreams notificationStreams() {
+            return new NotificationStreams(mock(NotificationRepository.class), mock(NotificationRenderer.class));
+        }
+
+        @Bean
+        NotificationController notificationController(NotificationStreams notificationStreams) {
+            return new NotificationController(mock(NotificationService.class), notificationStreams);
+        }
+
+        @Bean
+        TestPrincipalFilter testPrincipalFilter() {
+            return new TestPrincipalFilter();
+        }
+    }
+
+    // Signs the request in as the user named in X-User-Id, as JwtAuthenticationFilter would from a token
+    static class TestPrincipalFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            Long userId = Long.valueOf(request.getHeader("X-User-Id"));
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(new JwtUserPrincipal(userId, null), null, List.of()));
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }
+    }
+
+    @BeforeAll
+    static void startServer() {
+        // Each connection takes a descriptor on both ends
+        assumeTrue(ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean os
+                && os.getMaxFileDescriptorCount() - os.getOpenFileDescriptorCount() > 2L * CONNECTIONS + 500,
+                "not enough file descriptors for " + CONNECTIONS + " connections");
+        server = (ServletWebServerApplicationContext) new SpringApplicationBuilder(StreamServer.class)
+                .web(WebApplicationType.SERVLET)
+                .bannerMode(Banner.Mode.OFF)
+                // As arguments, so they win over application.properties on the classpath
+                .run("--server.port=0", "--logging.level.root=ERROR");
+        streams = server.getBean(NotificationStreams.class);
+        port = server.getWebServer().getPort();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void idleConnectionsStayWithinBudget() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        List<SocketChannel> connections = new ArrayList<>(CONNECTIONS + 1);
+        try {
+            // Loads the classes and starts the threads a first request needs, so they are not counted
+            connections.add(open(0, buffer));
+
+            long before = usedHeap();
+            for (long userId = 1; userId <= CONNECTIONS; userId++) {
+                connections.add(open(userId, buffer));
+            }
+            long after = usedHeap();
+
+            assertThat(streams.connectionCount()).isEqualTo(CONNECTIONS + 1);
+            long perConnection = (after - before) / CONNECTIONS;
+            assertThat(perConnection)
+                    .as("retained bytes per idle stream connection")
+                    .isLessThan(MAX_BYTES_PER_CONNECTION);
+
+            // Heartbeats reach every connection without dropping any
+            streams.heartbeat();
+            for (SocketChannel connection : connections) {
+                readUntil(connection, buffer, ":hb");
+            }
+            assertThat(streams.connectionCount()).isEqualTo(CONNECTIONS + 1);
+        } finally {
+            for (SocketChannel connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    // Opens a stream and waits for the server's "connected" comment
+    private static SocketChannel open(long userId, ByteBuffer buffer) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+        String request = "GET /api/notifications/stream HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "Accept: text/event-stream\r\n" +
+                "X-User-Id: " + userId + "\r\n\r\n";
+        channel.write(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+        readUntil(channel, buffer, ":connected");
+        return channel;
+    }
+
+    private static void readUntil(SocketChannel channel, ByteBuffer buffer, String marker) throws IOException {
+        StringBuilder received = new StringBuilder();
+        while (received.indexOf(marker) < 0) {
+            buffer.clear();
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Stream closed before " + marker + ": " + received);
+            }
+            buffer.flip();
+            received.append(StandardCharsets.US_ASCII.decode(buffer));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // A few rounds so the figure settles; System.gc() is only a hint
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.frly.section.service;
+
+import com.example.frly.FrlyApplication;
+import com.example.frly.common.GroupAwareEntity;
+import com.example.frly.group.service.GroupService;
+import com.example.frly.section.dto.CreateCalendarEventRequestDto;
+import com.example.frly.section.dto.CreatePaymentExpenseRequestDto;
+import com.example.frly.section.model.CalendarEvent;
+import com.example.frly.section.model.PaymentExpense;
+import com.example.frly.section.model.PaymentShare;
+import com.example.frly.section.model.Section;
+import com.example.frly.section.repository.CalendarEventRepository;
+import com.example.frly.section.repository.PaymentExpenseRepository;
+import com.example.frly.support.FrlyTestEnvironment;
+import com.example.frly.user.User;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Creating a 20-member calendar event and a 15-way expense split through SectionService and PaymentService,
+ * whose member and share rows take pooled sequence ids and go out as one rewritten JDBC batch, against the
+ * same work with IDENTITY ids and one save per row as before. Boots the whole application on a
+ * Testcontainers PostgreSQL with reWriteBatchedInserts=true (needs Docker).
+ * Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchedInsertBenchmark {
+
+    private static final int EVENT_MEMBERS = 20;
+    private static final int EXPENSE_SHARES = 15;
+
+    // The old mappings: IDENTITY ids, so Hibernate inserts each row as soon as it is persisted
+    @Entity(name = "LegacyCalendarEventMember")
+    @Table(name = "calendar_event_members", schema = "config")
+    @Getter
+    @Setter
+    public static class LegacyCalendarEventMember extends GroupAwareEntity {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "event_id", nullable = false)
+        private CalendarEvent event;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "user_id", nullable = false)
+        private User user;
+    }
+
+    @Entity(name = "LegacyPaymentShare")
+    @Table(name = "payment_shares", schema = "config")
+    @Getter
+    @Setter
+    public static class LegacyPaymentShare extends GroupAwareEntity {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "expense_id", nullable = false)
+        private PaymentExpense expense;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "user_id", nullable = false)
+        private User user;
+
+        @Column(name = "share_amount", nullable = false, precision = 19, scale = 2)
+        private BigDecimal shareAmount;
+
+        @Column(nullable = false)
+        private String status = "ACTIVE";
+    }
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private SectionService sectionService;
+    private PaymentService paymentService;
+    private GroupService groupService;
+    private FxRateService fxRateService;
+    private PaymentBalanceLedger paymentBalanceLedger;
+    private PaymentSpendRollups paymentSpendRollups;
+    private CalendarEventRepository calendarEventRepository;
+    private PaymentExpenseRepository paymentExpenseRepository;
+
+    private List<Long> members;
+    private Long groupId;
+    private Long calendarSectionId;
+    private Long paymentSectionId;
+    private CreateCalendarEventRequestDto eventRequest;
+    private CreatePaymentExpenseRequestDto expenseRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        // application.properties already turns on reWriteBatchedInserts for the pool
+        context = new SpringApplicationBuilder(FrlyApplication.class)
+                .run(FrlyTestEnvironment.args(postgres));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        sectionService = context.getBean(SectionService.class);
+        paymentService = context.getBean(PaymentService.class);
+        groupService = context.getBean(GroupService.class);
+        fxRateService = context.getBean(FxRateService.class);
+        paymentBalanceLedger = context.getBean(PaymentBalanceLedger.class);
+        paymentSpendRollups = context.getBean(PaymentSpendRollups.class);
+        calendarEventRepository = context.getBean(CalendarEventRepository.class);
+        paymentExpenseRepository = context.getBean(PaymentExpenseRepository.class);
+
+        members = new ArrayList<>(EVENT_MEMBERS);
+        for (int i = 0; i < EVENT_MEMBERS; i++) {
+            members.add(FrlyTestEnvironment.createUser(jdbcTemplate, "member" + i));
+        }
+        groupId = FrlyTestEnvironment.createGroup(jdbcTemplate, members);
+        calendarSectionId = FrlyTestEnvironment.createSection(jdbcTemplate, groupId, "CALENDAR");
+        paymentSectionId = FrlyTestEnvironment.createSection(jdbcTemplate, groupId, "PAYMENT");
+
+        eventRequest = new CreateCalendarEventRequestDto();
+        eventRequest.setTitle("Team dinner");
+        eventRequest.setStartTime(LocalDateTime.of(2026, 3, 6, 19, 0));
+        eventRequest.setEndTime(LocalDateTime.of(2026, 3, 6, 22, 0));
+        eventRequest.setMemberIds(members);
+
+        expenseRequest = new CreatePaymentExpenseRequestDto();
+        expenseRequest.setDescription("Team dinner");
+        expenseRequest.setTotalAmount(new BigDecimal("1500.00"));
+        expenseRequest.setExpenseDate(OffsetDateTime.parse("2026-03-06T22:00:00Z"));
+        expenseRequest.setPaidByUserId(members.get(0));
+        List<CreatePaymentExpenseRequestDto.ShareInput> shares = new ArrayList<>(EXPENSE_SHARES);
+        for (Long userId : members.subList(0, EXPENSE_SHARES)) {
+            CreatePaymentExpenseRequestDto.ShareInput share = new CreatePaymentExpenseRequestDto.ShareInput();
+            share.setUserId(userId);
+            share.setShareAmount(new BigDecimal("100.00"));
+            shares.add(share);
+        }
+        expenseRequest.setShares(shares);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearRows() {
+        jdbcTemplate.update("TRUNCATE config.calendar_event_members, config.calendar_events, " +
+                "config.payment_shares, config.payment_expenses, config.payment_balances, config.payment_spend_rollups CASCADE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Long eventSequenceBatched() {
+        return asMember(() -> sectionService.addCalendarEvent(calendarSectionId, eventRequest));
+    }
+
+    // SectionService.addCalendarEvent before the switch: the event, then one save per member
+    @Benchmark
+    public Long eventIdentityLoop() {
+        return asMember(() -> transactionTemplate.execute(status -> {
+            groupService.validateGroupAccess(members.get(0), String.valueOf(groupId));
+            CalendarEvent event = new CalendarEvent();
+            event.setSection(entityManager.getReference(Section.class, calendarSectionId));
+            event.setTitle(eventRequest.getTitle());
+            event.setStartTime(eventRequest.getStartTime());
+            event.setEndTime(eventRequest.getEndTime());
+            event = calendarEventRepository.save(event);
+            for (Long userId : eventRequest.getMemberIds()) {
+                LegacyCalendarEventMember member = new LegacyCalendarEventMember();
+                member.setEvent(event);
+                member.setUser(entityManager.getReference(User.class, userId));
+                entityManager.persist(member);
+            }
+            return event.getId();
+        }));
+    }
+
+    @Benchmark
+    public Long expenseSequenceBatched() {
+        return asMember(() -> paymentService.addExpense(paymentSectionId, expenseRequest));
+    }
+
+    // PaymentService.addExpense before the switch: the expense, one save per share, then the same ledger
+    // and rollup updates
+    @Benchmark
+    public Long expenseIdentityLoop() {
+        return asMember(() -> transactionTemplate.execute(status -> {
+            groupService.validateGroupAccess(members.get(0), String.valueOf(groupId));
+            PaymentExpense expense = new PaymentExpense();
+            expense.setSection(entityManager.getReference(Section.class, paymentSectionId));
+            expense.setPaidBy(entityManager.getReference(User.class, expenseRequest.getPaidByUserId()));
+            expense.setDescription(expenseRequest.getDescription());
+            expense.setTotalAmount(expenseRequest.getTotalAmount());
+            expense.setCurrency(fxRateService.normalizeCurrency(expenseRequest.getCurrency()));
+            expense.setExpenseDate(expenseRequest.getExpenseDate());
+            expense.setFxRate(fxRateService.rateFor(expense.getCurrency(), expense.getExpenseDate()));
+            expense = paymentExpenseRepository.save(expense);
+
+            List<PaymentShare> applied = new ArrayList<>(EXPENSE_SHARES);
+            for (CreatePaymentExpenseRequestDto.ShareInput input : expenseRequest.getShares()) {
+                LegacyPaymentShare share = new LegacyPaymentShare();
+                share.setExpense(expense);
+                share.setUser(entityManager.getReference(User.class, input.getUserId()));
+                share.setShareAmount(input.getShareAmount());
+                entityManager.persist(share);
+
+                // Only read for the ledger and rollup deltas, never persisted
+                PaymentShare view = new PaymentShare();
+                view.setUser(share.getUser());
+                view.setShareAmount(share.getShareAmount());
+                applied.add(view);
+            }
+            paymentBalanceLedger.applyExpense(expense, applied, members.get(0));
+            paymentSpendRollups.applyExpense(expense, applied, members.get(0));
+            return expense.getId();
+        }));
+    }
+
+    // The benchmark thread acts as the group's admin, as a request would after the JWT and group filters
+    private Long asMember(Supplier<Long> action) {
+        FrlyTestEnvironment.signIn(members.get(0), groupId);
+        try {
+            return action.get();
+        } finally {
+            FrlyTestEnvironment.signOut();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BatchedInsertBenchmark.class.getSimpleName()).build()).run();
+    }
+}
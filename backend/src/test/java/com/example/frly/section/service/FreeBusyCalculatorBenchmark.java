@@ -0,0 +1,85 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.dto.TimeSlotDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free/busy over a group's expanded events, as FreeBusyService runs it: busy time merged per member and
+ * the common free slots of all members, for thousands of intervals in a 90-day window.
+ * Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreeBusyCalculatorBenchmark {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(90);
+    private static final Duration MIN_SLOT = Duration.ofMinutes(30);
+
+    @Param({"5", "20"})
+    private int members;
+
+    @Param({"1000", "5000", "20000"})
+    private int intervals;
+
+    private Map<Long, List<TimeSlotDto>> busyByUser;
+    private List<TimeSlotDto> allBusy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(31L);
+        busyByUser = new TreeMap<>();
+        allBusy = new ArrayList<>(intervals);
+        long windowMinutes = Duration.between(FROM, TO).toMinutes();
+        for (int i = 0; i < intervals; i++) {
+            // Quarter-hour aligned events of 15 minutes to 3 hours, some reaching past the window edges
+            LocalDateTime start = FROM.plusMinutes(15 * (random.nextLong(windowMinutes / 15 + 8) - 4));
+            TimeSlotDto slot = new TimeSlotDto(start, start.plusMinutes(15L * (1 + random.nextInt(12))));
+            busyByUser.computeIfAbsent((long) random.nextInt(members), id -> new ArrayList<>()).add(slot);
+            allBusy.add(slot);
+        }
+    }
+
+    @Benchmark
+    public Map<Long, List<TimeSlotDto>> mergePerMember() {
+        Map<Long, List<TimeSlotDto>> merged = new TreeMap<>();
+        busyByUser.forEach((userId, busy) -> merged.put(userId, FreeBusyCalculator.mergeBusy(busy, FROM, TO)));
+        return merged;
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> commonFreeSlots() {
+        return FreeBusyCalculator.freeSlots(FreeBusyCalculator.mergeBusy(allBusy, FROM, TO), FROM, TO, MIN_SLOT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FreeBusyCalculatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
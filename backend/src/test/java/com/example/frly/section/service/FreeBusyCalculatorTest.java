@@ -0,0 +1,58 @@
+package com.example.frly.section.service;
+
+import com.example.frly.section.dto.TimeSlotDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FreeBusyCalculatorTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+    private static final LocalDateTime FROM = DAY.withHour(8);
+    private static final LocalDateTime TO = DAY.withHour(18);
+
+    @Test
+    void mergesOverlappingAndTouchingIntervalsAndClipsToWindow() {
+        List<TimeSlotDto> busy = List.of(
+                slot(10, 0, 11, 0),
+                slot(7, 0, 9, 0),      // starts before the window
+                slot(10, 30, 12, 0),   // overlaps the first
+                slot(12, 0, 12, 30),   // touches the merged one
+                slot(14, 0, 15, 0),
+                slot(17, 30, 19, 0),   // ends after the window
+                slot(19, 0, 20, 0));   // entirely outside
+
+        assertThat(FreeBusyCalculator.mergeBusy(busy, FROM, TO)).containsExactly(
+                slot(8, 0, 9, 0),
+                slot(10, 0, 12, 30),
+                slot(14, 0, 15, 0),
+                slot(17, 30, 18, 0));
+    }
+
+    @Test
+    void commonFreeSlotsAreTheGapsAtLeastMinDurationLong() {
+        List<TimeSlotDto> merged = FreeBusyCalculator.mergeBusy(List.of(
+                slot(8, 0, 9, 0),       // member A
+                slot(9, 20, 10, 0),     // member B; leaves a 20 minute gap
+                slot(10, 0, 12, 30),    // member A
+                slot(14, 0, 15, 0)), FROM, TO);
+
+        assertThat(FreeBusyCalculator.freeSlots(merged, FROM, TO, Duration.ofMinutes(30))).containsExactly(
+                slot(12, 30, 14, 0),
+                slot(15, 0, 18, 0));
+    }
+
+    @Test
+    void wholeWindowIsFreeWithoutBusyTime() {
+        assertThat(FreeBusyCalculator.freeSlots(List.of(), FROM, TO, Duration.ofMinutes(30)))
+                .containsExactly(new TimeSlotDto(FROM, TO));
+    }
+
+    private static TimeSlotDto slot(int startHour, int startMinute, int endHour, int endMinute) {
+        return new TimeSlotDto(DAY.withHour(startHour).withMinute(startMinute), DAY.withHour(endHour).withMinute(endMinute));
+    }
+}
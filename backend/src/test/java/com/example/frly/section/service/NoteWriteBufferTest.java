@@ -0,0 +1,87 @@
+package com.example.frly.section.service;
+
+import com.example.frly.common.cache.CacheInvalidationBus;
+import com.example.frly.common.exception.NoteConflictException;
+import com.example.frly.section.model.Note;
+import com.example.frly.section.repository.NoteRepository;
+import com.example.frly.user.UserSummaryCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How a node's buffered copy of a note reacts to saves flushed on other nodes (section-notes topic).
+ */
+class NoteWriteBufferTest {
+
+    private static final String GROUP = "7";
+    private static final Long SECTION = 11L;
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CacheInvalidationBus cacheInvalidationBus = mock(CacheInvalidationBus.class);
+    private NoteWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        Note note = new Note();
+        note.setId(3L);
+        note.setContent("row");
+        note.setVersion(4);
+        when(noteRepository.findBySectionId(SECTION)).thenReturn(Optional.of(note));
+        buffer = new NoteWriteBuffer(noteRepository, mock(UserSummaryCache.class), jdbcTemplate, cacheInvalidationBus);
+    }
+
+    @Test
+    void flushAnnouncesTheSavedVersion() {
+        buffer.write(GROUP, SECTION, 1L, "mine", 4);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        buffer.flush();
+
+        verify(cacheInvalidationBus).invalidateRemote(NoteWriteBuffer.TOPIC, List.of("7:11:5"));
+    }
+
+    @Test
+    void newerRemoteSaveDropsCleanCopy() {
+        buffer.write(GROUP, SECTION, 1L, "mine", 4);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+        buffer.flush();
+        assertThat(buffer.peek(GROUP, SECTION)).isPresent();
+
+        buffer.evict("7:11:6");
+
+        assertThat(buffer.peek(GROUP, SECTION)).isEmpty();
+    }
+
+    @Test
+    void olderRemoteSaveIsIgnored() {
+        buffer.write(GROUP, SECTION, 1L, "mine", 4);
+
+        buffer.evict("7:11:4");
+
+        assertThat(buffer.peek(GROUP, SECTION)).hasValueSatisfying(note -> assertThat(note.getContent()).isEqualTo("mine"));
+    }
+
+    @Test
+    void newerRemoteSaveTurnsUnsavedEditsIntoAConflict() {
+        buffer.write(GROUP, SECTION, 1L, "mine", 4);
+
+        buffer.evict("7:11:5");
+
+        assertThat(buffer.peek(GROUP, SECTION)).isEmpty();
+        assertThatThrownBy(() -> buffer.write(GROUP, SECTION, 1L, "more", 5))
+                .isInstanceOf(NoteConflictException.class);
+    }
+}
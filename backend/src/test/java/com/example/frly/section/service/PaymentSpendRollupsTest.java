@@ -0,0 +1,174 @@
+package com.example.frly.section.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies random sequences of expense adds, edits and deletes through the incremental path and checks
+ * after each round that the rollup table holds exactly what a rebuild from expenses and shares produces.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentSpendRollupsTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String GROUP_ID = "1";
+    private static final List<String> CATEGORIES = Arrays.asList(null, "Food", "Rent", "Travel");
+    private static final List<BigDecimal> RATES = List.of(
+            BigDecimal.ONE, new BigDecimal("0.9137254000"), new BigDecimal("1.2345678901"), new BigDecimal("0.0065432100"));
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static PaymentSpendRollups rollups;
+    private static long sectionId;
+    private static List<Long> userIds;
+
+    // What the test believes an expense looks like; the incremental path is fed from this
+    private record Expense(long id, OffsetDateTime date, String category, BigDecimal fxRate, Map<Long, BigDecimal> shares) {
+    }
+
+    @BeforeAll
+    static void setUp() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/config")
+                .defaultSchema("config")
+                .placeholders(Map.of("config_schema", "config"))
+                .load()
+                .migrate();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        rollups = new PaymentSpendRollups(jdbcTemplate, transactionTemplate);
+
+        sectionId = jdbcTemplate.queryForObject(
+                "INSERT INTO config.sections (group_id, title, type) VALUES (?, 'Trip', 'PAYMENT') RETURNING id", Long.class, GROUP_ID);
+        userIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            userIds.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO config.users (first_name, last_name, email, encrypted_password) VALUES ('U', ?, ?, 'x') RETURNING id",
+                    Long.class, "U" + i, "rollup-user-" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void incrementalRollupsMatchRebuildAfterRandomChanges() {
+        Random random = new Random(41L);
+        List<Expense> live = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int op = 0; op < 50; op++) {
+                int kind = live.isEmpty() ? 0 : random.nextInt(10);
+                if (kind < 5) {
+                    live.add(add(random));
+                } else if (kind < 8) {
+                    int index = random.nextInt(live.size());
+                    live.set(index, update(random, live.get(index)));
+                } else {
+                    delete(live.remove(random.nextInt(live.size())));
+                }
+            }
+
+            Map<String, BigDecimal> incremental = snapshot();
+            transactionTemplate.executeWithoutResult(status -> rollups.rebuild(GROUP_ID, sectionId));
+            assertThat(incremental).as("round %d", round).isEqualTo(snapshot());
+        }
+    }
+
+    private Expense add(Random random) {
+        Expense expense = randomExpense(random, nextExpenseId());
+        insertRows(expense);
+        rollups.apply(GROUP_ID, sectionId, contributions(expense), null);
+        return expense;
+    }
+
+    // Edits move the date (often across a month boundary), category, rate or shares, as PaymentService allows
+    private Expense update(Random random, Expense before) {
+        Expense after = randomExpense(random, before.id());
+        jdbcTemplate.update("UPDATE config.payment_expenses SET expense_date = ?, category = ?, fx_rate = ? WHERE id = ?",
+                Timestamp.from(after.date().toInstant()), after.category(), after.fxRate(), after.id());
+        jdbcTemplate.update("UPDATE config.payment_shares SET status = 'DELETED' WHERE expense_id = ?", after.id());
+        insertShares(after);
+        rollups.applyChange(GROUP_ID, sectionId, contributions(before), contributions(after), null);
+        return after;
+    }
+
+    private void delete(Expense expense) {
+        jdbcTemplate.update("UPDATE config.payment_expenses SET status = 'DELETED' WHERE id = ?", expense.id());
+        Map<PaymentSpendRollups.Key, BigDecimal> deltas = contributions(expense);
+        deltas.replaceAll((key, amount) -> amount.negate());
+        rollups.apply(GROUP_ID, sectionId, deltas, null);
+    }
+
+    private Expense randomExpense(Random random, long id) {
+        // Around month ends, with offsets, so the UTC month differs from the local one now and then
+        OffsetDateTime date = OffsetDateTime.of(2026, 1 + random.nextInt(4), 1, 0, 0, 0, 0, ZoneOffset.UTC)
+                .plusHours(random.nextInt(48) - 24)
+                .withOffsetSameInstant(ZoneOffset.ofHours(random.nextInt(25) - 12));
+        Map<Long, BigDecimal> shares = new TreeMap<>();
+        for (Long userId : userIds) {
+            if (shares.isEmpty() || random.nextBoolean()) {
+                shares.put(userId, BigDecimal.valueOf(1 + random.nextInt(100_000), 2));
+            }
+        }
+        return new Expense(id, date, CATEGORIES.get(random.nextInt(CATEGORIES.size())),
+                RATES.get(random.nextInt(RATES.size())), shares);
+    }
+
+    private long nextExpenseId() {
+        return jdbcTemplate.queryForObject("SELECT nextval(pg_get_serial_sequence('config.payment_expenses', 'id'))", Long.class);
+    }
+
+    private void insertRows(Expense expense) {
+        BigDecimal total = expense.shares().values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        jdbcTemplate.update("INSERT INTO config.payment_expenses (id, group_id, section_id, paid_by_user_id, total_amount, currency, " +
+                        "expense_date, category, fx_rate) VALUES (?, ?, ?, ?, ?, 'USD', ?, ?, ?)",
+                expense.id(), GROUP_ID, sectionId, userIds.get(0), total, Timestamp.from(expense.date().toInstant()),
+                expense.category(), expense.fxRate());
+        insertShares(expense);
+    }
+
+    private void insertShares(Expense expense) {
+        expense.shares().forEach((userId, amount) -> jdbcTemplate.update(
+                "INSERT INTO config.payment_shares (group_id, expense_id, user_id, share_amount) VALUES (?, ?, ?, ?)",
+                GROUP_ID, expense.id(), userId, amount));
+    }
+
+    private Map<PaymentSpendRollups.Key, BigDecimal> contributions(Expense expense) {
+        return rollups.contributions(expense.date(), expense.category(), expense.fxRate(), expense.shares());
+    }
+
+    // Rows netted to zero by the incremental path carry no spend, and a rebuild does not create them
+    private Map<String, BigDecimal> snapshot() {
+        Map<String, BigDecimal> rows = new TreeMap<>();
+        jdbcTemplate.query("SELECT spend_month, user_id, category, amount FROM config.payment_spend_rollups " +
+                        "WHERE group_id = ? AND section_id = ? AND amount <> 0",
+                rs -> {
+                    rows.put(rs.getDate(1) + "/" + rs.getLong(2) + "/" + rs.getString(3),
+                            rs.getBigDecimal(4).setScale(2, RoundingMode.UNNECESSARY));
+                }, GROUP_ID, sectionId);
+        return rows;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.frly.section.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy settlement by group size, and the exact subset DP up to its 20-member limit, where the
+ * O(2^n * n) cost shows. Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementCalculatorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class GreedyInput {
+        @Param({"10", "100", "1000", "10000"})
+        private int members;
+
+        private long[] balances;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            balances = balances(members, 35L);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExactInput {
+        @Param({"8", "12", "16", "20"})
+        private int members;
+
+        private long[] balances;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            balances = balances(members, 35L);
+        }
+    }
+
+    @Benchmark
+    public List<SettlementCalculator.Transfer> greedy(GreedyInput input) {
+        return SettlementCalculator.greedy(input.balances);
+    }
+
+    @Benchmark
+    public List<SettlementCalculator.Transfer> exact(ExactInput input) {
+        return SettlementCalculator.exact(input.balances);
+    }
+
+    // Random non-zero balances in cents that net to zero, like a section's ledger
+    private static long[] balances(int members, long seed) {
+        Random random = new Random(seed);
+        long[] balances = new long[members];
+        long sum = 0;
+        for (int i = 0; i < members - 1; i++) {
+            long amount = 1 + random.nextInt(50_000);
+            balances[i] = random.nextBoolean() ? amount : -amount;
+            sum += balances[i];
+        }
+        balances[members - 1] = sum == 0 ? 0 : -sum;
+        return balances;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SettlementCalculatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
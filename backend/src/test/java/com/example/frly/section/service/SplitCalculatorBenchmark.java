@@ -0,0 +1,70 @@
+package com.example.frly.section.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split cost by number of parts, on the long fast path and on the BigInteger path taken when
+ * total * weight overflows. Run with: mvn test-compile, then the main method on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitCalculatorBenchmark {
+
+    @Param({"2", "10", "100", "1000"})
+    private int parts;
+
+    private long[] weights;
+    private long total;
+    private long overflowingTotal;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(40L);
+        weights = new long[parts];
+        for (int i = 0; i < parts; i++) {
+            weights[i] = 1 + random.nextInt(10_000);
+        }
+        total = 123_456_789L;
+        overflowingTotal = Long.MAX_VALUE / 3;
+    }
+
+    @Benchmark
+    public long[] equal() {
+        return SplitCalculator.equal(total, parts);
+    }
+
+    @Benchmark
+    public long[] weighted() {
+        return SplitCalculator.weighted(total, weights);
+    }
+
+    @Benchmark
+    public long[] weightedOverflow() {
+        return SplitCalculator.weighted(overflowingTotal, weights);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SplitCalculatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
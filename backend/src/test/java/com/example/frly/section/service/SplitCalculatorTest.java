@@ -0,0 +1,158 @@
+package com.example.frly.section.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property checks over seeded random inputs: parts always sum to the total, each part is within one unit
+ * of its exact share, leftover units go to the largest remainders with ties to the earlier part, and inputs
+ * whose products overflow a long give the same result as exact arithmetic.
+ */
+class SplitCalculatorTest {
+
+    private static final int RUNS = 20_000;
+
+    @Test
+    void equalSplitSumsExactlyAndFavoursEarlierParts() {
+        Random random = new Random(40L);
+        for (int run = 0; run < RUNS; run++) {
+            long total = Math.abs(random.nextLong() >> random.nextInt(64));
+            int parts = 1 + random.nextInt(200);
+
+            long[] result = SplitCalculator.equal(total, parts);
+
+            assertThat(sum(result)).isEqualTo(BigInteger.valueOf(total));
+            for (int i = 1; i < parts; i++) {
+                // Never more than one unit apart, and any extra unit sits before the others
+                assertThat(result[i - 1] - result[i]).isBetween(0L, 1L);
+            }
+            assertThat(result[0] - result[parts - 1]).isBetween(0L, 1L);
+        }
+    }
+
+    @Test
+    void weightedSplitMatchesLargestRemainderReference() {
+        Random random = new Random(41L);
+        for (int run = 0; run < RUNS; run++) {
+            int parts = 1 + random.nextInt(50);
+            long total = random.nextInt(4) == 0 ? random.nextInt(10) : Math.abs(random.nextLong() >> (8 + random.nextInt(56)));
+            long[] weights = randomWeights(random, parts, 1L << (1 + random.nextInt(40)));
+
+            long[] result = SplitCalculator.weighted(total, weights);
+
+            assertThat(result).as("total %d, weights %s", total, Arrays.toString(weights))
+                    .containsExactly(reference(total, weights));
+            assertSumAndError(total, weights, result);
+        }
+    }
+
+    @Test
+    void equalWeightsBreakTiesTowardsEarlierParts() {
+        Random random = new Random(42L);
+        for (int run = 0; run < RUNS; run++) {
+            int parts = 1 + random.nextInt(100);
+            long total = random.nextInt(1_000_000);
+            long weight = 1 + random.nextInt(1_000);
+            long[] weights = new long[parts];
+            Arrays.fill(weights, weight);
+
+            assertThat(SplitCalculator.weighted(total, weights)).containsExactly(SplitCalculator.equal(total, parts));
+        }
+    }
+
+    @Test
+    void overflowingProductsFallBackToExactArithmetic() {
+        Random random = new Random(43L);
+        for (int run = 0; run < RUNS; run++) {
+            int parts = 2 + random.nextInt(20);
+            // total * weight exceeds a long while the weight sum stays small enough to index remainders
+            long total = Long.MAX_VALUE / (2 + random.nextInt(1_000));
+            long[] weights = randomWeights(random, parts, 1L << 30);
+
+            long[] result = SplitCalculator.weighted(total, weights);
+
+            assertThat(result).containsExactly(reference(total, weights));
+            assertSumAndError(total, weights, result);
+        }
+    }
+
+    @Test
+    void zeroWeightPartsGetNothing() {
+        long[] result = SplitCalculator.weighted(1001, new long[]{0, 3, 0, 7, 0});
+
+        assertThat(result).containsExactly(0, 300, 0, 701, 0);
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThatThrownBy(() -> SplitCalculator.equal(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitCalculator.equal(-1, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitCalculator.weighted(100, new long[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitCalculator.weighted(100, new long[]{0, 0})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitCalculator.weighted(100, new long[]{1, -1})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SplitCalculator.weighted(-5, new long[]{1})).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // |part * weightSum - total * weight| < weightSum, i.e. every part is less than one unit off its exact share
+    private static void assertSumAndError(long total, long[] weights, long[] result) {
+        assertThat(sum(result)).isEqualTo(BigInteger.valueOf(total));
+        BigInteger weightSum = sum(weights);
+        for (int i = 0; i < weights.length; i++) {
+            BigInteger error = BigInteger.valueOf(result[i]).multiply(weightSum)
+                    .subtract(BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i])));
+            assertThat(error.abs()).isLessThan(weightSum);
+        }
+    }
+
+    // Largest-remainder method in BigInteger, written independently of the packed-key sort
+    private static long[] reference(long total, long[] weights) {
+        int n = weights.length;
+        BigInteger weightSum = sum(weights);
+        long[] result = new long[n];
+        BigInteger[] remainders = new BigInteger[n];
+        BigInteger allocated = BigInteger.ZERO;
+        for (int i = 0; i < n; i++) {
+            BigInteger[] qr = BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i])).divideAndRemainder(weightSum);
+            result[i] = qr[0].longValueExact();
+            remainders[i] = qr[1];
+            allocated = allocated.add(qr[0]);
+        }
+        int leftover = BigInteger.valueOf(total).subtract(allocated).intValueExact();
+        Integer[] order = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.<Integer, BigInteger>comparing(i -> remainders[i]).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        for (int k = 0; k < leftover; k++) {
+            result[order[k]]++;
+        }
+        return result;
+    }
+
+    private static long[] randomWeights(Random random, int parts, long bound) {
+        long[] weights = new long[parts];
+        for (int i = 0; i < parts; i++) {
+            // Some zero weights and repeated weights, so ties and empty parts come up often
+            int kind = random.nextInt(6);
+            weights[i] = kind == 0 ? 0 : kind == 1 && i > 0 ? weights[i - 1] : 1 + (random.nextLong() & Long.MAX_VALUE) % bound;
+        }
+        if (Arrays.stream(weights).allMatch(w -> w == 0)) {
+            weights[random.nextInt(parts)] = 1;
+        }
+        return weights;
+    }
+
+    private static BigInteger sum(long[] values) {
+        BigInteger sum = BigInteger.ZERO;
+        for (long value : values) {
+            sum = sum.add(BigInteger.valueOf(value));
+        }
+        return sum;
+    }
+}
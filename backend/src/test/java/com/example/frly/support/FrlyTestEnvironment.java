@@ -0,0 +1,94 @@
+package com.example.frly.support;
+
+import com.example.frly.auth.JwtUserPrincipal;
+import com.example.frly.group.GroupContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the whole application against a Testcontainers PostgreSQL: values for the placeholders
+ * application.properties takes from the environment, plus a few rows (users, a group, sections) to act on.
+ */
+public final class FrlyTestEnvironment {
+
+    private FrlyTestEnvironment() {
+    }
+
+    public static Map<String, String> properties(PostgreSQLContainer<?> postgres) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("SERVER_PORT", "0");
+        properties.put("FRONTEND_BASE_URL", "http://localhost");
+        properties.put("DATABASE_URL", postgres.getJdbcUrl());
+        properties.put("DATABASE_USER", postgres.getUsername());
+        properties.put("DATABASE_PASSWORD", postgres.getPassword());
+        properties.put("CORS_ALLOWED_ORIGINS", "http://localhost");
+        properties.put("JWT_SECRET", "test-secret-test-secret-test-secret-test-secret");
+        properties.put("JWT_EXPIRATION_MS", "3600000");
+        properties.put("CLOUDINARY_CLOUD_NAME", "test");
+        properties.put("CLOUDINARY_API_KEY", "test");
+        properties.put("CLOUDINARY_API_SECRET", "test");
+        properties.put("MAIL_HOST", "localhost");
+        properties.put("MAIL_PORT", "2525");
+        properties.put("MAIL_USERNAME", "test");
+        properties.put("MAIL_PASSWORD", "test");
+        properties.put("MAIL_FROM", "test@example.com");
+        properties.put("MAX_FILE_SIZE", "10MB");
+        properties.put("MAX_REQUEST_SIZE", "10MB");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        return properties;
+    }
+
+    // As arguments, so they win over application.properties on the classpath
+    public static String[] args(PostgreSQLContainer<?> postgres) {
+        List<String> args = new ArrayList<>();
+        properties(postgres).forEach((key, value) -> args.add("--" + key + "=" + value));
+        return args.toArray(String[]::new);
+    }
+
+    public static Long createUser(JdbcTemplate jdbcTemplate, String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO config.users (first_name, last_name, email, encrypted_password) VALUES (?, 'Test', ?, 'x') RETURNING id",
+                Long.class, name, name + "-" + UUID.randomUUID() + "@example.com");
+    }
+
+    // A group with every given user as an approved member, the first one as admin
+    public static Long createGroup(JdbcTemplate jdbcTemplate, List<Long> memberIds) {
+        Long groupId = jdbcTemplate.queryForObject(
+                "INSERT INTO config.groups (display_name, invite_code) VALUES ('Test group', ?) RETURNING id",
+                Long.class, UUID.randomUUID().toString().substring(0, 10));
+        for (int i = 0; i < memberIds.size(); i++) {
+            jdbcTemplate.update("INSERT INTO config.group_members (user_id, group_id, role_id, status) " +
+                            "SELECT ?, ?, id, 'APPROVED' FROM config.roles WHERE name = ?",
+                    memberIds.get(i), groupId, i == 0 ? "ADMIN" : "MEMBER");
+        }
+        return groupId;
+    }
+
+    public static Long createSection(JdbcTemplate jdbcTemplate, Long groupId, String type) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO config.sections (group_id, title, type) VALUES (?, ?, ?) RETURNING id",
+                Long.class, String.valueOf(groupId), type.toLowerCase(), type);
+    }
+
+    // What JwtAuthenticationFilter and the group header leave on the request thread
+    public static void signIn(Long userId, Long groupId) {
+        JwtUserPrincipal principal = new JwtUserPrincipal(userId, "user-" + userId + "@example.com", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        GroupContext.setGroupId(String.valueOf(groupId));
+    }
+
+    public static void signOut() {
+        SecurityContextHolder.clearContext();
+        GroupContext.clear();
+    }
+}